@@ -34,263 +34,262 @@
 package org.omnaest.genomics.translator;
 
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.UnaryOperator;
-import java.util.stream.Collectors;
+import java.util.Set;
 
-import org.apache.commons.lang.ArrayUtils;
 import org.omnaest.genomics.translator.domain.AminoAcidCode;
 import org.omnaest.genomics.translator.domain.NucleicAcidCode;
 
+/**
+ * Helper for the translation of codons into {@link AminoAcidCode}s. The translation is based on the {@link GeneticCode#STANDARD} code, other
+ * {@link GeneticCode}s can be used directly.
+ * 
+ * @see GeneticCode
+ * @author omnaest
+ */
 public class CodonTableUtils
 {
-    private static Map<List<NucleicAcidCode>, AminoAcidCode> dnaCodonMap = new ConcurrentHashMap<>();
-    private static Map<List<NucleicAcidCode>, AminoAcidCode> rnaCodonMap = new ConcurrentHashMap<>();
-
-    static
+    private static final int NUMBER_OF_NUCLEIC_ACID_CODES = NucleicAcidCode.values().length;
+
+    /**
+     * Number of entries of the codon table which is indexed by the ordinals of the three {@link NucleicAcidCode}s
+     * 
+     * @see #codonIndex(NucleicAcidCode, NucleicAcidCode, NucleicAcidCode)
+     */
+    public static final int CODON_TABLE_SIZE = NUMBER_OF_NUCLEIC_ACID_CODES * NUMBER_OF_NUCLEIC_ACID_CODES * NUMBER_OF_NUCLEIC_ACID_CODES;
+
+    /**
+     * Order of the bases of the 64 canonical codons within the NCBI translation tables
+     */
+    private static final NucleicAcidCode[] NCBI_BASE_ORDER = new NucleicAcidCode[] { NucleicAcidCode.T, NucleicAcidCode.C, NucleicAcidCode.A,
+            NucleicAcidCode.G };
+
+    /**
+     * Compiles the codon table of a {@link GeneticCode} from the given 64 {@link AminoAcidCode}s in the NCBI codon order TTT, TTC, TTA, TTG, TCT, ...<br>
+     * <br>
+     * Every codon with ambiguity codes is resolved into the {@link AminoAcidCode} all canonical codons it stands for translate into. If they translate into
+     * {@link AminoAcidCode#D} and {@link AminoAcidCode#N}, or {@link AminoAcidCode#E} and {@link AminoAcidCode#Q}, or {@link AminoAcidCode#I} and
+     * {@link AminoAcidCode#L} the respective {@link AminoAcidCode#B}, {@link AminoAcidCode#Z} or {@link AminoAcidCode#J} is used, otherwise
+     * {@link AminoAcidCode#X}. Codons containing a code which does not stand for any base, like a gap, have no translation.
+     * 
+     * @param aminoAcids
+     * @return
+     */
+    static AminoAcidCode[] compileCodonTable(String aminoAcids)
     {
-        initDNACodonTable();
-        initRNACodonTable(dnaCodonMap);
+        AminoAcidCode[] canonicalCodonTable = new AminoAcidCode[64];
+        for (int ii = 0; ii < 64; ii++)
+        {
+            canonicalCodonTable[toCanonicalCodonIndex(NCBI_BASE_ORDER[ii / 16].ordinal(), NCBI_BASE_ORDER[(ii / 4) % 4].ordinal(),
+                                                      NCBI_BASE_ORDER[ii % 4].ordinal())] = AminoAcidCode.valueOf(aminoAcids.charAt(ii));
+        }
+
+        int[][] expandedCodes = expandToCanonicalCodes();
+        AminoAcidCode[] retval = new AminoAcidCode[CODON_TABLE_SIZE];
+        for (int first = 0; first < NUMBER_OF_NUCLEIC_ACID_CODES; first++)
+        {
+            for (int second = 0; second < NUMBER_OF_NUCLEIC_ACID_CODES; second++)
+            {
+                for (int third = 0; third < NUMBER_OF_NUCLEIC_ACID_CODES; third++)
+                {
+                    Set<AminoAcidCode> aminoAcidCodes = EnumSet.noneOf(AminoAcidCode.class);
+                    for (int firstCanonical : expandedCodes[first])
+                    {
+                        for (int secondCanonical : expandedCodes[second])
+                        {
+                            for (int thirdCanonical : expandedCodes[third])
+                            {
+                                aminoAcidCodes.add(canonicalCodonTable[toCanonicalCodonIndex(firstCanonical, secondCanonical, thirdCanonical)]);
+                            }
+                        }
+                    }
+                    retval[codonIndex(first, second, third)] = resolveAmbiguity(aminoAcidCodes);
+                }
+            }
+        }
+        return retval;
     }
 
-    private static void initDNACodonTable()
+    /**
+     * Compiles the start codon table of a {@link GeneticCode} from the given 64 start markers 'M' in the NCBI codon order. A codon with ambiguity codes is
+     * a start codon, if all canonical codons it stands for are start codons.
+     * 
+     * @param starts
+     * @return
+     */
+    static boolean[] compileStartCodonTable(String starts)
     {
-        /*
-         * Ala / A
-         * GCT, GCC, GCA, GCG GCN
-         */
-        addDNACodonTranslation("GCT", AminoAcidCode.A);
-        addDNACodonTranslation("GCC", AminoAcidCode.A);
-        addDNACodonTranslation("GCA", AminoAcidCode.A);
-        addDNACodonTranslation("GCG", AminoAcidCode.A);
-        addDNACodonTranslation("GCN", AminoAcidCode.A);
-
-        /*
-         * Leu / L
-         * TTA, TTG, CTT, CTC, CTA, CTG YTR, CTN
-         */
-        addDNACodonTranslation("TTA", AminoAcidCode.L);
-        addDNACodonTranslation("TTG", AminoAcidCode.L);
-        addDNACodonTranslation("CTT", AminoAcidCode.L);
-        addDNACodonTranslation("CTC", AminoAcidCode.L);
-        addDNACodonTranslation("CTA", AminoAcidCode.L);
-        addDNACodonTranslation("CTG", AminoAcidCode.L);
-        addDNACodonTranslation("YTR", AminoAcidCode.L);
-        addDNACodonTranslation("CTN", AminoAcidCode.L);
-
-        /*
-         * Arg / R
-         * CGT, CGC, CGA, CGG, AGA, AGG CGN, MGR
-         */
-        addDNACodonTranslation("CGT", AminoAcidCode.R);
-        addDNACodonTranslation("CGC", AminoAcidCode.R);
-        addDNACodonTranslation("CGA", AminoAcidCode.R);
-        addDNACodonTranslation("CGG", AminoAcidCode.R);
-        addDNACodonTranslation("AGA", AminoAcidCode.R);
-        addDNACodonTranslation("AGG", AminoAcidCode.R);
-        addDNACodonTranslation("CGN", AminoAcidCode.R);
-        addDNACodonTranslation("MGR", AminoAcidCode.R);
-
-        /*
-         * Lys / K
-         * AAA, AAG AAR
-         */
-        addDNACodonTranslation("AAA", AminoAcidCode.K);
-        addDNACodonTranslation("AAG", AminoAcidCode.K);
-        addDNACodonTranslation("AAR", AminoAcidCode.K);
-
-        /*
-         * Asn / N
-         * AAT, AAC AAY
-         */
-        addDNACodonTranslation("AAT", AminoAcidCode.N);
-        addDNACodonTranslation("AAC", AminoAcidCode.N);
-        addDNACodonTranslation("AAY", AminoAcidCode.N);
-
-        /*
-         * START POSITION
-         * Met / M
-         * ATG
-         */
-        addDNACodonTranslation("ATG", AminoAcidCode.M);
-
-        /*
-         * Asp / D
-         * GAT, GAC GAY
-         */
-        addDNACodonTranslation("GAT", AminoAcidCode.D);
-        addDNACodonTranslation("GAC", AminoAcidCode.D);
-        addDNACodonTranslation("GAY", AminoAcidCode.D);
-
-        /*
-         * Phe / F
-         * TTT, TTC TTY
-         */
-        addDNACodonTranslation("TTT", AminoAcidCode.F);
-        addDNACodonTranslation("TTC", AminoAcidCode.F);
-        addDNACodonTranslation("TTY", AminoAcidCode.F);
-
-        /*
-         * Cys / C
-         * TGT, TGC TGY
-         */
-        addDNACodonTranslation("TGT", AminoAcidCode.C);
-        addDNACodonTranslation("TGC", AminoAcidCode.C);
-        addDNACodonTranslation("TGY", AminoAcidCode.C);
-
-        /*
-         * Pro / P
-         * CCT, CCC, CCA, CCG CCN
-         */
-        addDNACodonTranslation("CCT", AminoAcidCode.P);
-        addDNACodonTranslation("CCC", AminoAcidCode.P);
-        addDNACodonTranslation("CCA", AminoAcidCode.P);
-        addDNACodonTranslation("CCG", AminoAcidCode.P);
-        addDNACodonTranslation("CCN", AminoAcidCode.P);
-
-        /*
-         * Gln / Q
-         * CAA, CAG CAR
-         */
-        addDNACodonTranslation("CAA", AminoAcidCode.Q);
-        addDNACodonTranslation("CAG", AminoAcidCode.Q);
-        addDNACodonTranslation("CAR", AminoAcidCode.Q);
-
-        /*
-         * Ser / S
-         * TCT, TCC, TCA, TCG, AGT, AGC TCN, AGY
-         */
-        addDNACodonTranslation("TCT", AminoAcidCode.S);
-        addDNACodonTranslation("TCC", AminoAcidCode.S);
-        addDNACodonTranslation("TCA", AminoAcidCode.S);
-        addDNACodonTranslation("TCG", AminoAcidCode.S);
-        addDNACodonTranslation("AGT", AminoAcidCode.S);
-        addDNACodonTranslation("AGC", AminoAcidCode.S);
-        addDNACodonTranslation("TCN", AminoAcidCode.S);
-        addDNACodonTranslation("AGY", AminoAcidCode.S);
-
-        /*
-         * Glu / E
-         * GAA, GAG GAR
-         */
-        addDNACodonTranslation("GAA", AminoAcidCode.E);
-        addDNACodonTranslation("GAG", AminoAcidCode.E);
-        addDNACodonTranslation("GAR", AminoAcidCode.E);
-
-        /*
-         * Thr / T
-         * ACT, ACC, ACA, ACG ACN
-         */
-        addDNACodonTranslation("ACT", AminoAcidCode.T);
-        addDNACodonTranslation("ACC", AminoAcidCode.T);
-        addDNACodonTranslation("ACA", AminoAcidCode.T);
-        addDNACodonTranslation("ACG", AminoAcidCode.T);
-        addDNACodonTranslation("ACN", AminoAcidCode.T);
-
-        /*
-         * Gly / G
-         * GGT, GGC, GGA, GGG GGN
-         */
-        addDNACodonTranslation("GGT", AminoAcidCode.G);
-        addDNACodonTranslation("GGC", AminoAcidCode.G);
-        addDNACodonTranslation("GGA", AminoAcidCode.G);
-        addDNACodonTranslation("GGG", AminoAcidCode.G);
-        addDNACodonTranslation("GGN", AminoAcidCode.G);
-
-        /*
-         * Trp / W
-         * TGG
-         */
-        addDNACodonTranslation("TGG", AminoAcidCode.W);
-
-        /*
-         * His / H
-         * CAT, CAC CAY
-         */
-        addDNACodonTranslation("CAT", AminoAcidCode.H);
-        addDNACodonTranslation("CAC", AminoAcidCode.H);
-        addDNACodonTranslation("CAY", AminoAcidCode.H);
-
-        /*
-         * Tyr / Y
-         * TAT, TAC TAY
-         */
-        addDNACodonTranslation("TAT", AminoAcidCode.Y);
-        addDNACodonTranslation("TAC", AminoAcidCode.Y);
-        addDNACodonTranslation("TAY", AminoAcidCode.Y);
-
-        /*
-         * Ile / I
-         * ATT, ATC, ATA ATH
-         */
-        addDNACodonTranslation("ATT", AminoAcidCode.I);
-        addDNACodonTranslation("ATC", AminoAcidCode.I);
-        addDNACodonTranslation("ATA", AminoAcidCode.I);
-        addDNACodonTranslation("ATH", AminoAcidCode.I);
+        boolean[] canonicalStartCodonTable = new boolean[64];
+        for (int ii = 0; ii < 64; ii++)
+        {
+            canonicalStartCodonTable[toCanonicalCodonIndex(NCBI_BASE_ORDER[ii / 16].ordinal(), NCBI_BASE_ORDER[(ii / 4) % 4].ordinal(),
+                                                           NCBI_BASE_ORDER[ii % 4].ordinal())] = starts.charAt(ii) == 'M';
+        }
+
+        int[][] expandedCodes = expandToCanonicalCodes();
+        boolean[] retval = new boolean[CODON_TABLE_SIZE];
+        for (int first = 0; first < NUMBER_OF_NUCLEIC_ACID_CODES; first++)
+        {
+            for (int second = 0; second < NUMBER_OF_NUCLEIC_ACID_CODES; second++)
+            {
+                for (int third = 0; third < NUMBER_OF_NUCLEIC_ACID_CODES; third++)
+                {
+                    boolean start = expandedCodes[first].length > 0 && expandedCodes[second].length > 0 && expandedCodes[third].length > 0;
+                    for (int firstCanonical : expandedCodes[first])
+                    {
+                        for (int secondCanonical : expandedCodes[second])
+                        {
+                            for (int thirdCanonical : expandedCodes[third])
+                            {
+                                start &= canonicalStartCodonTable[toCanonicalCodonIndex(firstCanonical, secondCanonical, thirdCanonical)];
+                            }
+                        }
+                    }
+                    retval[codonIndex(first, second, third)] = start;
+                }
+            }
+        }
+        return retval;
+    }
 
-        /*
-         * Val / V
-         * GTT, GTC, GTA, GTG GTN
-         */
-        addDNACodonTranslation("GTT", AminoAcidCode.V);
-        addDNACodonTranslation("GTC", AminoAcidCode.V);
-        addDNACodonTranslation("GTA", AminoAcidCode.V);
-        addDNACodonTranslation("GTG", AminoAcidCode.V);
-        addDNACodonTranslation("GTN", AminoAcidCode.V);
+    /**
+     * Compiles the given codon table into a table of ASCII characters of the {@link AminoAcidCode}s, where codons without translation are 0
+     * 
+     * @param codonTable
+     * @return
+     */
+    static byte[] compileAsciiCodonTable(AminoAcidCode[] codonTable)
+    {
+        byte[] retval = new byte[codonTable.length];
+        for (int ii = 0; ii < codonTable.length; ii++)
+        {
+            retval[ii] = codonTable[ii] != null ? (byte) codonTable[ii].getCode()
+                                                                       .charValue()
+                    : 0;
+        }
+        return retval;
+    }
 
-        /*
-         * STOP
-         * TAA, TGA, TAG TAR, TRA
-         */
-        addDNACodonTranslation("TAA", AminoAcidCode.STOP);
-        addDNACodonTranslation("TGA", AminoAcidCode.STOP);
-        addDNACodonTranslation("TAG", AminoAcidCode.STOP);
-        addDNACodonTranslation("TAR", AminoAcidCode.STOP);
-        addDNACodonTranslation("TRA", AminoAcidCode.STOP);
+    private static int toCanonicalCodonIndex(int first, int second, int third)
+    {
+        return first * 16 + second * 4 + third;
     }
 
-    private static void initRNACodonTable(Map<List<NucleicAcidCode>, AminoAcidCode> dnaCodonMap)
+    /**
+     * Returns for every {@link NucleicAcidCode#ordinal()} the ordinals of the canonical DNA bases A, C, G and T it stands for, where
+     * {@link NucleicAcidCode#U} is represented by {@link NucleicAcidCode#T}
+     * 
+     * @return
+     */
+    private static int[][] expandToCanonicalCodes()
     {
-        UnaryOperator<NucleicAcidCode> dnaCodeToRnaCodeMapper = c -> NucleicAcidCode.T.equals(c) ? NucleicAcidCode.U : c;
-        rnaCodonMap.putAll(dnaCodonMap.entrySet()
-                                      .stream()
-                                      .collect(Collectors.toMap(entry -> entry.getKey()
-                                                                              .stream()
-                                                                              .map(dnaCodeToRnaCodeMapper)
-                                                                              .collect(Collectors.toList()),
-                                                                entry -> entry.getValue())));
+        NucleicAcidCode[] canonicalCodes = new NucleicAcidCode[] { NucleicAcidCode.A, NucleicAcidCode.C, NucleicAcidCode.G, NucleicAcidCode.T };
+        NucleicAcidCode[] codes = NucleicAcidCode.values();
+        int[][] retval = new int[codes.length][];
+        for (NucleicAcidCode code : codes)
+        {
+            retval[code.ordinal()] = Arrays.stream(canonicalCodes)
+                                           .filter(canonicalCode -> code.test(canonicalCode.getRawCode())
+                                                   || (NucleicAcidCode.T.equals(canonicalCode) && code.test(NucleicAcidCode.U.getRawCode())))
+                                           .mapToInt(NucleicAcidCode::ordinal)
+                                           .toArray();
+        }
+        return retval;
+    }
 
+    private static AminoAcidCode resolveAmbiguity(Set<AminoAcidCode> aminoAcidCodes)
+    {
+        AminoAcidCode retval = AminoAcidCode.X;
+        if (aminoAcidCodes.isEmpty())
+        {
+            retval = null;
+        }
+        else if (aminoAcidCodes.size() == 1)
+        {
+            retval = aminoAcidCodes.iterator()
+                                   .next();
+        }
+        else if (EnumSet.of(AminoAcidCode.D, AminoAcidCode.N)
+                        .containsAll(aminoAcidCodes))
+        {
+            retval = AminoAcidCode.B;
+        }
+        else if (EnumSet.of(AminoAcidCode.E, AminoAcidCode.Q)
+                        .containsAll(aminoAcidCodes))
+        {
+            retval = AminoAcidCode.Z;
+        }
+        else if (EnumSet.of(AminoAcidCode.I, AminoAcidCode.L)
+                        .containsAll(aminoAcidCodes))
+        {
+            retval = AminoAcidCode.J;
+        }
+        return retval;
     }
 
-    private static void addDNACodonTranslation(String nucleicAcidCodes, AminoAcidCode aminoAcidCode)
+    public static AminoAcidCode translate(List<NucleicAcidCode> nucleicAcidCodes)
     {
-        addDNACodonTranslation(ArrayUtils.toObject(nucleicAcidCodes.toCharArray()), aminoAcidCode);
+        return nucleicAcidCodes != null && nucleicAcidCodes.size() == 3 ? translate(nucleicAcidCodes.get(0), nucleicAcidCodes.get(1), nucleicAcidCodes.get(2))
+                : null;
     }
 
-    private static void addDNACodonTranslation(Character[] nucleicAcidCodes, AminoAcidCode aminoAcidCode)
+    /**
+     * Translates the codon of the three given {@link NucleicAcidCode}s, which can be DNA or RNA codes, into an {@link AminoAcidCode} using the
+     * {@link GeneticCode#STANDARD} code.<br>
+     * <br>
+     * Returns null if any of the given codes is null or if the codon has no translation.
+     * 
+     * @see GeneticCode#translate(NucleicAcidCode, NucleicAcidCode, NucleicAcidCode)
+     * @param first
+     * @param second
+     * @param third
+     * @return
+     */
+    public static AminoAcidCode translate(NucleicAcidCode first, NucleicAcidCode second, NucleicAcidCode third)
     {
-        addDNACodonTranslation(Arrays.stream(nucleicAcidCodes)
-                                     .map(NucleicAcidCode::valueOf)
-                                     .collect(Collectors.toList())
-                                     .toArray(new NucleicAcidCode[0]),
-                               aminoAcidCode);
+        return GeneticCode.STANDARD.translate(first, second, third);
     }
 
-    private static void addDNACodonTranslation(NucleicAcidCode[] nucleicAcidCodes, AminoAcidCode aminoAcidCode)
+    /**
+     * Translates a codon given by its codon index into an {@link AminoAcidCode} using the {@link GeneticCode#STANDARD} code. Returns null if the codon has
+     * no translation.
+     * 
+     * @see #codonIndex(NucleicAcidCode, NucleicAcidCode, NucleicAcidCode)
+     * @param codonIndex
+     * @return
+     */
+    public static AminoAcidCode translate(int codonIndex)
     {
-        dnaCodonMap.put(Arrays.asList(nucleicAcidCodes), aminoAcidCode);
+        return GeneticCode.STANDARD.translate(codonIndex);
     }
 
-    public static AminoAcidCode translate(List<NucleicAcidCode> nucleicAcidCodes)
+    /**
+     * Returns the index of the codon within the codon table, which is based on the {@link NucleicAcidCode#ordinal()}s of the three codes.
+     * 
+     * @see #translate(int)
+     * @see #CODON_TABLE_SIZE
+     * @param first
+     * @param second
+     * @param third
+     * @return
+     */
+    public static int codonIndex(NucleicAcidCode first, NucleicAcidCode second, NucleicAcidCode third)
     {
-        return nucleicAcidCodes != null && nucleicAcidCodes.size() == 3 ? translateByDNAOrRNA(nucleicAcidCodes) : null;
+        return codonIndex(first.ordinal(), second.ordinal(), third.ordinal());
     }
 
-    private static AminoAcidCode translateByDNAOrRNA(List<NucleicAcidCode> nucleicAcidCodes)
+    /**
+     * Similar to {@link #codonIndex(NucleicAcidCode, NucleicAcidCode, NucleicAcidCode)} based on the {@link NucleicAcidCode#ordinal()}s
+     * 
+     * @param firstOrdinal
+     * @param secondOrdinal
+     * @param thirdOrdinal
+     * @return
+     */
+    public static int codonIndex(int firstOrdinal, int secondOrdinal, int thirdOrdinal)
     {
-        return dnaCodonMap.getOrDefault(nucleicAcidCodes, rnaCodonMap.get(nucleicAcidCodes));
+        return (firstOrdinal * NUMBER_OF_NUCLEIC_ACID_CODES + secondOrdinal) * NUMBER_OF_NUCLEIC_ACID_CODES + thirdOrdinal;
     }
 
 }
@@ -36,6 +36,7 @@ package org.omnaest.genomics.translator;
 import java.util.Map;
 
 import org.omnaest.genomics.translator.domain.NucleicAcidCode;
+import org.omnaest.genomics.translator.domain.NucleicAcidCodeSequence;
 import org.omnaest.utils.MapUtils;
 
 /**
@@ -48,15 +49,41 @@ public class ComplementaryBasePairUtils
     private static Map<NucleicAcidCode, NucleicAcidCode> dnaComplements = MapUtils.builder()
                                                                                   .put(NucleicAcidCode.A, NucleicAcidCode.T)
                                                                                   .put(NucleicAcidCode.T, NucleicAcidCode.A)
+                                                                                  .put(NucleicAcidCode.U, NucleicAcidCode.A)
                                                                                   .put(NucleicAcidCode.G, NucleicAcidCode.C)
                                                                                   .put(NucleicAcidCode.C, NucleicAcidCode.G)
+                                                                                  .put(NucleicAcidCode.R, NucleicAcidCode.Y)
+                                                                                  .put(NucleicAcidCode.Y, NucleicAcidCode.R)
+                                                                                  .put(NucleicAcidCode.K, NucleicAcidCode.M)
+                                                                                  .put(NucleicAcidCode.M, NucleicAcidCode.K)
+                                                                                  .put(NucleicAcidCode.S, NucleicAcidCode.S)
+                                                                                  .put(NucleicAcidCode.W, NucleicAcidCode.W)
+                                                                                  .put(NucleicAcidCode.B, NucleicAcidCode.V)
+                                                                                  .put(NucleicAcidCode.V, NucleicAcidCode.B)
+                                                                                  .put(NucleicAcidCode.D, NucleicAcidCode.H)
+                                                                                  .put(NucleicAcidCode.H, NucleicAcidCode.D)
+                                                                                  .put(NucleicAcidCode.N, NucleicAcidCode.N)
+                                                                                  .put(NucleicAcidCode.___, NucleicAcidCode.___)
                                                                                   .build();
 
     private static Map<NucleicAcidCode, NucleicAcidCode> rnaComplements = MapUtils.builder()
                                                                                   .put(NucleicAcidCode.A, NucleicAcidCode.U)
                                                                                   .put(NucleicAcidCode.U, NucleicAcidCode.A)
+                                                                                  .put(NucleicAcidCode.T, NucleicAcidCode.A)
                                                                                   .put(NucleicAcidCode.G, NucleicAcidCode.C)
                                                                                   .put(NucleicAcidCode.C, NucleicAcidCode.G)
+                                                                                  .put(NucleicAcidCode.R, NucleicAcidCode.Y)
+                                                                                  .put(NucleicAcidCode.Y, NucleicAcidCode.R)
+                                                                                  .put(NucleicAcidCode.K, NucleicAcidCode.M)
+                                                                                  .put(NucleicAcidCode.M, NucleicAcidCode.K)
+                                                                                  .put(NucleicAcidCode.S, NucleicAcidCode.S)
+                                                                                  .put(NucleicAcidCode.W, NucleicAcidCode.W)
+                                                                                  .put(NucleicAcidCode.B, NucleicAcidCode.V)
+                                                                                  .put(NucleicAcidCode.V, NucleicAcidCode.B)
+                                                                                  .put(NucleicAcidCode.D, NucleicAcidCode.H)
+                                                                                  .put(NucleicAcidCode.H, NucleicAcidCode.D)
+                                                                                  .put(NucleicAcidCode.N, NucleicAcidCode.N)
+                                                                                  .put(NucleicAcidCode.___, NucleicAcidCode.___)
                                                                                   .build();
 
     public enum ComplementationType
@@ -64,10 +91,33 @@ public class ComplementaryBasePairUtils
         DNA(dnaComplements), RNA(rnaComplements);
 
         private Map<NucleicAcidCode, NucleicAcidCode> mapping;
+        private NucleicAcidCode[]                     complements;
+        private byte[]                                complementOrdinals;
+        private byte[]                                asciiComplements;
 
         private ComplementationType(Map<NucleicAcidCode, NucleicAcidCode> mapping)
         {
             this.mapping = mapping;
+            this.complements = new NucleicAcidCode[NucleicAcidCode.values().length];
+            this.complementOrdinals = new byte[NucleicAcidCode.values().length];
+            this.asciiComplements = new byte[128];
+            for (int character = 0; character < this.asciiComplements.length; character++)
+            {
+                this.asciiComplements[character] = (byte) character;
+            }
+            for (NucleicAcidCode code : NucleicAcidCode.values())
+            {
+                NucleicAcidCode complement = mapping.get(code);
+                this.complements[code.ordinal()] = complement;
+                this.complementOrdinals[code.ordinal()] = complement != null ? (byte) complement.ordinal() : -1;
+                if (complement != null)
+                {
+                    char character = code.getRawCode();
+                    char complementCharacter = complement.getRawCode();
+                    this.asciiComplements[character] = (byte) complementCharacter;
+                    this.asciiComplements[Character.toLowerCase(character)] = (byte) Character.toLowerCase(complementCharacter);
+                }
+            }
         }
 
         public Map<NucleicAcidCode, NucleicAcidCode> getMapping()
@@ -75,12 +125,112 @@ public class ComplementaryBasePairUtils
             return this.mapping;
         }
 
+        /**
+         * Returns the {@link NucleicAcidCode#ordinal()} of the complement of the {@link NucleicAcidCode} with the given ordinal or -1 if there is no
+         * complement. An ordinal of -1 returns -1.
+         * 
+         * @param ordinal
+         * @return
+         */
+        public int getComplementOrdinal(int ordinal)
+        {
+            return ordinal >= 0 ? this.complementOrdinals[ordinal] : -1;
+        }
+
+        /**
+         * Returns the complement of the given {@link NucleicAcidCode} or null for null
+         * 
+         * @param code
+         * @return
+         */
+        public NucleicAcidCode getComplement(NucleicAcidCode code)
+        {
+            return code != null ? this.complements[code.ordinal()] : null;
+        }
+
+        /**
+         * Returns the ASCII character of the complement of the given ASCII character keeping its case. Characters which are no {@link NucleicAcidCode}
+         * are returned unchanged.
+         * 
+         * @param character
+         * @return
+         */
+        public byte getAsciiComplement(byte character)
+        {
+            return character >= 0 ? this.asciiComplements[character] : character;
+        }
+
     }
 
     public static NucleicAcidCode toComplement(NucleicAcidCode code, ComplementationType complementationType)
     {
-        return complementationType.getMapping()
-                                  .get(code);
+        return complementationType.getComplement(code);
+    }
+
+    /**
+     * Replaces the given region of {@link NucleicAcidCode}s by their complements in place
+     * 
+     * @param codes
+     * @param offset
+     * @param length
+     * @param complementationType
+     */
+    public static void complement(NucleicAcidCode[] codes, int offset, int length, ComplementationType complementationType)
+    {
+        for (int ii = offset; ii < offset + length; ii++)
+        {
+            codes[ii] = complementationType.getComplement(codes[ii]);
+        }
+    }
+
+    /**
+     * Replaces the given region of {@link NucleicAcidCode}s by its reverse complement in place
+     * 
+     * @param codes
+     * @param offset
+     * @param length
+     * @param complementationType
+     */
+    public static void reverseComplement(NucleicAcidCode[] codes, int offset, int length, ComplementationType complementationType)
+    {
+        for (int left = offset, right = offset + length - 1; left <= right; left++, right--)
+        {
+            NucleicAcidCode leftCode = codes[left];
+            codes[left] = complementationType.getComplement(codes[right]);
+            codes[right] = complementationType.getComplement(leftCode);
+        }
+    }
+
+    /**
+     * Replaces the given region of ASCII encoded nucleic acid codes by its reverse complement in place, keeping the case of each character. Characters
+     * which are no {@link NucleicAcidCode} are only moved.
+     * 
+     * @param sequence
+     * @param offset
+     * @param length
+     * @param complementationType
+     */
+    public static void reverseComplement(byte[] sequence, int offset, int length, ComplementationType complementationType)
+    {
+        for (int left = offset, right = offset + length - 1; left <= right; left++, right--)
+        {
+            byte leftCharacter = sequence[left];
+            sequence[left] = complementationType.getAsciiComplement(sequence[right]);
+            sequence[right] = complementationType.getAsciiComplement(leftCharacter);
+        }
+    }
+
+    /**
+     * Returns the reverse complement of the given {@link NucleicAcidCodeSequence}
+     * 
+     * @see NucleicAcidCodeSequence#asReverseComplement(ComplementationType)
+     * @param sequence
+     * @param complementationType
+     * @return
+     */
+    public static NucleicAcidCodeSequence reverseComplement(NucleicAcidCodeSequence sequence, ComplementationType complementationType)
+    {
+        return sequence.asReverseComplement(complementationType);
     }
 
 }
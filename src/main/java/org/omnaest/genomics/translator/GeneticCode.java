@@ -0,0 +1,219 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.genomics.translator;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import org.omnaest.genomics.translator.domain.AminoAcidCode;
+import org.omnaest.genomics.translator.domain.NucleicAcidCode;
+
+/**
+ * The genetic codes as defined by the NCBI translation tables (see https://www.ncbi.nlm.nih.gov/Taxonomy/Utils/wprintgc.cgi).<br>
+ * <br>
+ * Every {@link GeneticCode} is compiled once into an immutable codon table which is indexed by the codon index of
+ * {@link CodonTableUtils#codonIndex(NucleicAcidCode, NucleicAcidCode, NucleicAcidCode)} and which includes all codons with ambiguity codes. So switching
+ * between {@link GeneticCode}s is only a reference swap.
+ * 
+ * @see #STANDARD
+ * @see #valueOf(int)
+ * @see #translate(NucleicAcidCode, NucleicAcidCode, NucleicAcidCode)
+ * @see #isStartCodon(int)
+ * @author omnaest
+ */
+public enum GeneticCode
+{
+    STANDARD(1, "Standard", "FFLLSSSSYY**CC*WLLLLPPPPHHQQRRRRIIIMTTTTNNKKSSRRVVVVAAAADDEEGGGG",
+            "---M------**--*----M---------------M----------------------------"),
+    VERTEBRATE_MITOCHONDRIAL(2, "Vertebrate Mitochondrial", "FFLLSSSSYY**CCWWLLLLPPPPHHQQRRRRIIMMTTTTNNKKSS**VVVVAAAADDEEGGGG",
+            "----------**--------------------MMMM----------**---M------------"),
+    YEAST_MITOCHONDRIAL(3, "Yeast Mitochondrial", "FFLLSSSSYY**CCWWTTTTPPPPHHQQRRRRIIMMTTTTNNKKSSRRVVVVAAAADDEEGGGG",
+            "----------**----------------------MM---------------M------------"),
+    MOLD_PROTOZOAN_COELENTERATE_MITOCHONDRIAL(4, "Mold, Protozoan, and Coelenterate Mitochondrial and the Mycoplasma/Spiroplasma",
+            "FFLLSSSSYY**CCWWLLLLPPPPHHQQRRRRIIIMTTTTNNKKSSRRVVVVAAAADDEEGGGG", "--MM------**-------M------------MMMM---------------M------------"),
+    INVERTEBRATE_MITOCHONDRIAL(5, "Invertebrate Mitochondrial", "FFLLSSSSYY**CCWWLLLLPPPPHHQQRRRRIIMMTTTTNNKKSSSSVVVVAAAADDEEGGGG",
+            "---M------**--------------------MMMM---------------M------------"),
+    CILIATE_DASYCLADACEAN_HEXAMITA_NUCLEAR(6, "Ciliate, Dasycladacean and Hexamita Nuclear",
+            "FFLLSSSSYYQQCC*WLLLLPPPPHHQQRRRRIIIMTTTTNNKKSSRRVVVVAAAADDEEGGGG", "--------------*--------------------M----------------------------"),
+    ECHINODERM_FLATWORM_MITOCHONDRIAL(9, "Echinoderm and Flatworm Mitochondrial", "FFLLSSSSYY**CCWWLLLLPPPPHHQQRRRRIIIMTTTTNNNKSSSSVVVVAAAADDEEGGGG",
+            "----------**-----------------------M---------------M------------"),
+    EUPLOTID_NUCLEAR(10, "Euplotid Nuclear", "FFLLSSSSYY**CCCWLLLLPPPPHHQQRRRRIIIMTTTTNNKKSSRRVVVVAAAADDEEGGGG",
+            "----------**-----------------------M----------------------------"),
+    BACTERIAL_ARCHAEAL_PLANT_PLASTID(11, "Bacterial, Archaeal and Plant Plastid", "FFLLSSSSYY**CC*WLLLLPPPPHHQQRRRRIIIMTTTTNNKKSSRRVVVVAAAADDEEGGGG",
+            "---M------**--*----M------------MMMM---------------M------------"),
+    ALTERNATIVE_YEAST_NUCLEAR(12, "Alternative Yeast Nuclear", "FFLLSSSSYY**CC*WLLLSPPPPHHQQRRRRIIIMTTTTNNKKSSRRVVVVAAAADDEEGGGG",
+            "----------**--*----M---------------M----------------------------"),
+    ASCIDIAN_MITOCHONDRIAL(13, "Ascidian Mitochondrial", "FFLLSSSSYY**CCWWLLLLPPPPHHQQRRRRIIMMTTTTNNKKSSGGVVVVAAAADDEEGGGG",
+            "---M------**----------------------MM---------------M------------"),
+    ALTERNATIVE_FLATWORM_MITOCHONDRIAL(14, "Alternative Flatworm Mitochondrial", "FFLLSSSSYYY*CCWWLLLLPPPPHHQQRRRRIIIMTTTTNNNKSSSSVVVVAAAADDEEGGGG",
+            "-----------*-----------------------M----------------------------"),
+    BLEPHARISMA_NUCLEAR(15, "Blepharisma Nuclear", "FFLLSSSSYY*QCC*WLLLLPPPPHHQQRRRRIIIMTTTTNNKKSSRRVVVVAAAADDEEGGGG",
+            "----------*---*--------------------M----------------------------"),
+    CHLOROPHYCEAN_MITOCHONDRIAL(16, "Chlorophycean Mitochondrial", "FFLLSSSSYY*LCC*WLLLLPPPPHHQQRRRRIIIMTTTTNNKKSSRRVVVVAAAADDEEGGGG",
+            "----------*---*--------------------M----------------------------"),
+    TREMATODE_MITOCHONDRIAL(21, "Trematode Mitochondrial", "FFLLSSSSYY**CCWWLLLLPPPPHHQQRRRRIIMMTTTTNNNKSSSSVVVVAAAADDEEGGGG",
+            "----------**-----------------------M---------------M------------"),
+    SCENEDESMUS_OBLIQUUS_MITOCHONDRIAL(22, "Scenedesmus obliquus Mitochondrial", "FFLLSS*SYY*LCC*WLLLLPPPPHHQQRRRRIIIMTTTTNNKKSSRRVVVVAAAADDEEGGGG",
+            "------*---*---*--------------------M----------------------------"),
+    THRAUSTOCHYTRIUM_MITOCHONDRIAL(23, "Thraustochytrium Mitochondrial", "FF*LSSSSYY**CC*WLLLLPPPPHHQQRRRRIIIMTTTTNNKKSSRRVVVVAAAADDEEGGGG",
+            "--*-------**--*-----------------M--M---------------M------------"),
+    RHABDOPLEURIDAE_MITOCHONDRIAL(24, "Rhabdopleuridae Mitochondrial", "FFLLSSSSYY**CCWWLLLLPPPPHHQQRRRRIIIMTTTTNNKKSSSKVVVVAAAADDEEGGGG",
+            "---M------**-------M---------------M---------------M------------"),
+    CANDIDATE_DIVISION_SR1_GRACILIBACTERIA(25, "Candidate Division SR1 and Gracilibacteria",
+            "FFLLSSSSYY**CCGWLLLLPPPPHHQQRRRRIIIMTTTTNNKKSSRRVVVVAAAADDEEGGGG", "---M------**-----------------------M---------------M------------"),
+    PACHYSOLEN_TANNOPHILUS_NUCLEAR(26, "Pachysolen tannophilus Nuclear", "FFLLSSSSYY**CC*WLLLAPPPPHHQQRRRRIIIMTTTTNNKKSSRRVVVVAAAADDEEGGGG",
+            "----------**--*----M---------------M----------------------------"),
+    KARYORELICT_NUCLEAR(27, "Karyorelict Nuclear", "FFLLSSSSYYQQCCWWLLLLPPPPHHQQRRRRIIIMTTTTNNKKSSRRVVVVAAAADDEEGGGG",
+            "--------------*--------------------M----------------------------"),
+    CONDYLOSTOMA_NUCLEAR(28, "Condylostoma Nuclear", "FFLLSSSSYYQQCCWWLLLLPPPPHHQQRRRRIIIMTTTTNNKKSSRRVVVVAAAADDEEGGGG",
+            "----------**--*--------------------M----------------------------"),
+    MESODINIUM_NUCLEAR(29, "Mesodinium Nuclear", "FFLLSSSSYYYYCC*WLLLLPPPPHHQQRRRRIIIMTTTTNNKKSSRRVVVVAAAADDEEGGGG",
+            "--------------*--------------------M----------------------------"),
+    PERITRICH_NUCLEAR(30, "Peritrich Nuclear", "FFLLSSSSYYEECC*WLLLLPPPPHHQQRRRRIIIMTTTTNNKKSSRRVVVVAAAADDEEGGGG",
+            "--------------*--------------------M----------------------------"),
+    BLASTOCRITHIDIA_NUCLEAR(31, "Blastocrithidia Nuclear", "FFLLSSSSYYEECCWWLLLLPPPPHHQQRRRRIIIMTTTTNNKKSSRRVVVVAAAADDEEGGGG",
+            "----------**-----------------------M----------------------------"),
+    BALANOPHORACEAE_PLASTID(32, "Balanophoraceae Plastid", "FFLLSSSSYY*WCC*WLLLLPPPPHHQQRRRRIIIMTTTTNNKKSSRRVVVVAAAADDEEGGGG",
+            "---M------*---*----M------------MMMM---------------M------------"),
+    CEPHALODISCIDAE_MITOCHONDRIAL(33, "Cephalodiscidae Mitochondrial", "FFLLSSSSYYY*CCWWLLLLPPPPHHQQRRRRIIIMTTTTNNKKSSSKVVVVAAAADDEEGGGG",
+            "---M-------*-------M---------------M---------------M------------");
+
+    private final int             id;
+    private final String          name;
+    private final AminoAcidCode[] codonTable;
+    private final byte[]          asciiCodonTable;
+    private final boolean[]       startCodonTable;
+
+    /**
+     * @param id
+     *            NCBI translation table id
+     * @param name
+     * @param aminoAcids
+     *            the 64 {@link AminoAcidCode}s of the canonical codons in the NCBI order TTT, TTC, TTA, TTG, TCT, ...
+     * @param starts
+     *            the start codon markers 'M' in the same order as the aminoAcids
+     */
+    private GeneticCode(int id, String name, String aminoAcids, String starts)
+    {
+        this.id = id;
+        this.name = name;
+        this.codonTable = CodonTableUtils.compileCodonTable(aminoAcids);
+        this.asciiCodonTable = CodonTableUtils.compileAsciiCodonTable(this.codonTable);
+        this.startCodonTable = CodonTableUtils.compileStartCodonTable(starts);
+    }
+
+    /**
+     * Returns the NCBI translation table id
+     * 
+     * @return
+     */
+    public int getId()
+    {
+        return this.id;
+    }
+
+    public String getName()
+    {
+        return this.name;
+    }
+
+    /**
+     * Translates the codon of the three given {@link NucleicAcidCode}s into an {@link AminoAcidCode}. Returns null if any of the given codes is null or the
+     * codon has no translation, like for gaps.
+     * 
+     * @param first
+     * @param second
+     * @param third
+     * @return
+     */
+    public AminoAcidCode translate(NucleicAcidCode first, NucleicAcidCode second, NucleicAcidCode third)
+    {
+        return first != null && second != null && third != null ? this.codonTable[CodonTableUtils.codonIndex(first, second, third)] : null;
+    }
+
+    /**
+     * Translates the codon with the given codon index into an {@link AminoAcidCode}
+     * 
+     * @see CodonTableUtils#codonIndex(NucleicAcidCode, NucleicAcidCode, NucleicAcidCode)
+     * @param codonIndex
+     * @return
+     */
+    public AminoAcidCode translate(int codonIndex)
+    {
+        return this.codonTable[codonIndex];
+    }
+
+    /**
+     * Translates the codon with the given codon index into the ASCII character of the {@link AminoAcidCode}, or 0 if the codon has no translation
+     * 
+     * @see #translate(int)
+     * @param codonIndex
+     * @return
+     */
+    public byte translateToAscii(int codonIndex)
+    {
+        return this.asciiCodonTable[codonIndex];
+    }
+
+    /**
+     * Returns true if the given codon is an alternative or the regular start codon of this {@link GeneticCode}. A codon with ambiguity codes is a start codon,
+     * if all codons it stands for are start codons.
+     * 
+     * @param codonIndex
+     * @return
+     */
+    public boolean isStartCodon(int codonIndex)
+    {
+        return this.startCodonTable[codonIndex];
+    }
+
+    /**
+     * Similar to {@link #isStartCodon(int)}
+     * 
+     * @param first
+     * @param second
+     * @param third
+     * @return
+     */
+    public boolean isStartCodon(NucleicAcidCode first, NucleicAcidCode second, NucleicAcidCode third)
+    {
+        return first != null && second != null && third != null && this.startCodonTable[CodonTableUtils.codonIndex(first, second, third)];
+    }
+
+    /**
+     * Returns true if the given codon translates into {@link AminoAcidCode#STOP}
+     * 
+     * @param codonIndex
+     * @return
+     */
+    public boolean isStopCodon(int codonIndex)
+    {
+        return AminoAcidCode.STOP == this.codonTable[codonIndex];
+    }
+
+    /**
+     * Returns the {@link GeneticCode} for the given NCBI translation table id
+     * 
+     * @param id
+     * @return
+     */
+    public static Optional<GeneticCode> valueOf(int id)
+    {
+        return Arrays.stream(values())
+                     .filter(geneticCode -> geneticCode.getId() == id)
+                     .findFirst();
+    }
+}
@@ -0,0 +1,559 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.genomics.translator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.omnaest.genomics.translator.domain.NucleicAcidCode;
+import org.omnaest.genomics.translator.domain.NucleicAcidCodeSequence;
+import org.omnaest.genomics.translator.domain.PackedNucleicAcidCodeList;
+
+/**
+ * Counting of canonical k-mers of {@link NucleicAcidCodeSequence}s<br>
+ * <br>
+ * The k-mers are rolled 2 bit encoded together with their reverse complement over the sequences and the smaller of both is counted within open
+ * addressing tables of primitive long keys and int counts, one per worker thread, which are merged at the end.
+ * 
+ * @see #counter()
+ * @author omnaest
+ */
+public class KmerCounterUtils
+{
+    private static final NucleicAcidCode[] CODES = new NucleicAcidCode[] { NucleicAcidCode.A, NucleicAcidCode.C, NucleicAcidCode.G, NucleicAcidCode.T };
+
+    /**
+     * 2 bit code per {@link NucleicAcidCode#ordinal()}, which is -1 for all codes except A, C, G, T and U
+     */
+    private static final int[] BITS_OF_ORDINAL = new int[NucleicAcidCode.values().length];
+    static
+    {
+        Arrays.fill(BITS_OF_ORDINAL, -1);
+        BITS_OF_ORDINAL[NucleicAcidCode.A.ordinal()] = 0;
+        BITS_OF_ORDINAL[NucleicAcidCode.C.ordinal()] = 1;
+        BITS_OF_ORDINAL[NucleicAcidCode.G.ordinal()] = 2;
+        BITS_OF_ORDINAL[NucleicAcidCode.T.ordinal()] = 3;
+        BITS_OF_ORDINAL[NucleicAcidCode.U.ordinal()] = 3;
+    }
+
+    public static final int MAX_K = 31;
+
+    /**
+     * Canonical k-mer and its number of occurrences
+     * 
+     * @author omnaest
+     */
+    public static class KmerCount
+    {
+        private final int  k;
+        private final long kmer;
+        private final int  count;
+
+        public KmerCount(int k, long kmer, int count)
+        {
+            super();
+            this.k = k;
+            this.kmer = kmer;
+            this.count = count;
+        }
+
+        /**
+         * Returns the 2 bit encoded k-mer with A=0, C=1, G=2 and T=3, where the first base is held by the most significant bits
+         * 
+         * @return
+         */
+        public long getKmer()
+        {
+            return this.kmer;
+        }
+
+        public int getCount()
+        {
+            return this.count;
+        }
+
+        public NucleicAcidCodeSequence asNucleicAcidCodeSequence()
+        {
+            return decode(this.kmer, this.k);
+        }
+
+        /**
+         * Returns the k-mer and the count separated by a tab
+         */
+        @Override
+        public String toString()
+        {
+            return this.asNucleicAcidCodeSequence() + "\t" + this.count;
+        }
+
+    }
+
+    /**
+     * Result of a {@link KmerCounter}, which holds the canonical k-mers sorted by their 2 bit encoding
+     * 
+     * @author omnaest
+     */
+    public static interface KmerCounts
+    {
+        public int getK();
+
+        /**
+         * Returns the number of distinct canonical k-mers
+         * 
+         * @return
+         */
+        public int size();
+
+        /**
+         * Returns the count of the given k-mer or of its reverse complement
+         * 
+         * @param kmer
+         * @return
+         */
+        public int getCount(NucleicAcidCodeSequence kmer);
+
+        /**
+         * Returns the {@link KmerCount}s ordered by {@link KmerCount#getKmer()}
+         * 
+         * @return
+         */
+        public Stream<KmerCount> stream();
+
+        /**
+         * Writes one line per k-mer with the k-mer and the count separated by a tab, ordered like {@link #stream()}
+         * 
+         * @param outputStream
+         */
+        public void writeTo(OutputStream outputStream);
+    }
+
+    public static interface KmerCounter
+    {
+        /**
+         * Sets the k-mer length between 1 and {@value KmerCounterUtils#MAX_K}, default is 21
+         * 
+         * @param k
+         * @return
+         */
+        public KmerCounter withK(int k);
+
+        /**
+         * Default is {@link ForkJoinPool#commonPool()}
+         * 
+         * @param pool
+         * @return
+         */
+        public KmerCounter usingPool(ForkJoinPool pool);
+
+        /**
+         * Sets the number of bases counted by a single task. Short sequences are combined and long sequences are split into work units of about this size.
+         * Default is 1048576.
+         * 
+         * @param workUnitSize
+         * @return
+         */
+        public KmerCounter withWorkUnitSize(int workUnitSize);
+
+        public KmerCounts count(Stream<NucleicAcidCodeSequence> sequences);
+
+        public KmerCounts count(Collection<NucleicAcidCodeSequence> sequences);
+
+        public KmerCounts count(NucleicAcidCodeSequence sequence);
+    }
+
+    protected KmerCounterUtils()
+    {
+    }
+
+    public static KmerCounter counter()
+    {
+        return new KmerCounter()
+        {
+            private int          k            = 21;
+            private ForkJoinPool pool         = ForkJoinPool.commonPool();
+            private int          workUnitSize = 1 << 20;
+
+            @Override
+            public KmerCounter withK(int k)
+            {
+                if (k < 1 || k > MAX_K)
+                {
+                    throw new IllegalArgumentException("k must be between 1 and " + MAX_K + " but was " + k);
+                }
+                this.k = k;
+                return this;
+            }
+
+            @Override
+            public KmerCounter usingPool(ForkJoinPool pool)
+            {
+                this.pool = pool;
+                return this;
+            }
+
+            @Override
+            public KmerCounter withWorkUnitSize(int workUnitSize)
+            {
+                this.workUnitSize = Math.max(1, workUnitSize);
+                return this;
+            }
+
+            @Override
+            public KmerCounts count(NucleicAcidCodeSequence sequence)
+            {
+                return this.count(Stream.of(sequence));
+            }
+
+            @Override
+            public KmerCounts count(Collection<NucleicAcidCodeSequence> sequences)
+            {
+                return this.count(sequences.stream());
+            }
+
+            @Override
+            public KmerCounts count(Stream<NucleicAcidCodeSequence> sequences)
+            {
+                int k = this.k;
+                Queue<KmerCountTable> idleTables = new ConcurrentLinkedQueue<>();
+                Deque<ForkJoinTask<?>> pendingWorkUnits = new ArrayDeque<>();
+                int maximumNumberOfPendingWorkUnits = 2 * this.pool.getParallelism() + 1;
+
+                List<NucleicAcidCodeSequence> workUnit = new ArrayList<>();
+                int workUnitBases = 0;
+                for (Iterator<NucleicAcidCodeSequence> iterator = sequences.iterator(); iterator.hasNext();)
+                {
+                    NucleicAcidCodeSequence sequence = iterator.next();
+                    for (int start = 0; start < sequence.size(); start += this.workUnitSize)
+                    {
+                        int end = (int) Math.min(sequence.size(), (long) start + this.workUnitSize + k - 1);
+                        workUnit.add(start == 0 && end == sequence.size() ? sequence : sequence.subSequence(start, end));
+                        workUnitBases += end - start;
+                        if (workUnitBases >= this.workUnitSize)
+                        {
+                            this.submit(workUnit, k, idleTables, pendingWorkUnits, maximumNumberOfPendingWorkUnits);
+                            workUnit = new ArrayList<>();
+                            workUnitBases = 0;
+                        }
+                    }
+                }
+                this.submit(workUnit, k, idleTables, pendingWorkUnits, maximumNumberOfPendingWorkUnits);
+                while (!pendingWorkUnits.isEmpty())
+                {
+                    pendingWorkUnits.poll()
+                                    .join();
+                }
+
+                KmerCountTable table = idleTables.stream()
+                                                 .max((table1, table2) -> Integer.compare(table1.size(), table2.size()))
+                                                 .orElseGet(KmerCountTable::new);
+                idleTables.stream()
+                          .filter(other -> other != table)
+                          .forEach(table::addAll);
+                return table.toKmerCounts(k);
+            }
+
+            private void submit(List<NucleicAcidCodeSequence> workUnit, int k, Queue<KmerCountTable> idleTables, Deque<ForkJoinTask<?>> pendingWorkUnits,
+                                int maximumNumberOfPendingWorkUnits)
+            {
+                if (workUnit.isEmpty())
+                {
+                    return;
+                }
+                while (pendingWorkUnits.size() >= maximumNumberOfPendingWorkUnits)
+                {
+                    pendingWorkUnits.poll()
+                                    .join();
+                }
+                pendingWorkUnits.add(this.pool.submit(() ->
+                {
+                    KmerCountTable table = idleTables.poll();
+                    table = table != null ? table : new KmerCountTable();
+                    for (NucleicAcidCodeSequence sequence : workUnit)
+                    {
+                        countKmers(sequence, k, table);
+                    }
+                    idleTables.add(table);
+                }));
+            }
+        };
+    }
+
+    private static void countKmers(NucleicAcidCodeSequence sequence, int k, KmerCountTable table)
+    {
+        long mask = (1L << (2 * k)) - 1;
+        int shift = 2 * (k - 1);
+        long forward = 0;
+        long reverse = 0;
+        int validLength = 0;
+        for (NucleicAcidCode code : sequence)
+        {
+            int bits = code != null ? BITS_OF_ORDINAL[code.ordinal()] : -1;
+            if (bits < 0)
+            {
+                validLength = 0;
+                continue;
+            }
+            forward = ((forward << 2) | bits) & mask;
+            reverse = (reverse >>> 2) | ((long) (3 - bits) << shift);
+            if (++validLength >= k)
+            {
+                table.add(Math.min(forward, reverse), 1);
+            }
+        }
+    }
+
+    /**
+     * Returns the canonical 2 bit encoding of the given k-mer, which is the smaller of the encodings of the k-mer and its reverse complement, or -1 if the
+     * k-mer contains other codes than A, C, G, T and U or is longer than {@value #MAX_K}
+     * 
+     * @param kmer
+     * @return
+     */
+    public static long encode(NucleicAcidCodeSequence kmer)
+    {
+        int k = kmer.size();
+        if (k < 1 || k > MAX_K)
+        {
+            return -1;
+        }
+        long forward = 0;
+        long reverse = 0;
+        for (NucleicAcidCode code : kmer)
+        {
+            int bits = code != null ? BITS_OF_ORDINAL[code.ordinal()] : -1;
+            if (bits < 0)
+            {
+                return -1;
+            }
+            forward = (forward << 2) | bits;
+            reverse = (reverse >>> 2) | ((long) (3 - bits) << (2 * (k - 1)));
+        }
+        return Math.min(forward, reverse);
+    }
+
+    /**
+     * Returns the k-mer of the given 2 bit encoding
+     * 
+     * @param kmer
+     * @param k
+     * @return
+     */
+    public static NucleicAcidCodeSequence decode(long kmer, int k)
+    {
+        PackedNucleicAcidCodeList.Builder builder = PackedNucleicAcidCodeList.builder(k);
+        for (int ii = k - 1; ii >= 0; ii--)
+        {
+            builder.append(CODES[(int) (kmer >>> (2 * ii)) & 0x3]);
+        }
+        return NucleicAcidCodeSequence.valueOf(builder.build());
+    }
+
+    /**
+     * Open addressing hash table with linear probing of primitive long keys and int counts, where a count of 0 marks an empty slot
+     */
+    private static class KmerCountTable
+    {
+        private static final int   INITIAL_CAPACITY = 1 << 16;
+        private static final float LOAD_FACTOR      = 0.6f;
+
+        private long[] keys   = new long[INITIAL_CAPACITY];
+        private int[]  counts = new int[INITIAL_CAPACITY];
+        private int    size   = 0;
+
+        public void add(long key, int count)
+        {
+            int mask = this.keys.length - 1;
+            int slot = hash(key) & mask;
+            while (this.counts[slot] != 0 && this.keys[slot] != key)
+            {
+                slot = (slot + 1) & mask;
+            }
+            if (this.counts[slot] == 0)
+            {
+                this.keys[slot] = key;
+                this.counts[slot] = count;
+                if (++this.size > this.keys.length * LOAD_FACTOR)
+                {
+                    this.grow();
+                }
+            }
+            else
+            {
+                this.counts[slot] = (int) Math.min(Integer.MAX_VALUE, (long) this.counts[slot] + count);
+            }
+        }
+
+        public void addAll(KmerCountTable other)
+        {
+            for (int slot = 0; slot < other.keys.length; slot++)
+            {
+                if (other.counts[slot] != 0)
+                {
+                    this.add(other.keys[slot], other.counts[slot]);
+                }
+            }
+        }
+
+        public int size()
+        {
+            return this.size;
+        }
+
+        private void grow()
+        {
+            long[] keys = this.keys;
+            int[] counts = this.counts;
+            this.keys = new long[keys.length * 2];
+            this.counts = new int[counts.length * 2];
+            this.size = 0;
+            for (int slot = 0; slot < keys.length; slot++)
+            {
+                if (counts[slot] != 0)
+                {
+                    this.add(keys[slot], counts[slot]);
+                }
+            }
+        }
+
+        private static int hash(long key)
+        {
+            long hash = key;
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return (int) hash;
+        }
+
+        public KmerCounts toKmerCounts(int k)
+        {
+            long[] sortedKeys = new long[this.size];
+            int numberOfKeys = 0;
+            for (int slot = 0; slot < this.keys.length; slot++)
+            {
+                if (this.counts[slot] != 0)
+                {
+                    sortedKeys[numberOfKeys++] = this.keys[slot];
+                }
+            }
+            Arrays.parallelSort(sortedKeys);
+            int[] sortedCounts = new int[numberOfKeys];
+            for (int ii = 0; ii < numberOfKeys; ii++)
+            {
+                sortedCounts[ii] = this.get(sortedKeys[ii]);
+            }
+            return new SortedKmerCounts(k, sortedKeys, sortedCounts);
+        }
+
+        private int get(long key)
+        {
+            int mask = this.keys.length - 1;
+            int slot = hash(key) & mask;
+            while (this.counts[slot] != 0 && this.keys[slot] != key)
+            {
+                slot = (slot + 1) & mask;
+            }
+            return this.counts[slot];
+        }
+    }
+
+    private static class SortedKmerCounts implements KmerCounts
+    {
+        private final int    k;
+        private final long[] kmers;
+        private final int[]  counts;
+
+        public SortedKmerCounts(int k, long[] kmers, int[] counts)
+        {
+            super();
+            this.k = k;
+            this.kmers = kmers;
+            this.counts = counts;
+        }
+
+        @Override
+        public int getK()
+        {
+            return this.k;
+        }
+
+        @Override
+        public int size()
+        {
+            return this.kmers.length;
+        }
+
+        @Override
+        public int getCount(NucleicAcidCodeSequence kmer)
+        {
+            long key = kmer.size() == this.k ? encode(kmer) : -1;
+            int index = key >= 0 ? Arrays.binarySearch(this.kmers, key) : -1;
+            return index >= 0 ? this.counts[index] : 0;
+        }
+
+        @Override
+        public Stream<KmerCount> stream()
+        {
+            return IntStream.range(0, this.kmers.length)
+                            .mapToObj(index -> new KmerCount(this.k, this.kmers[index], this.counts[index]));
+        }
+
+        @Override
+        public void writeTo(OutputStream outputStream)
+        {
+            try
+            {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.US_ASCII));
+                char[] kmer = new char[this.k];
+                for (int ii = 0; ii < this.kmers.length; ii++)
+                {
+                    for (int jj = 0; jj < this.k; jj++)
+                    {
+                        kmer[jj] = CODES[(int) (this.kmers[ii] >>> (2 * (this.k - 1 - jj))) & 0x3].getRawCode();
+                    }
+                    writer.write(kmer);
+                    writer.write('\t');
+                    writer.write(Integer.toString(this.counts[ii]));
+                    writer.write('\n');
+                }
+                writer.flush();
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
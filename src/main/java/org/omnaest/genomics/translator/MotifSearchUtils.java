@@ -0,0 +1,409 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.genomics.translator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.omnaest.genomics.translator.domain.AminoAcidCode;
+import org.omnaest.genomics.translator.domain.AminoAcidCodeSequence;
+
+/**
+ * Multi pattern search of protein motifs which supports the ambiguity codes {@link AminoAcidCode#B}, {@link AminoAcidCode#Z}, {@link AminoAcidCode#J}
+ * and {@link AminoAcidCode#X} within the patterns.<br>
+ * <br>
+ * All patterns are compiled into a single automaton, which is determinized lazily while scanning, so a scan costs a single transition per code of the
+ * target independent of the number of patterns.
+ * 
+ * @see #compile(Collection)
+ * @author omnaest
+ */
+public class MotifSearchUtils
+{
+    private static final AminoAcidCode[] CODES         = AminoAcidCode.values();
+    private static final int             NULL_SYMBOL   = CODES.length;
+    private static final int             ALPHABET_SIZE = CODES.length + 1;
+
+    /**
+     * Maximum number of cached states of the lazily determinized automaton. Further states are computed for every transition.
+     */
+    private static final int MAX_CACHED_STATES = 1 << 16;
+
+    /**
+     * Occurrence of a pattern within a target sequence
+     * 
+     * @author omnaest
+     */
+    public static class MotifHit
+    {
+        private final int                   patternIndex;
+        private final AminoAcidCodeSequence pattern;
+        private final int                   offset;
+
+        public MotifHit(int patternIndex, AminoAcidCodeSequence pattern, int offset)
+        {
+            super();
+            this.patternIndex = patternIndex;
+            this.pattern = pattern;
+            this.offset = offset;
+        }
+
+        /**
+         * Returns the index of the pattern in the order the patterns were given to {@link MotifSearchUtils#compile(Collection)}
+         * 
+         * @return
+         */
+        public int getPatternIndex()
+        {
+            return this.patternIndex;
+        }
+
+        public AminoAcidCodeSequence getPattern()
+        {
+            return this.pattern;
+        }
+
+        /**
+         * Returns the index of the first code of the match within the target sequence
+         * 
+         * @return
+         */
+        public int getOffset()
+        {
+            return this.offset;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "MotifHit [patternIndex=" + this.patternIndex + ", pattern=" + this.pattern + ", offset=" + this.offset + "]";
+        }
+
+    }
+
+    @FunctionalInterface
+    public static interface MotifHitConsumer
+    {
+        public void accept(int patternIndex, int offset);
+    }
+
+    /**
+     * Compiled set of patterns. A {@link MotifMatcher} can be used by multiple threads.
+     * 
+     * @author omnaest
+     */
+    public static interface MotifMatcher
+    {
+        public List<AminoAcidCodeSequence> getPatterns();
+
+        /**
+         * Scans the given target once and calls the given {@link MotifHitConsumer} for every occurrence of any pattern, ordered by the end of the
+         * occurrence
+         * 
+         * @param target
+         * @param consumer
+         */
+        public void forEachHit(AminoAcidCodeSequence target, MotifHitConsumer consumer);
+
+        /**
+         * Returns all occurrences of all patterns within the given target
+         * 
+         * @see #forEachHit(AminoAcidCodeSequence, MotifHitConsumer)
+         * @param target
+         * @return
+         */
+        public List<MotifHit> findAll(AminoAcidCodeSequence target);
+    }
+
+    protected MotifSearchUtils()
+    {
+    }
+
+    /**
+     * Compiles the given patterns into a {@link MotifMatcher}. A pattern code matches the same code of a target and the ambiguity codes
+     * {@link AminoAcidCode#B}, {@link AminoAcidCode#Z}, {@link AminoAcidCode#J} and {@link AminoAcidCode#X} additionally match all codes they stand
+     * for, like {@link AminoAcidCodeSequence#asPredicateMatcherFuzzy()}.
+     * 
+     * @param patterns
+     * @return
+     * @throws IllegalArgumentException
+     *             if a pattern is empty
+     */
+    public static MotifMatcher compile(Collection<AminoAcidCodeSequence> patterns)
+    {
+        return new CompiledMotifMatcher(new ArrayList<>(patterns));
+    }
+
+    /**
+     * Similar to {@link #compile(Collection)}
+     * 
+     * @param patterns
+     * @return
+     */
+    public static MotifMatcher compile(AminoAcidCodeSequence... patterns)
+    {
+        return compile(Arrays.asList(patterns));
+    }
+
+    private static int toSymbol(AminoAcidCode code)
+    {
+        return code != null ? code.ordinal() : NULL_SYMBOL;
+    }
+
+    private static int toSymbolClass(AminoAcidCode code)
+    {
+        int retval = 1 << toSymbol(code);
+        for (AminoAcidCode other : CODES)
+        {
+            if (code != null && code.test(other))
+            {
+                retval |= 1 << other.ordinal();
+            }
+        }
+        return retval;
+    }
+
+    /**
+     * State of the determinized automaton, which holds the sorted positions of all partially matched patterns. Only the transitions are written after
+     * construction, which is safe for concurrent scans since all other fields are final.
+     */
+    private static class MatcherState
+    {
+        private final int[]          positions;
+        private final int[]          matchedPatterns;
+        private final MatcherState[] transitions = new MatcherState[ALPHABET_SIZE];
+
+        public MatcherState(int[] positions, int[] matchedPatterns)
+        {
+            super();
+            this.positions = positions;
+            this.matchedPatterns = matchedPatterns;
+        }
+    }
+
+    private static class PositionSet
+    {
+        private final int[] positions;
+        private final int   hashCode;
+
+        public PositionSet(int[] positions)
+        {
+            super();
+            this.positions = positions;
+            this.hashCode = Arrays.hashCode(positions);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return this.hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            return obj instanceof PositionSet && Arrays.equals(this.positions, ((PositionSet) obj).positions);
+        }
+    }
+
+    private static class CompiledMotifMatcher implements MotifMatcher
+    {
+        private final List<AminoAcidCodeSequence> patterns;
+        private final int[]                       patternLengths;
+
+        /**
+         * Symbol class, pattern and last flag of each position of all patterns concatenated
+         */
+        private final int[]     symbolClasses;
+        private final int[]     patternOfPosition;
+        private final boolean[] lastPosition;
+
+        /**
+         * First positions of all patterns which match a symbol
+         */
+        private final int[][] startPositions = new int[ALPHABET_SIZE][];
+
+        private final Map<PositionSet, MatcherState> states = new ConcurrentHashMap<>();
+        private final MatcherState                   initialState;
+
+        public CompiledMotifMatcher(List<AminoAcidCodeSequence> patterns)
+        {
+            super();
+            this.patterns = Collections.unmodifiableList(patterns);
+            this.patternLengths = new int[patterns.size()];
+
+            int numberOfPositions = 0;
+            for (int ii = 0; ii < patterns.size(); ii++)
+            {
+                this.patternLengths[ii] = patterns.get(ii)
+                                                  .size();
+                if (this.patternLengths[ii] == 0)
+                {
+                    throw new IllegalArgumentException("Empty pattern at index " + ii);
+                }
+                numberOfPositions += this.patternLengths[ii];
+            }
+
+            this.symbolClasses = new int[numberOfPositions];
+            this.patternOfPosition = new int[numberOfPositions];
+            this.lastPosition = new boolean[numberOfPositions];
+            List<List<Integer>> startPositions = new ArrayList<>();
+            for (int symbol = 0; symbol < ALPHABET_SIZE; symbol++)
+            {
+                startPositions.add(new ArrayList<>());
+            }
+            int position = 0;
+            for (int ii = 0; ii < patterns.size(); ii++)
+            {
+                Iterator<AminoAcidCode> codes = patterns.get(ii)
+                                                        .stream()
+                                                        .iterator();
+                for (int jj = 0; codes.hasNext(); jj++, position++)
+                {
+                    this.symbolClasses[position] = toSymbolClass(codes.next());
+                    this.patternOfPosition[position] = ii;
+                    this.lastPosition[position] = jj == this.patternLengths[ii] - 1;
+                    for (int symbol = 0; jj == 0 && symbol < ALPHABET_SIZE; symbol++)
+                    {
+                        if ((this.symbolClasses[position] & (1 << symbol)) != 0)
+                        {
+                            startPositions.get(symbol)
+                                          .add(position);
+                        }
+                    }
+                }
+            }
+            for (int symbol = 0; symbol < ALPHABET_SIZE; symbol++)
+            {
+                this.startPositions[symbol] = startPositions.get(symbol)
+                                                            .stream()
+                                                            .mapToInt(Integer::intValue)
+                                                            .toArray();
+            }
+
+            this.initialState = this.getOrCreateState(new int[0], new int[0]);
+        }
+
+        @Override
+        public List<AminoAcidCodeSequence> getPatterns()
+        {
+            return this.patterns;
+        }
+
+        @Override
+        public void forEachHit(AminoAcidCodeSequence target, MotifHitConsumer consumer)
+        {
+            MatcherState state = this.initialState;
+            int index = 0;
+            for (Iterator<AminoAcidCode> codes = target.stream()
+                                                       .iterator(); codes.hasNext(); index++)
+            {
+                int symbol = toSymbol(codes.next());
+                MatcherState nextState = state.transitions[symbol];
+                if (nextState == null)
+                {
+                    nextState = this.computeTransition(state, symbol);
+                }
+                state = nextState;
+                for (int pattern : state.matchedPatterns)
+                {
+                    consumer.accept(pattern, index - this.patternLengths[pattern] + 1);
+                }
+            }
+        }
+
+        @Override
+        public List<MotifHit> findAll(AminoAcidCodeSequence target)
+        {
+            List<MotifHit> retval = new ArrayList<>();
+            this.forEachHit(target, (pattern, offset) -> retval.add(new MotifHit(pattern, this.patterns.get(pattern), offset)));
+            return retval;
+        }
+
+        private MatcherState computeTransition(MatcherState state, int symbol)
+        {
+            int[] startPositions = this.startPositions[symbol];
+            int[] nextPositions = new int[state.positions.length + startPositions.length];
+            int numberOfNextPositions = 0;
+            int[] matchedPatterns = new int[nextPositions.length];
+            int numberOfMatchedPatterns = 0;
+
+            int ii = 0;
+            int jj = 0;
+            while (ii < state.positions.length || jj < startPositions.length)
+            {
+                int position;
+                if (jj >= startPositions.length || (ii < state.positions.length && state.positions[ii] + 1 < startPositions[jj]))
+                {
+                    position = state.positions[ii++] + 1;
+                    if ((this.symbolClasses[position] & (1 << symbol)) == 0)
+                    {
+                        continue;
+                    }
+                }
+                else
+                {
+                    position = startPositions[jj++];
+                }
+
+                if (this.lastPosition[position])
+                {
+                    matchedPatterns[numberOfMatchedPatterns++] = this.patternOfPosition[position];
+                }
+                else
+                {
+                    nextPositions[numberOfNextPositions++] = position;
+                }
+            }
+
+            MatcherState retval = this.getOrCreateState(Arrays.copyOf(nextPositions, numberOfNextPositions),
+                                                        Arrays.copyOf(matchedPatterns, numberOfMatchedPatterns));
+            if (this.states.size() < MAX_CACHED_STATES)
+            {
+                state.transitions[symbol] = retval;
+            }
+            return retval;
+        }
+
+        private MatcherState getOrCreateState(int[] positions, int[] matchedPatterns)
+        {
+            MatcherState retval = new MatcherState(positions, matchedPatterns);
+            if (this.states.size() < MAX_CACHED_STATES)
+            {
+                MatcherState existingState = this.states.putIfAbsent(new PositionSet(this.toKey(positions, matchedPatterns)), retval);
+                if (existingState != null)
+                {
+                    retval = existingState;
+                }
+            }
+            return retval;
+        }
+
+        private int[] toKey(int[] positions, int[] matchedPatterns)
+        {
+            int[] retval = Arrays.copyOf(positions, positions.length + 1 + matchedPatterns.length);
+            retval[positions.length] = -1;
+            System.arraycopy(matchedPatterns, 0, retval, positions.length + 1, matchedPatterns.length);
+            return retval;
+        }
+    }
+}
@@ -0,0 +1,325 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.genomics.translator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.omnaest.genomics.translator.domain.NucleicAcidCode;
+import org.omnaest.genomics.translator.domain.NucleicAcidCodeSequence;
+
+/**
+ * Search of nucleotide patterns like restriction sites, primers or motifs, which can contain IUPAC ambiguity codes like e.g. "RGATCY".<br>
+ * <br>
+ * A pattern is compiled into one bitmask per target code for each strand and the target is scanned once with a bit parallel Shift-Or, which finds the
+ * occurrences on the forward strand and the reverse complement strand together without building the reverse strand.
+ * 
+ * @see #compile(NucleicAcidCodeSequence)
+ * @author omnaest
+ */
+public class NucleotidePatternSearchUtils
+{
+    /**
+     * Maximum length of a pattern, which is limited by the number of bits of a long
+     */
+    public static final int MAX_PATTERN_LENGTH = 64;
+
+    private static final NucleicAcidCode[] CODES       = NucleicAcidCode.values();
+    private static final int               NULL_SYMBOL = CODES.length;
+
+    /**
+     * Bases a {@link NucleicAcidCode} stands for with A=1, C=2, G=4 and T or U=8, like defined by the predicates of the {@link NucleicAcidCode}s
+     */
+    private static final int[] BASES_OF_ORDINAL = new int[CODES.length];
+    static
+    {
+        for (NucleicAcidCode code : CODES)
+        {
+            BASES_OF_ORDINAL[code.ordinal()] = (code.test('A') ? 1 : 0) | (code.test('C') ? 2 : 0) | (code.test('G') ? 4 : 0)
+                    | (code.test('T') || code.test('U') ? 8 : 0);
+        }
+    }
+
+    public static enum Strand
+    {
+        FORWARD, REVERSE
+    }
+
+    /**
+     * Occurrence of a pattern within a target sequence
+     * 
+     * @author omnaest
+     */
+    public static class PatternHit
+    {
+        private final Strand strand;
+        private final int    offset;
+
+        public PatternHit(Strand strand, int offset)
+        {
+            super();
+            this.strand = strand;
+            this.offset = offset;
+        }
+
+        /**
+         * Returns {@link Strand#REVERSE} if the reverse complement of the pattern occurs on the forward strand
+         * 
+         * @return
+         */
+        public Strand getStrand()
+        {
+            return this.strand;
+        }
+
+        /**
+         * Returns the index of the first code of the match within the forward strand of the target sequence, also for matches on the
+         * {@link Strand#REVERSE}
+         * 
+         * @return
+         */
+        public int getOffset()
+        {
+            return this.offset;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            final int prime = 31;
+            int result = 1;
+            result = prime * result + this.offset;
+            result = prime * result + ((this.strand == null) ? 0 : this.strand.hashCode());
+            return result;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+            {
+                return true;
+            }
+            if (obj == null || this.getClass() != obj.getClass())
+            {
+                return false;
+            }
+            PatternHit other = (PatternHit) obj;
+            return this.offset == other.offset && this.strand == other.strand;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "PatternHit [strand=" + this.strand + ", offset=" + this.offset + "]";
+        }
+
+    }
+
+    @FunctionalInterface
+    public static interface PatternHitConsumer
+    {
+        public void accept(Strand strand, int offset);
+    }
+
+    /**
+     * Compiled pattern. A {@link PatternMatcher} can be used by multiple threads.
+     * 
+     * @author omnaest
+     */
+    public static interface PatternMatcher
+    {
+        public NucleicAcidCodeSequence getPattern();
+
+        /**
+         * Returns true if the pattern is equal to its own reverse complement, like most restriction sites are. Occurrences of such a pattern are only
+         * reported once for the {@link Strand#FORWARD}.
+         * 
+         * @return
+         */
+        public boolean isPalindromic();
+
+        /**
+         * Scans the given target once and calls the given {@link PatternHitConsumer} for every occurrence of the pattern on both strands, ordered by the
+         * end of the occurrence on the forward strand
+         * 
+         * @param target
+         * @param consumer
+         */
+        public void forEachHit(NucleicAcidCodeSequence target, PatternHitConsumer consumer);
+
+        /**
+         * Returns all occurrences of the pattern on both strands of the given target
+         * 
+         * @see #forEachHit(NucleicAcidCodeSequence, PatternHitConsumer)
+         * @param target
+         * @return
+         */
+        public List<PatternHit> findAll(NucleicAcidCodeSequence target);
+    }
+
+    protected NucleotidePatternSearchUtils()
+    {
+    }
+
+    /**
+     * Compiles the given pattern into a {@link PatternMatcher}. A code of the target matches a code of the pattern if all bases the target code stands
+     * for are also covered by the pattern code, so e.g. the pattern code {@link NucleicAcidCode#R} matches {@link NucleicAcidCode#A},
+     * {@link NucleicAcidCode#G} and {@link NucleicAcidCode#R}, while {@link NucleicAcidCode#N} within the target only matches an
+     * {@link NucleicAcidCode#N} of the pattern. {@link NucleicAcidCode#T} and {@link NucleicAcidCode#U} are handled as the same base and gaps only match
+     * gaps.
+     * 
+     * @param pattern
+     * @return
+     * @throws IllegalArgumentException
+     *             if the pattern is empty or longer than {@value #MAX_PATTERN_LENGTH}
+     */
+    public static PatternMatcher compile(NucleicAcidCodeSequence pattern)
+    {
+        return new ShiftOrPatternMatcher(pattern);
+    }
+
+    /**
+     * Similar to {@link #compile(NucleicAcidCodeSequence)}
+     * 
+     * @param pattern
+     * @return
+     */
+    public static PatternMatcher compile(String pattern)
+    {
+        return compile(NucleicAcidCodeSequence.valueOf(pattern));
+    }
+
+    private static int toSymbol(NucleicAcidCode code)
+    {
+        return code != null ? code.ordinal() : NULL_SYMBOL;
+    }
+
+    /**
+     * Returns the bases of the complement, which swaps A with T and C with G
+     * 
+     * @param bases
+     * @return
+     */
+    private static int complementBases(int bases)
+    {
+        return ((bases & 1) << 3) | ((bases & 2) << 1) | ((bases & 4) >>> 1) | ((bases & 8) >>> 3);
+    }
+
+    private static boolean matches(NucleicAcidCode patternCode, int patternBases, NucleicAcidCode targetCode)
+    {
+        if (patternCode == null || targetCode == null)
+        {
+            return false;
+        }
+        else if (patternCode == NucleicAcidCode.___ || targetCode == NucleicAcidCode.___)
+        {
+            return patternCode == targetCode;
+        }
+        int targetBases = BASES_OF_ORDINAL[targetCode.ordinal()];
+        return targetBases != 0 && (targetBases & ~patternBases) == 0;
+    }
+
+    private static class ShiftOrPatternMatcher implements PatternMatcher
+    {
+        private final NucleicAcidCodeSequence pattern;
+        private final int                     length;
+        private final boolean                 palindromic;
+
+        /**
+         * Shift-Or masks per target symbol, where a cleared bit j marks that the symbol matches the pattern position j
+         */
+        private final long[] forwardMasks = new long[NULL_SYMBOL + 1];
+        private final long[] reverseMasks = new long[NULL_SYMBOL + 1];
+
+        public ShiftOrPatternMatcher(NucleicAcidCodeSequence pattern)
+        {
+            super();
+            this.pattern = pattern;
+            this.length = pattern.size();
+            if (this.length == 0 || this.length > MAX_PATTERN_LENGTH)
+            {
+                throw new IllegalArgumentException("Pattern length must be between 1 and " + MAX_PATTERN_LENGTH + " but was " + this.length);
+            }
+
+            Arrays.fill(this.forwardMasks, -1L);
+            Arrays.fill(this.reverseMasks, -1L);
+            for (int position = 0; position < this.length; position++)
+            {
+                NucleicAcidCode patternCode = pattern.get(position);
+                int bases = patternCode != null ? BASES_OF_ORDINAL[patternCode.ordinal()] : 0;
+                int reversePosition = this.length - 1 - position;
+                for (NucleicAcidCode targetCode : CODES)
+                {
+                    if (matches(patternCode, bases, targetCode))
+                    {
+                        this.forwardMasks[targetCode.ordinal()] &= ~(1L << position);
+                    }
+                    if (matches(patternCode, complementBases(bases), targetCode))
+                    {
+                        this.reverseMasks[targetCode.ordinal()] &= ~(1L << reversePosition);
+                    }
+                }
+            }
+            this.palindromic = Arrays.equals(this.forwardMasks, this.reverseMasks);
+        }
+
+        @Override
+        public NucleicAcidCodeSequence getPattern()
+        {
+            return this.pattern;
+        }
+
+        @Override
+        public boolean isPalindromic()
+        {
+            return this.palindromic;
+        }
+
+        @Override
+        public void forEachHit(NucleicAcidCodeSequence target, PatternHitConsumer consumer)
+        {
+            long matchBit = 1L << (this.length - 1);
+            long forwardState = -1L;
+            long reverseState = -1L;
+            int index = 0;
+            for (NucleicAcidCode code : target)
+            {
+                int symbol = toSymbol(code);
+                forwardState = (forwardState << 1) | this.forwardMasks[symbol];
+                reverseState = (reverseState << 1) | this.reverseMasks[symbol];
+                if ((forwardState & matchBit) == 0)
+                {
+                    consumer.accept(Strand.FORWARD, index - this.length + 1);
+                }
+                if ((reverseState & matchBit) == 0 && !this.palindromic)
+                {
+                    consumer.accept(Strand.REVERSE, index - this.length + 1);
+                }
+                index++;
+            }
+        }
+
+        @Override
+        public List<PatternHit> findAll(NucleicAcidCodeSequence target)
+        {
+            List<PatternHit> retval = new ArrayList<>();
+            this.forEachHit(target, (strand, offset) -> retval.add(new PatternHit(strand, offset)));
+            return retval;
+        }
+    }
+}
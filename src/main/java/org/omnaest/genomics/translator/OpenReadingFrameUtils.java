@@ -0,0 +1,445 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.genomics.translator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.omnaest.genomics.translator.ComplementaryBasePairUtils.ComplementationType;
+import org.omnaest.genomics.translator.domain.AminoAcidCode;
+import org.omnaest.genomics.translator.domain.AminoAcidCodeSequence;
+import org.omnaest.genomics.translator.domain.NucleicAcidCode;
+import org.omnaest.genomics.translator.domain.NucleicAcidCodeSequence;
+
+/**
+ * Helper to find open reading frames within all six frames of a {@link NucleicAcidCodeSequence}
+ * 
+ * @see #find(NucleicAcidCodeSequence)
+ * @author omnaest
+ */
+public class OpenReadingFrameUtils
+{
+    private static final int ATG_CODON_INDEX = CodonTableUtils.codonIndex(NucleicAcidCode.A, NucleicAcidCode.T, NucleicAcidCode.G);
+    private static final int AUG_CODON_INDEX = CodonTableUtils.codonIndex(NucleicAcidCode.A, NucleicAcidCode.U, NucleicAcidCode.G);
+
+    /**
+     * Defines which start codons are reported for a single stop codon
+     * 
+     * @author omnaest
+     */
+    public static enum NestingPolicy
+    {
+        /**
+         * Only the longest {@link OpenReadingFrame} starting at the first start codon after the previous stop codon is reported
+         */
+        LONGEST,
+
+        /**
+         * Every start codon in frame before the stop codon reports its own {@link OpenReadingFrame}
+         */
+        NESTED
+    }
+
+    /**
+     * Coordinates of an open reading frame. The start and stop are the lowest indexes of the start codon and of the stop codon within the
+     * {@link NucleicAcidCodeSequence}, so for the reverse strand the stop is lower than the start. The sequences are only materialized on request.
+     * 
+     * @see #asAminoAcidCodeSequence()
+     * @see #asNucleicAcidCodeSequence()
+     * @author omnaest
+     */
+    public static class OpenReadingFrame
+    {
+        private final NucleicAcidCodeSequence sequence;
+        private final GeneticCode             geneticCode;
+        private final ComplementationType     complementationType;
+        private final boolean                 reverse;
+        private final int                     frame;
+        private final int                     start;
+        private final int                     stop;
+
+        protected OpenReadingFrame(NucleicAcidCodeSequence sequence, GeneticCode geneticCode, ComplementationType complementationType, boolean reverse,
+                                   int frame, int start, int stop)
+        {
+            super();
+            this.sequence = sequence;
+            this.geneticCode = geneticCode;
+            this.complementationType = complementationType;
+            this.reverse = reverse;
+            this.frame = frame;
+            this.start = start;
+            this.stop = stop;
+        }
+
+        /**
+         * Returns true if the {@link OpenReadingFrame} is located on the reverse strand
+         * 
+         * @return
+         */
+        public boolean isReverse()
+        {
+            return this.reverse;
+        }
+
+        /**
+         * Returns the frame = 0,1,2 as used by {@link TranslationUtils#translate(int, NucleicAcidCodeSequence)} and
+         * {@link TranslationUtils#translateReverse(int, NucleicAcidCodeSequence)}
+         * 
+         * @return
+         */
+        public int getFrame()
+        {
+            return this.frame;
+        }
+
+        public int getStart()
+        {
+            return this.start;
+        }
+
+        public int getStop()
+        {
+            return this.stop;
+        }
+
+        /**
+         * Returns the lowest index of the {@link OpenReadingFrame} including start and stop codon
+         * 
+         * @return
+         */
+        public int getBegin()
+        {
+            return Math.min(this.start, this.stop);
+        }
+
+        /**
+         * Returns the highest index of the {@link OpenReadingFrame} including start and stop codon, exclusive
+         * 
+         * @return
+         */
+        public int getEnd()
+        {
+            return Math.max(this.start, this.stop) + 3;
+        }
+
+        /**
+         * Returns the number of {@link AminoAcidCode}s including the start codon and excluding the stop codon
+         * 
+         * @return
+         */
+        public int getLength()
+        {
+            return Math.abs(this.stop - this.start) / 3;
+        }
+
+        /**
+         * Returns the {@link NucleicAcidCodeSequence} from the start codon to the stop codon inclusive, read in the direction of the strand. The reverse
+         * strand is complemented with the {@link ComplementationType} of the {@link OpenReadingFrameFinder}.
+         * 
+         * @return
+         */
+        public NucleicAcidCodeSequence asNucleicAcidCodeSequence()
+        {
+            NucleicAcidCodeSequence retval = this.sequence.subSequence(this.getBegin(), this.getEnd());
+            return this.reverse ? retval.asReverseComplementView(this.complementationType) : retval;
+        }
+
+        /**
+         * Returns the translated {@link AminoAcidCodeSequence} without the terminating {@link AminoAcidCode#STOP}. The start codon is always translated into
+         * {@link AminoAcidCode#M}, also for alternative start codons.
+         * 
+         * @return
+         */
+        public AminoAcidCodeSequence asAminoAcidCodeSequence()
+        {
+            NucleicAcidCodeSequence nucleicAcidCodeSequence = this.asNucleicAcidCodeSequence();
+            List<AminoAcidCode> aminoAcidCodes = new ArrayList<>(this.getLength());
+            aminoAcidCodes.add(AminoAcidCode.M);
+            for (int ii = 3; ii < nucleicAcidCodeSequence.size() - 3; ii += 3)
+            {
+                AminoAcidCode code = this.geneticCode.translate(nucleicAcidCodeSequence.get(ii), nucleicAcidCodeSequence.get(ii + 1),
+                                                                nucleicAcidCodeSequence.get(ii + 2));
+                if (code != null)
+                {
+                    aminoAcidCodes.add(code);
+                }
+            }
+            return new AminoAcidCodeSequence(aminoAcidCodes);
+        }
+
+        @Override
+        public String toString()
+        {
+            return "OpenReadingFrame [reverse=" + this.reverse + ", frame=" + this.frame + ", start=" + this.start + ", stop=" + this.stop + "]";
+        }
+
+    }
+
+    /**
+     * Builder for the search of {@link OpenReadingFrame}s
+     * 
+     * @see #get()
+     * @author omnaest
+     */
+    public static interface OpenReadingFrameFinder
+    {
+        /**
+         * Defines the {@link GeneticCode} for the start and stop codons. Default is {@link GeneticCode#STANDARD}.
+         * 
+         * @param geneticCode
+         * @return
+         */
+        public OpenReadingFrameFinder usingGeneticCode(GeneticCode geneticCode);
+
+        /**
+         * Accepts all start codons of the {@link GeneticCode} like e.g. TTG and CTG, otherwise only ATG is accepted as start codon
+         * 
+         * @return
+         */
+        public OpenReadingFrameFinder usingAlternativeStartCodons();
+
+        /**
+         * Defines the minimum number of {@link AminoAcidCode}s of an {@link OpenReadingFrame}, see {@link OpenReadingFrame#getLength()}. Default is 1.
+         * 
+         * @param minimumLength
+         * @return
+         */
+        public OpenReadingFrameFinder withMinimumLength(int minimumLength);
+
+        /**
+         * Default is {@link NestingPolicy#LONGEST}
+         * 
+         * @param nestingPolicy
+         * @return
+         */
+        public OpenReadingFrameFinder usingNestingPolicy(NestingPolicy nestingPolicy);
+
+        /**
+         * Defines the {@link ComplementationType} of the reverse strand. Default is {@link ComplementationType#RNA} if the {@link NucleicAcidCodeSequence}
+         * contains {@link NucleicAcidCode#U}, otherwise {@link ComplementationType#DNA}.
+         * 
+         * @param complementationType
+         * @return
+         */
+        public OpenReadingFrameFinder usingComplementationType(ComplementationType complementationType);
+
+        /**
+         * Returns the {@link OpenReadingFrame}s of all six frames ordered by {@link OpenReadingFrame#getBegin()}
+         * 
+         * @return
+         */
+        public Stream<OpenReadingFrame> get();
+    }
+
+    protected OpenReadingFrameUtils()
+    {
+    }
+
+    /**
+     * Returns an {@link OpenReadingFrameFinder} for the given {@link NucleicAcidCodeSequence}
+     * 
+     * @param sequence
+     * @return
+     */
+    public static OpenReadingFrameFinder find(NucleicAcidCodeSequence sequence)
+    {
+        return new OpenReadingFrameFinder()
+        {
+            private GeneticCode         geneticCode            = GeneticCode.STANDARD;
+            private boolean             alternativeStartCodons = false;
+            private int                 minimumLength          = 1;
+            private NestingPolicy       nestingPolicy          = NestingPolicy.LONGEST;
+            private ComplementationType complementationType    = null;
+
+            @Override
+            public OpenReadingFrameFinder usingGeneticCode(GeneticCode geneticCode)
+            {
+                this.geneticCode = geneticCode;
+                return this;
+            }
+
+            @Override
+            public OpenReadingFrameFinder usingAlternativeStartCodons()
+            {
+                this.alternativeStartCodons = true;
+                return this;
+            }
+
+            @Override
+            public OpenReadingFrameFinder withMinimumLength(int minimumLength)
+            {
+                this.minimumLength = minimumLength;
+                return this;
+            }
+
+            @Override
+            public OpenReadingFrameFinder usingNestingPolicy(NestingPolicy nestingPolicy)
+            {
+                this.nestingPolicy = nestingPolicy;
+                return this;
+            }
+
+            @Override
+            public OpenReadingFrameFinder usingComplementationType(ComplementationType complementationType)
+            {
+                this.complementationType = complementationType;
+                return this;
+            }
+
+            @Override
+            public Stream<OpenReadingFrame> get()
+            {
+                ComplementationType complementationType = this.complementationType != null ? this.complementationType
+                        : sequence.containsUracil() ? ComplementationType.RNA : ComplementationType.DNA;
+                return findOpenReadingFrames(sequence, this.geneticCode, complementationType, this.alternativeStartCodons, this.minimumLength,
+                                             this.nestingPolicy).stream();
+            }
+        };
+    }
+
+    /**
+     * Scans the {@link NucleicAcidCodeSequence} once with a rolling window of three bases. The codon starting at p belongs to the forward frame p mod 3 and
+     * to the reverse frame (size - 3 - p) mod 3. Forward start codons are collected until a stop codon follows. Reverse frames are read against the
+     * scan direction, so a reverse stop codon opens the collection of the start codons which are completed by the next reverse stop codon or the end of
+     * the sequence.
+     */
+    private static List<OpenReadingFrame> findOpenReadingFrames(NucleicAcidCodeSequence sequence, GeneticCode geneticCode,
+                                                                ComplementationType complementationType, boolean alternativeStartCodons, int minimumLength,
+                                                                NestingPolicy nestingPolicy)
+    {
+        int size = sequence.size();
+        List<OpenReadingFrame> retval = new ArrayList<>();
+        StartCodons[] forwardStartCodons = { new StartCodons(), new StartCodons(), new StartCodons() };
+        StartCodons[] reverseStartCodons = { new StartCodons(), new StartCodons(), new StartCodons() };
+        int[] reverseStops = { -1, -1, -1 };
+
+        int first = -1;
+        int second = -1;
+        int position = 0;
+        for (NucleicAcidCode code : sequence)
+        {
+            int third = code != null ? code.ordinal() : -1;
+            int codonStart = position - 2;
+            if (codonStart >= 0)
+            {
+                if (first >= 0 && second >= 0 && third >= 0)
+                {
+                    int frame = codonStart % 3;
+                    int codonIndex = CodonTableUtils.codonIndex(first, second, third);
+                    if (geneticCode.isStopCodon(codonIndex))
+                    {
+                        forwardStartCodons[frame].addTo(retval, sequence, geneticCode, complementationType, false, frame, codonStart, minimumLength);
+                    }
+                    else if (isStartCodon(codonIndex, geneticCode, alternativeStartCodons))
+                    {
+                        forwardStartCodons[frame].add(codonStart, nestingPolicy, false);
+                    }
+                }
+
+                int reverseFirst = complementationType.getComplementOrdinal(third);
+                int reverseSecond = complementationType.getComplementOrdinal(second);
+                int reverseThird = complementationType.getComplementOrdinal(first);
+                if (reverseFirst >= 0 && reverseSecond >= 0 && reverseThird >= 0)
+                {
+                    int reverseFrame = (size - 3 - codonStart) % 3;
+                    int codonIndex = CodonTableUtils.codonIndex(reverseFirst, reverseSecond, reverseThird);
+                    if (geneticCode.isStopCodon(codonIndex))
+                    {
+                        reverseStartCodons[reverseFrame].addTo(retval, sequence, geneticCode, complementationType, true, reverseFrame,
+                                                               reverseStops[reverseFrame], minimumLength);
+                        reverseStops[reverseFrame] = codonStart;
+                    }
+                    else if (reverseStops[reverseFrame] >= 0 && isStartCodon(codonIndex, geneticCode, alternativeStartCodons))
+                    {
+                        reverseStartCodons[reverseFrame].add(codonStart, nestingPolicy, true);
+                    }
+                }
+            }
+            first = second;
+            second = third;
+            position++;
+        }
+
+        for (int frame = 0; frame < 3; frame++)
+        {
+            reverseStartCodons[frame].addTo(retval, sequence, geneticCode, complementationType, true, frame, reverseStops[frame], minimumLength);
+        }
+
+        retval.sort(Comparator.comparingInt(OpenReadingFrame::getBegin)
+                              .thenComparing(OpenReadingFrame::isReverse)
+                              .thenComparingInt(OpenReadingFrame::getEnd));
+        return retval;
+    }
+
+    private static boolean isStartCodon(int codonIndex, GeneticCode geneticCode, boolean alternativeStartCodons)
+    {
+        return alternativeStartCodons ? geneticCode.isStartCodon(codonIndex) : codonIndex == ATG_CODON_INDEX || codonIndex == AUG_CODON_INDEX;
+    }
+
+    /**
+     * Open start codon positions of a single frame
+     */
+    private static class StartCodons
+    {
+        private int[] positions = new int[4];
+        private int   size      = 0;
+
+        /**
+         * Adds the given start codon position. For {@link NestingPolicy#LONGEST} only the start codon farthest away from the stop codon is kept, which is
+         * the first one for the forward strand and the last one for the reverse strand.
+         */
+        public void add(int position, NestingPolicy nestingPolicy, boolean reverse)
+        {
+            if (nestingPolicy == NestingPolicy.LONGEST && this.size > 0)
+            {
+                if (reverse)
+                {
+                    this.positions[0] = position;
+                }
+                return;
+            }
+            if (this.size >= this.positions.length)
+            {
+                this.positions = Arrays.copyOf(this.positions, this.positions.length * 2);
+            }
+            this.positions[this.size++] = position;
+        }
+
+        /**
+         * Adds the {@link OpenReadingFrame}s of the collected start codons which are terminated by the given stop codon and clears the start codons. A
+         * negative stop drops the start codons.
+         */
+        public void addTo(List<OpenReadingFrame> openReadingFrames, NucleicAcidCodeSequence sequence, GeneticCode geneticCode,
+                          ComplementationType complementationType, boolean reverse, int frame, int stop, int minimumLength)
+        {
+            if (stop >= 0)
+            {
+                for (int ii = 0; ii < this.size; ii++)
+                {
+                    int start = this.positions[ii];
+                    if (Math.abs(stop - start) / 3 >= minimumLength)
+                    {
+                        openReadingFrames.add(new OpenReadingFrame(sequence, geneticCode, complementationType, reverse, frame, start, stop));
+                    }
+                }
+            }
+            this.size = 0;
+        }
+    }
+}
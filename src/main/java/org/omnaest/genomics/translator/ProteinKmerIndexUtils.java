@@ -0,0 +1,879 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.genomics.translator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.LongConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.omnaest.genomics.translator.domain.AminoAcidCode;
+import org.omnaest.genomics.translator.domain.AminoAcidCodeSequence;
+import org.omnaest.genomics.translator.domain.PackedAminoAcidCodeList;
+
+/**
+ * Inverted k-mer index over a collection of {@link AminoAcidCodeSequence}s, which answers which proteins contain a given peptide without scanning all
+ * proteins.<br>
+ * <br>
+ * The postings are held as sorted primitive arrays of the distinct k-mer keys, the offsets into the protein ids and the protein ids itself. Queries
+ * intersect the postings of the rarest k-mers of the peptide and verify the remaining candidates. An index can be written to a file, which is memory
+ * mapped by {@link #open(File)} and includes the proteins, so queries against an opened index touch only the postings and the candidates.
+ * 
+ * @see #builder()
+ * @see #open(File)
+ * @author omnaest
+ */
+public class ProteinKmerIndexUtils
+{
+    private static final long MAGIC   = 0x31494D4B504E4F4DL;
+    private static final int  VERSION = 1;
+
+    private static final int  ID_BITS           = 31;
+    private static final long ID_MASK           = (1L << ID_BITS) - 1;
+    private static final int  MAX_KEY_BITS      = 63 - ID_BITS;
+    private static final int  HEADER_LONGS      = 16;
+    private static final int  MAPPED_CHUNK_SIZE = 1 << 30;
+    private static final int  BUILD_CHUNK_BITS  = 22;
+    private static final int  BUILD_CHUNK_SIZE  = 1 << BUILD_CHUNK_BITS;
+
+    /**
+     * Number of postings which are intersected at most before the candidates are verified
+     */
+    private static final int MAX_INTERSECTED_POSTINGS = 4;
+
+    /**
+     * Alphabet which maps each {@link AminoAcidCode} to a group, so that k-mers are indexed and optionally compared on the level of the groups.
+     * {@link AminoAcidCode}s without group, and null, are not indexed.
+     * 
+     * @author omnaest
+     */
+    public static class ReducedAlphabet
+    {
+        /**
+         * Every {@link AminoAcidCode} forms its own group
+         */
+        public static final ReducedAlphabet FULL = new ReducedAlphabet(Arrays.stream(AminoAcidCode.values())
+                                                                             .map(code -> String.valueOf(code.getCode()))
+                                                                             .toArray(String[]::new));
+
+        /**
+         * 10 letter alphabet of Murphy et al. (2000), which keeps most of the information for protein fold recognition
+         */
+        public static final ReducedAlphabet MURPHY_10 = of("LVIM", "C", "A", "G", "ST", "P", "FYW", "EDNQ", "KR", "H");
+
+        private final byte[] groupOfOrdinal = new byte[AminoAcidCode.values().length];
+        private final int    numberOfGroups;
+
+        private ReducedAlphabet(String[] groups)
+        {
+            super();
+            Arrays.fill(this.groupOfOrdinal, (byte) -1);
+            for (int group = 0; group < groups.length; group++)
+            {
+                for (char code : groups[group].toCharArray())
+                {
+                    AminoAcidCode aminoAcidCode = AminoAcidCode.valueOf(code);
+                    if (aminoAcidCode == null)
+                    {
+                        throw new IllegalArgumentException("Unknown amino acid code: " + code);
+                    }
+                    this.groupOfOrdinal[aminoAcidCode.ordinal()] = (byte) group;
+                }
+            }
+            this.numberOfGroups = groups.length;
+        }
+
+        private ReducedAlphabet(byte[] groupOfOrdinal, int numberOfGroups)
+        {
+            super();
+            System.arraycopy(groupOfOrdinal, 0, this.groupOfOrdinal, 0, this.groupOfOrdinal.length);
+            this.numberOfGroups = numberOfGroups;
+        }
+
+        /**
+         * Returns a {@link ReducedAlphabet} with the given groups, like e.g. "LVIM", "ST", "FYW"
+         * 
+         * @param groups
+         * @return
+         */
+        public static ReducedAlphabet of(String... groups)
+        {
+            return new ReducedAlphabet(groups);
+        }
+
+        /**
+         * Returns the group of the given {@link AminoAcidCode} or -1 if it has no group
+         * 
+         * @param code
+         * @return
+         */
+        public int groupOf(AminoAcidCode code)
+        {
+            return code != null ? this.groupOfOrdinal[code.ordinal()] : -1;
+        }
+
+        public int getNumberOfGroups()
+        {
+            return this.numberOfGroups;
+        }
+
+        private int getBitsPerGroup()
+        {
+            return Math.max(1, 32 - Integer.numberOfLeadingZeros(this.numberOfGroups - 1));
+        }
+    }
+
+    public static interface ProteinKmerIndexBuilder
+    {
+        /**
+         * Sets the length of the indexed k-mers, default is 5. The k-mer length multiplied with the bits per group of the {@link ReducedAlphabet} must
+         * not exceed 32.
+         * 
+         * @param k
+         * @return
+         */
+        public ProteinKmerIndexBuilder withK(int k);
+
+        /**
+         * Sets the {@link ReducedAlphabet}, default is {@link ReducedAlphabet#FULL}
+         * 
+         * @param alphabet
+         * @return
+         */
+        public ProteinKmerIndexBuilder usingReducedAlphabet(ReducedAlphabet alphabet);
+
+        /**
+         * Builds the {@link ProteinKmerIndex} in memory. The postings are collected in chunks which are sorted and merged, so their number is not limited
+         * by the maximum array length but only by the heap, which needs about 12 bytes per posting during the build plus 16 bytes per distinct k-mer.
+         * 
+         * @param proteins
+         * @return
+         */
+        public ProteinKmerIndex build(Collection<AminoAcidCodeSequence> proteins);
+
+        public ProteinKmerIndex build(Stream<AminoAcidCodeSequence> proteins);
+    }
+
+    public static interface ProteinKmerIndex
+    {
+        public int getK();
+
+        public ReducedAlphabet getAlphabet();
+
+        /**
+         * Returns the number of indexed proteins
+         * 
+         * @return
+         */
+        public int size();
+
+        /**
+         * Returns the protein with the given index, which is the position within the indexed collection
+         * 
+         * @param index
+         * @return
+         */
+        public AminoAcidCodeSequence getProtein(int index);
+
+        /**
+         * Returns the indexes of all proteins in ascending order which contain the given peptide like {@link AminoAcidCodeSequence#contains(AminoAcidCodeSequence)}
+         * 
+         * @param peptide
+         * @return
+         */
+        public IntStream findContaining(AminoAcidCodeSequence peptide);
+
+        /**
+         * Similar to {@link #findContaining(AminoAcidCodeSequence)} but compares the groups of the {@link ReducedAlphabet} instead of the
+         * {@link AminoAcidCode}s, so e.g. a peptide with a leucine matches a protein with an isoleucine at the same position if both are within the same
+         * group
+         * 
+         * @param peptide
+         * @return
+         */
+        public IntStream findSimilar(AminoAcidCodeSequence peptide);
+
+        /**
+         * Writes this {@link ProteinKmerIndex} including the proteins to the given {@link File}
+         * 
+         * @see ProteinKmerIndexUtils#open(File)
+         * @param file
+         */
+        public void writeTo(File file);
+    }
+
+    protected ProteinKmerIndexUtils()
+    {
+    }
+
+    public static ProteinKmerIndexBuilder builder()
+    {
+        return new ProteinKmerIndexBuilder()
+        {
+            private int             k        = 5;
+            private ReducedAlphabet alphabet = ReducedAlphabet.FULL;
+
+            @Override
+            public ProteinKmerIndexBuilder withK(int k)
+            {
+                this.k = k;
+                return this;
+            }
+
+            @Override
+            public ProteinKmerIndexBuilder usingReducedAlphabet(ReducedAlphabet alphabet)
+            {
+                this.alphabet = alphabet;
+                return this;
+            }
+
+            @Override
+            public ProteinKmerIndex build(Stream<AminoAcidCodeSequence> proteins)
+            {
+                List<AminoAcidCodeSequence> proteinList = new ArrayList<>();
+                proteins.forEachOrdered(proteinList::add);
+                return this.build(proteinList);
+            }
+
+            @Override
+            public ProteinKmerIndex build(Collection<AminoAcidCodeSequence> proteins)
+            {
+                int bitsPerGroup = this.alphabet.getBitsPerGroup();
+                if (this.k < 1 || this.k * bitsPerGroup > MAX_KEY_BITS)
+                {
+                    throw new IllegalArgumentException("k-mer length must be between 1 and " + MAX_KEY_BITS / bitsPerGroup + " but was " + this.k);
+                }
+                List<AminoAcidCodeSequence> proteinList = Collections.unmodifiableList(new ArrayList<>(proteins));
+
+                ChunkedLongArray entries = new ChunkedLongArray();
+                long[] keys = new long[256];
+                for (int id = 0; id < proteinList.size(); id++)
+                {
+                    AminoAcidCodeSequence protein = proteinList.get(id);
+                    keys = keys.length >= protein.size() ? keys : new long[protein.size()];
+                    int numberOfKeys = toKeys(protein, this.k, this.alphabet, keys);
+                    Arrays.sort(keys, 0, numberOfKeys);
+                    for (int ii = 0; ii < numberOfKeys; ii++)
+                    {
+                        if (ii == 0 || keys[ii] != keys[ii - 1])
+                        {
+                            entries.add((keys[ii] << ID_BITS) | id);
+                        }
+                    }
+                }
+
+                ChunkedLongArray distinctKeys = new ChunkedLongArray();
+                ChunkedLongArray offsets = new ChunkedLongArray();
+                ChunkedIntArray ids = new ChunkedIntArray();
+                entries.drainSorted(entry ->
+                {
+                    long key = entry >>> ID_BITS;
+                    if (distinctKeys.size() == 0 || distinctKeys.get(distinctKeys.size() - 1) != key)
+                    {
+                        distinctKeys.add(key);
+                        offsets.add(ids.size());
+                    }
+                    ids.add((int) (entry & ID_MASK));
+                });
+                offsets.add(ids.size());
+
+                return new ProteinKmerIndexImpl(this.k, this.alphabet, distinctKeys.size(), distinctKeys, offsets, ids, proteinList.size(),
+                                                proteinList::get);
+            }
+        };
+    }
+
+    /**
+     * Writes the keys of all k-mers of the given protein into the given array and returns their number. K-mers with a code without group are skipped.
+     */
+    private static int toKeys(AminoAcidCodeSequence protein, int k, ReducedAlphabet alphabet, long[] keys)
+    {
+        int bitsPerGroup = alphabet.getBitsPerGroup();
+        long mask = (1L << (k * bitsPerGroup)) - 1;
+        long key = 0;
+        int validLength = 0;
+        int numberOfKeys = 0;
+        for (AminoAcidCode code : (Iterable<AminoAcidCode>) protein.stream()::iterator)
+        {
+            int group = alphabet.groupOf(code);
+            if (group < 0)
+            {
+                validLength = 0;
+                continue;
+            }
+            key = ((key << bitsPerGroup) | group) & mask;
+            if (++validLength >= k)
+            {
+                keys[numberOfKeys++] = key;
+            }
+        }
+        return numberOfKeys;
+    }
+
+    @FunctionalInterface
+    private static interface LongArray
+    {
+        public long get(long index);
+    }
+
+    @FunctionalInterface
+    private static interface IntArray
+    {
+        public int get(long index);
+    }
+
+    @FunctionalInterface
+    private static interface ProteinArray
+    {
+        public AminoAcidCodeSequence get(int index);
+    }
+
+    /**
+     * Growable array of longs which is held in chunks of {@link #BUILD_CHUNK_SIZE}, so its size is not limited by the maximum length of an array
+     */
+    private static class ChunkedLongArray implements LongArray
+    {
+        private long[][] chunks = new long[1][];
+        private long     size   = 0;
+
+        public void add(long value)
+        {
+            int chunkIndex = (int) (this.size >>> BUILD_CHUNK_BITS);
+            int position = (int) (this.size & (BUILD_CHUNK_SIZE - 1));
+            if (chunkIndex >= this.chunks.length)
+            {
+                this.chunks = Arrays.copyOf(this.chunks, this.chunks.length * 2);
+            }
+            long[] chunk = this.chunks[chunkIndex];
+            if (chunk == null)
+            {
+                chunk = this.chunks[chunkIndex] = new long[chunkIndex == 0 ? 1024 : BUILD_CHUNK_SIZE];
+            }
+            else if (position >= chunk.length)
+            {
+                chunk = this.chunks[chunkIndex] = Arrays.copyOf(chunk, Math.min(chunk.length * 2, BUILD_CHUNK_SIZE));
+            }
+            chunk[position] = value;
+            this.size++;
+        }
+
+        @Override
+        public long get(long index)
+        {
+            return this.chunks[(int) (index >>> BUILD_CHUNK_BITS)][(int) (index & (BUILD_CHUNK_SIZE - 1))];
+        }
+
+        public long size()
+        {
+            return this.size;
+        }
+
+        /**
+         * Sorts every chunk and passes all values in ascending order to the given {@link LongConsumer} by a k-way merge of the sorted chunks. Every chunk
+         * is released as soon as it is consumed, so this {@link ChunkedLongArray} is empty afterwards.
+         */
+        public void drainSorted(LongConsumer consumer)
+        {
+            int numberOfChunks = (int) ((this.size + BUILD_CHUNK_SIZE - 1) >>> BUILD_CHUNK_BITS);
+            int[] chunkSizes = new int[numberOfChunks];
+            for (int ii = 0; ii < numberOfChunks; ii++)
+            {
+                chunkSizes[ii] = (int) Math.min(BUILD_CHUNK_SIZE, this.size - ((long) ii << BUILD_CHUNK_BITS));
+            }
+            IntStream.range(0, numberOfChunks)
+                     .parallel()
+                     .forEach(ii -> Arrays.sort(this.chunks[ii], 0, chunkSizes[ii]));
+
+            int[] positions = new int[numberOfChunks];
+            int[] heap = new int[numberOfChunks];
+            int heapSize = 0;
+            for (int ii = 0; ii < numberOfChunks; ii++)
+            {
+                heap[heapSize++] = ii;
+                this.siftUp(heap, heapSize - 1, positions);
+            }
+            while (heapSize > 0)
+            {
+                int chunkIndex = heap[0];
+                consumer.accept(this.chunks[chunkIndex][positions[chunkIndex]++]);
+                if (positions[chunkIndex] >= chunkSizes[chunkIndex])
+                {
+                    this.chunks[chunkIndex] = null;
+                    heap[0] = heap[--heapSize];
+                }
+                this.siftDown(heap, heapSize, positions);
+            }
+            this.chunks = new long[1][];
+            this.size = 0;
+        }
+
+        private long head(int chunkIndex, int[] positions)
+        {
+            return this.chunks[chunkIndex][positions[chunkIndex]];
+        }
+
+        private void siftUp(int[] heap, int index, int[] positions)
+        {
+            while (index > 0 && this.head(heap[(index - 1) / 2], positions) > this.head(heap[index], positions))
+            {
+                this.swap(heap, index, (index - 1) / 2);
+                index = (index - 1) / 2;
+            }
+        }
+
+        private void siftDown(int[] heap, int heapSize, int[] positions)
+        {
+            int index = 0;
+            while (2 * index + 1 < heapSize)
+            {
+                int child = 2 * index + 1;
+                if (child + 1 < heapSize && this.head(heap[child + 1], positions) < this.head(heap[child], positions))
+                {
+                    child++;
+                }
+                if (this.head(heap[index], positions) <= this.head(heap[child], positions))
+                {
+                    return;
+                }
+                this.swap(heap, index, child);
+                index = child;
+            }
+        }
+
+        private void swap(int[] heap, int index1, int index2)
+        {
+            int value = heap[index1];
+            heap[index1] = heap[index2];
+            heap[index2] = value;
+        }
+    }
+
+    /**
+     * Growable array of ints which is held in chunks of {@link #BUILD_CHUNK_SIZE}, see {@link ChunkedLongArray}
+     */
+    private static class ChunkedIntArray implements IntArray
+    {
+        private int[][] chunks = new int[1][];
+        private long    size   = 0;
+
+        public void add(int value)
+        {
+            int chunkIndex = (int) (this.size >>> BUILD_CHUNK_BITS);
+            int position = (int) (this.size & (BUILD_CHUNK_SIZE - 1));
+            if (chunkIndex >= this.chunks.length)
+            {
+                this.chunks = Arrays.copyOf(this.chunks, this.chunks.length * 2);
+            }
+            int[] chunk = this.chunks[chunkIndex];
+            if (chunk == null)
+            {
+                chunk = this.chunks[chunkIndex] = new int[chunkIndex == 0 ? 1024 : BUILD_CHUNK_SIZE];
+            }
+            else if (position >= chunk.length)
+            {
+                chunk = this.chunks[chunkIndex] = Arrays.copyOf(chunk, Math.min(chunk.length * 2, BUILD_CHUNK_SIZE));
+            }
+            chunk[position] = value;
+            this.size++;
+        }
+
+        @Override
+        public int get(long index)
+        {
+            return this.chunks[(int) (index >>> BUILD_CHUNK_BITS)][(int) (index & (BUILD_CHUNK_SIZE - 1))];
+        }
+
+        public long size()
+        {
+            return this.size;
+        }
+    }
+
+    private static class ProteinKmerIndexImpl implements ProteinKmerIndex
+    {
+        private final int             k;
+        private final ReducedAlphabet alphabet;
+        private final long            numberOfKeys;
+        private final LongArray       keys;
+        private final LongArray       offsets;
+        private final IntArray        ids;
+        private final int             numberOfProteins;
+        private final ProteinArray    proteins;
+
+        public ProteinKmerIndexImpl(int k, ReducedAlphabet alphabet, long numberOfKeys, LongArray keys, LongArray offsets, IntArray ids, int numberOfProteins,
+                                    ProteinArray proteins)
+        {
+            super();
+            this.k = k;
+            this.alphabet = alphabet;
+            this.numberOfKeys = numberOfKeys;
+            this.keys = keys;
+            this.offsets = offsets;
+            this.ids = ids;
+            this.numberOfProteins = numberOfProteins;
+            this.proteins = proteins;
+        }
+
+        @Override
+        public int getK()
+        {
+            return this.k;
+        }
+
+        @Override
+        public ReducedAlphabet getAlphabet()
+        {
+            return this.alphabet;
+        }
+
+        @Override
+        public int size()
+        {
+            return this.numberOfProteins;
+        }
+
+        @Override
+        public AminoAcidCodeSequence getProtein(int index)
+        {
+            return this.proteins.get(index);
+        }
+
+        @Override
+        public IntStream findContaining(AminoAcidCodeSequence peptide)
+        {
+            return this.findCandidates(peptide)
+                       .filter(index -> this.getProtein(index)
+                                            .contains(peptide));
+        }
+
+        @Override
+        public IntStream findSimilar(AminoAcidCodeSequence peptide)
+        {
+            AminoAcidCodeSequence reducedPeptide = this.toRepresentatives(peptide);
+            return this.findCandidates(peptide)
+                       .filter(index -> this.toRepresentatives(this.getProtein(index))
+                                            .contains(reducedPeptide));
+        }
+
+        /**
+         * Replaces every {@link AminoAcidCode} with the first {@link AminoAcidCode} of its group
+         */
+        private AminoAcidCodeSequence toRepresentatives(AminoAcidCodeSequence sequence)
+        {
+            AminoAcidCode[] representatives = new AminoAcidCode[this.alphabet.getNumberOfGroups()];
+            for (AminoAcidCode code : AminoAcidCode.values())
+            {
+                int group = this.alphabet.groupOf(code);
+                if (group >= 0 && representatives[group] == null)
+                {
+                    representatives[group] = code;
+                }
+            }
+            return AminoAcidCodeSequence.valueOf(sequence.stream()
+                                                         .map(code -> this.alphabet.groupOf(code) >= 0 ? representatives[this.alphabet.groupOf(code)] : code));
+        }
+
+        /**
+         * Returns the ascending indexes of the proteins which contain all of the rarest k-mers of the given peptide. If the peptide has no indexed
+         * k-mer, all proteins are candidates.
+         */
+        private IntStream findCandidates(AminoAcidCodeSequence peptide)
+        {
+            long[] peptideKeys = new long[peptide.size()];
+            int numberOfPeptideKeys = toKeys(peptide, this.k, this.alphabet, peptideKeys);
+            if (numberOfPeptideKeys == 0)
+            {
+                return IntStream.range(0, this.numberOfProteins);
+            }
+
+            long[][] postings = new long[numberOfPeptideKeys][];
+            for (int ii = 0; ii < numberOfPeptideKeys; ii++)
+            {
+                long keyIndex = this.findKey(peptideKeys[ii]);
+                if (keyIndex < 0)
+                {
+                    return IntStream.empty();
+                }
+                postings[ii] = new long[] { this.offsets.get(keyIndex), this.offsets.get(keyIndex + 1) };
+            }
+            Arrays.sort(postings, (posting1, posting2) -> Long.compare(posting1[1] - posting1[0], posting2[1] - posting2[0]));
+
+            int[] candidates = new int[(int) (postings[0][1] - postings[0][0])];
+            for (int ii = 0; ii < candidates.length; ii++)
+            {
+                candidates[ii] = this.ids.get(postings[0][0] + ii);
+            }
+            int numberOfCandidates = candidates.length;
+            for (int ii = 1; ii < Math.min(postings.length, MAX_INTERSECTED_POSTINGS) && numberOfCandidates > 0; ii++)
+            {
+                numberOfCandidates = this.intersect(candidates, numberOfCandidates, postings[ii][0], postings[ii][1]);
+            }
+            return Arrays.stream(candidates, 0, numberOfCandidates);
+        }
+
+        private int intersect(int[] candidates, int numberOfCandidates, long from, long to)
+        {
+            int retval = 0;
+            long position = from;
+            for (int ii = 0; ii < numberOfCandidates && position < to; ii++)
+            {
+                int candidate = candidates[ii];
+                while (position < to && this.ids.get(position) < candidate)
+                {
+                    position++;
+                }
+                if (position < to && this.ids.get(position) == candidate)
+                {
+                    candidates[retval++] = candidate;
+                }
+            }
+            return retval;
+        }
+
+        private long findKey(long key)
+        {
+            long low = 0;
+            long high = this.numberOfKeys - 1;
+            while (low <= high)
+            {
+                long middle = (low + high) >>> 1;
+                long middleKey = this.keys.get(middle);
+                if (middleKey < key)
+                {
+                    low = middle + 1;
+                }
+                else if (middleKey > key)
+                {
+                    high = middle - 1;
+                }
+                else
+                {
+                    return middle;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public void writeTo(File file)
+        {
+            try (FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                            StandardOpenOption.TRUNCATE_EXISTING))
+            {
+                long numberOfIds = this.offsets.get(this.numberOfKeys);
+                long[] proteinWordOffsets = new long[this.numberOfProteins + 1];
+                for (int ii = 0; ii < this.numberOfProteins; ii++)
+                {
+                    proteinWordOffsets[ii + 1] = proteinWordOffsets[ii] + (this.getProtein(ii)
+                                                                              .size()
+                            + 11) / 12;
+                }
+
+                long[] header = new long[HEADER_LONGS];
+                header[0] = MAGIC;
+                header[1] = VERSION;
+                header[2] = this.k;
+                header[3] = this.alphabet.getNumberOfGroups();
+                header[4] = this.numberOfKeys;
+                header[5] = numberOfIds;
+                header[6] = this.numberOfProteins;
+                ByteBuffer groups = ByteBuffer.wrap(new byte[8 * 4]);
+                groups.put(this.alphabet.groupOfOrdinal);
+                groups.rewind();
+                groups.order(ByteOrder.LITTLE_ENDIAN)
+                      .asLongBuffer()
+                      .get(header, 7, 4);
+
+                try (LongWriter writer = new LongWriter(fileChannel))
+                {
+                    for (long value : header)
+                    {
+                        writer.writeLong(value);
+                    }
+                    for (long ii = 0; ii < this.numberOfKeys; ii++)
+                    {
+                        writer.writeLong(this.keys.get(ii));
+                    }
+                    for (long ii = 0; ii <= this.numberOfKeys; ii++)
+                    {
+                        writer.writeLong(this.offsets.get(ii));
+                    }
+                    for (long ii = 0; ii < numberOfIds; ii++)
+                    {
+                        writer.writeInt(this.ids.get(ii));
+                    }
+                    writer.alignToLong();
+                    for (long offset : proteinWordOffsets)
+                    {
+                        writer.writeLong(offset);
+                    }
+                    for (int ii = 0; ii < this.numberOfProteins; ii++)
+                    {
+                        PackedAminoAcidCodeList codes = this.getProtein(ii)
+                                                            .asPackedAminoAcidCodeList();
+                        for (int jj = 0; jj < proteinWordOffsets[ii + 1] - proteinWordOffsets[ii]; jj++)
+                        {
+                            writer.writeLong(jj < codes.getNumberOfWords() ? codes.getWord(jj) : 0);
+                        }
+                    }
+                }
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static class LongWriter implements AutoCloseable
+    {
+        private final FileChannel fileChannel;
+        private final ByteBuffer  buffer = ByteBuffer.allocate(1 << 16)
+                                                     .order(ByteOrder.LITTLE_ENDIAN);
+
+        public LongWriter(FileChannel fileChannel)
+        {
+            super();
+            this.fileChannel = fileChannel;
+        }
+
+        public void writeLong(long value) throws IOException
+        {
+            this.ensureRemaining(8);
+            this.buffer.putLong(value);
+        }
+
+        public void writeInt(int value) throws IOException
+        {
+            this.ensureRemaining(4);
+            this.buffer.putInt(value);
+        }
+
+        public void alignToLong() throws IOException
+        {
+            if (this.buffer.position() % 8 != 0)
+            {
+                this.writeInt(0);
+            }
+        }
+
+        private void ensureRemaining(int length) throws IOException
+        {
+            if (this.buffer.remaining() < length)
+            {
+                this.flush();
+            }
+        }
+
+        private void flush() throws IOException
+        {
+            this.buffer.flip();
+            while (this.buffer.hasRemaining())
+            {
+                this.fileChannel.write(this.buffer);
+            }
+            this.buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            this.flush();
+        }
+    }
+
+    /**
+     * Opens a {@link ProteinKmerIndex} written by {@link ProteinKmerIndex#writeTo(File)} by memory mapping it. The file is mapped in chunks of 1GB, so
+     * the returned {@link ProteinKmerIndex} is not limited in size and does not need to be closed.
+     * 
+     * @param file
+     * @return
+     */
+    public static ProteinKmerIndex open(File file)
+    {
+        try (FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+        {
+            long fileSize = fileChannel.size();
+            ByteBuffer[] chunks = new ByteBuffer[(int) ((fileSize + MAPPED_CHUNK_SIZE - 1) / MAPPED_CHUNK_SIZE)];
+            for (int ii = 0; ii < chunks.length; ii++)
+            {
+                long position = (long) ii * MAPPED_CHUNK_SIZE;
+                chunks[ii] = fileChannel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAPPED_CHUNK_SIZE, fileSize - position))
+                                        .order(ByteOrder.LITTLE_ENDIAN);
+            }
+            LongArray longs = index -> chunks[(int) ((index * 8) / MAPPED_CHUNK_SIZE)].getLong((int) ((index * 8) % MAPPED_CHUNK_SIZE));
+
+            if (fileSize < 8 * HEADER_LONGS || longs.get(0) != MAGIC)
+            {
+                throw new IOException("Not a protein k-mer index file");
+            }
+            if (longs.get(1) != VERSION)
+            {
+                throw new IOException("Unsupported protein k-mer index version " + longs.get(1));
+            }
+            int k = (int) longs.get(2);
+            int numberOfGroups = (int) longs.get(3);
+            long numberOfKeys = longs.get(4);
+            long numberOfIds = longs.get(5);
+            int numberOfProteins = (int) longs.get(6);
+            ByteBuffer groups = ByteBuffer.allocate(8 * 4)
+                                          .order(ByteOrder.LITTLE_ENDIAN);
+            for (int ii = 0; ii < 4; ii++)
+            {
+                groups.putLong(longs.get(7 + ii));
+            }
+            ReducedAlphabet alphabet = new ReducedAlphabet(groups.array(), numberOfGroups);
+
+            long keysStart = HEADER_LONGS;
+            long offsetsStart = keysStart + numberOfKeys;
+            long idsStart = 2 * (offsetsStart + numberOfKeys + 1);
+            long proteinWordOffsetsStart = (idsStart + numberOfIds + 1) / 2;
+            long proteinWordsStart = proteinWordOffsetsStart + numberOfProteins + 1;
+            IntArray ids = index ->
+            {
+                long position = 4 * (idsStart + index);
+                return chunks[(int) (position / MAPPED_CHUNK_SIZE)].getInt((int) (position % MAPPED_CHUNK_SIZE));
+            };
+
+            return new ProteinKmerIndexImpl(k, alphabet, numberOfKeys, index -> longs.get(keysStart + index), index -> longs.get(offsetsStart + index), ids,
+                                            numberOfProteins, index ->
+                                            {
+                                                long from = longs.get(proteinWordOffsetsStart + index);
+                                                long[] words = new long[(int) (longs.get(proteinWordOffsetsStart + index + 1) - from)];
+                                                for (int ii = 0; ii < words.length; ii++)
+                                                {
+                                                    words[ii] = longs.get(proteinWordsStart + from + ii);
+                                                }
+                                                return AminoAcidCodeSequence.valueOf(PackedAminoAcidCodeList.valueOf(words));
+                                            });
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
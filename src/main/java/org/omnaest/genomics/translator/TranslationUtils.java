@@ -34,19 +34,38 @@
 
 package org.omnaest.genomics.translator;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.LongSupplier;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.omnaest.genomics.translator.ComplementaryBasePairUtils.ComplementationType;
 import org.omnaest.genomics.translator.domain.AminoAcidCode;
@@ -63,6 +82,10 @@ import org.omnaest.utils.StreamUtils;
 
 public class TranslationUtils
 {
+    private static final byte[]              ASCII_NUCLEIC_ACID_ORDINALS = compileAsciiNucleicAcidOrdinals();
+    private static final int                 PARALLEL_CODONS_PER_CHUNK   = 1 << 16;
+    private static final ThreadLocal<byte[]> BATCH_TRANSLATION_BUFFER    = ThreadLocal.withInitial(() -> new byte[1024]);
+
     private static class NucleicAcidCodeSequenceTranslationImpl implements NucleicAcidCodeSequenceTranslation
     {
         private Stream<CodeAndPositionAndSource<AminoAcidCode, NucleicAcidCode>> codeAndPositionAndSourceStream;
@@ -211,7 +234,7 @@ public class TranslationUtils
             @Override
             public List<AminoAcidCodeAndPosition> apply(AminoAcidCodeAndPosition aminoAcidCode)
             {
-                return this.aminoAcidCodes;
+                return new ArrayList<>(this.aminoAcidCodes);
             }
         };
     }
@@ -596,6 +619,31 @@ public class TranslationUtils
 
         public TranslationBuilder allReverseFrames();
 
+        /**
+         * Defines the {@link GeneticCode} used for the translation. Default is {@link GeneticCode#STANDARD}.
+         * 
+         * @param geneticCode
+         * @return
+         */
+        public TranslationBuilder usingGeneticCode(GeneticCode geneticCode);
+
+        /**
+         * Translates large sequences in codon aligned chunks on the {@link ForkJoinPool#commonPool()}. The result is identical to the sequential
+         * translation.
+         * 
+         * @see #inParallel(ForkJoinPool)
+         * @return
+         */
+        public TranslationBuilder inParallel();
+
+        /**
+         * Similar to {@link #inParallel()} using the given {@link ForkJoinPool}
+         * 
+         * @param pool
+         * @return
+         */
+        public TranslationBuilder inParallel(ForkJoinPool pool);
+
         public Stream<NucleicAcidCodeSequenceTranslation> get();
     }
 
@@ -622,6 +670,8 @@ public class TranslationUtils
         {
             private Set<Integer> frames        = new LinkedHashSet<>();
             private Set<Integer> reverseFrames = new LinkedHashSet<>();
+            private GeneticCode  geneticCode   = GeneticCode.STANDARD;
+            private ForkJoinPool pool          = null;
 
             @Override
             public TranslationBuilder frames(int... frames)
@@ -649,13 +699,54 @@ public class TranslationUtils
                 return this.reverseFrames(0, 1, 2);
             }
 
+            @Override
+            public TranslationBuilder usingGeneticCode(GeneticCode geneticCode)
+            {
+                this.geneticCode = geneticCode;
+                return this;
+            }
+
+            @Override
+            public TranslationBuilder inParallel()
+            {
+                return this.inParallel(ForkJoinPool.commonPool());
+            }
+
+            @Override
+            public TranslationBuilder inParallel(ForkJoinPool pool)
+            {
+                this.pool = pool;
+                return this;
+            }
+
             @Override
             public Stream<NucleicAcidCodeSequenceTranslation> get()
             {
+                GeneticCode geneticCode = this.geneticCode;
+                TranslatedFrame[][] translatedFrames = this.pool != null
+                        ? translateFramesInParallel(sequence, geneticCode, this.toFrameSelection(this.frames), this.toFrameSelection(this.reverseFrames),
+                                                    this.pool)
+                        : translateFrames(sequence, geneticCode, this.toFrameSelection(this.frames), this.toFrameSelection(this.reverseFrames));
                 return Stream.concat(this.frames.stream()
-                                                .map(frame -> translate(frame, sequence)),
+                                                .map(frame -> this.isStandardFrame(frame) ? translatedFrames[0][frame]
+                                                        : translate(frame, sequence, geneticCode)),
                                      this.reverseFrames.stream()
-                                                       .map(frame -> translateReverse(frame, sequence)));
+                                                       .map(frame -> this.isStandardFrame(frame) ? translatedFrames[1][frame]
+                                                               : translateReverse(frame, sequence, geneticCode)));
+            }
+
+            private boolean[] toFrameSelection(Set<Integer> frames)
+            {
+                boolean[] retval = new boolean[3];
+                frames.stream()
+                      .filter(this::isStandardFrame)
+                      .forEach(frame -> retval[frame] = true);
+                return retval;
+            }
+
+            private boolean isStandardFrame(int frame)
+            {
+                return frame >= 0 && frame < 3;
             }
 
         };
@@ -673,14 +764,15 @@ public class TranslationUtils
     }
 
     /**
-     * Returns
+     * Returns the translations of the frames 0,1,2 followed by the reverse frames 0,1,2 which are all translated within a single pass
      * 
+     * @see #translateSixFrames(NucleicAcidCodeSequence)
      * @param sequence
      * @return
      */
     public static Stream<NucleicAcidCodeSequenceTranslation> translateAllFramesAndReverseFrames(NucleicAcidCodeSequence sequence)
     {
-        return Stream.concat(translateAllFrames(sequence), translateAllReverseFrames(sequence));
+        return translateSixFrames(sequence).asStream();
     }
 
     /**
@@ -692,9 +784,23 @@ public class TranslationUtils
      */
     public static NucleicAcidCodeSequenceTranslation translate(int frame, NucleicAcidCodeSequence sequence)
     {
-        return translateCodeAndPosition(frame, sequence != null ? sequence.asCodeAndPositionSequence()
+        return translate(frame, sequence, GeneticCode.STANDARD);
+    }
+
+    /**
+     * Similar to {@link #translate(int, NucleicAcidCodeSequence)} using the given {@link GeneticCode}
+     * 
+     * @param frame
+     * @param sequence
+     * @param geneticCode
+     * @return
+     */
+    public static NucleicAcidCodeSequenceTranslation translate(int frame, NucleicAcidCodeSequence sequence, GeneticCode geneticCode)
+    {
+        return translateCodeAndPosition(frame, (sequence != null ? sequence.asCodeAndPositionSequence()
                 : NucleicAcidCodeSequence.valueOf("")
-                                         .asCodeAndPositionSequence());
+                                         .asCodeAndPositionSequence()).stream(),
+                                        geneticCode);
     }
 
     /**
@@ -716,32 +822,77 @@ public class TranslationUtils
      */
     public static NucleicAcidCodeSequenceTranslation translateReverse(int frame, NucleicAcidCodeSequence sequence)
     {
-        ComplementationType complementationType = ComplementationType.DNA;
+        return translateReverse(frame, sequence, GeneticCode.STANDARD);
+    }
+
+    /**
+     * Similar to {@link #translateReverse(int, NucleicAcidCodeSequence)} using the given {@link GeneticCode}
+     * 
+     * @param frame
+     * @param sequence
+     * @param geneticCode
+     * @return
+     */
+    public static NucleicAcidCodeSequenceTranslation translateReverse(int frame, NucleicAcidCodeSequence sequence, GeneticCode geneticCode)
+    {
+        return translateReverse(frame, sequence, geneticCode, ComplementationType.DNA);
+    }
+
+    /**
+     * Similar to {@link #translateReverse(int, NucleicAcidCodeSequence, GeneticCode)} using the given {@link ComplementationType} for the reverse strand.<br>
+     * <br>
+     * The reverse strand is read through {@link NucleicAcidCodeSequence#asReverseComplementView(ComplementationType)} from its last codon to its first one,
+     * so the translation is streamed without copying the sequence or buffering the result. Since the positions count down, a sequence which contains gaps
+     * or null codes is counted once by a separate pass over its codons when the first codon is translated. For packed sequences the check for gaps and
+     * null codes only inspects the sparse codes, so ambiguity codes like N do not cause an additional pass.
+     * 
+     * @param frame
+     * @param sequence
+     * @param geneticCode
+     * @param complementationType
+     * @return
+     */
+    public static NucleicAcidCodeSequenceTranslation translateReverse(int frame, NucleicAcidCodeSequence sequence, GeneticCode geneticCode,
+                                                                      ComplementationType complementationType)
+    {
+        NucleicAcidCodeSequence reverseComplement = sequence.asReverseComplementView(complementationType);
+        int size = sequence.size();
+        int numberOfCodons = size - 3 - frame >= 0 ? (size - 3 - frame) / 3 + 1 : 0;
+        int lastCodonStart = frame + (numberOfCodons - 1) * 3;
+        IntFunction<AminoAcidCode> codonTranslator = codonStart -> geneticCode.translate(reverseComplement.get(codonStart),
+                                                                                          reverseComplement.get(codonStart + 1),
+                                                                                          reverseComplement.get(codonStart + 2));
+        Supplier<IntStream> codonStarts = () -> IntStream.iterate(lastCodonStart, codonStart -> codonStart - 3)
+                                                         .limit(numberOfCodons);
+
+        LongSupplier numberOfTranslatedCodons = () -> !sequence.containsGapOrNull() ? numberOfCodons
+                : codonStarts.get()
+                             .filter(codonStart -> codonTranslator.apply(codonStart) != null)
+                             .count();
+        AtomicLong position = new AtomicLong(-1);
+        Stream<CodeAndPositionAndSource<AminoAcidCode, NucleicAcidCode>> retval = codonStarts.get()
+                                                                                             .mapToObj(codonStart ->
+                                                                                             {
+                                                                                                 AminoAcidCode code = codonTranslator.apply(codonStart);
+                                                                                                 if (code != null && position.get() < 0)
+                                                                                                 {
+                                                                                                     position.set(numberOfTranslatedCodons.getAsLong());
+                                                                                                 }
+                                                                                                 return code == null ? null
+                                                                                                         : new CodeAndPositionAndSource<AminoAcidCode, NucleicAcidCode>(code,
+                                                                                                                                                                        position.decrementAndGet(),
+                                                                                                                                                                        createReverseSources(sequence,
+                                                                                                                                                                                             size - 3 - codonStart));
+                                                                                             })
+                                                                                             .filter(capas -> capas != null);
         boolean reverse = true;
-        return new NucleicAcidCodeSequenceTranslationImpl(StreamUtils.reverse(translate(frame, sequence.inverse()
-                                                                                                       .asReverseStrand(complementationType)).asCodeAndPositionAndSourceSequence()
-                                                                                                                                             .map(capas -> new CodeAndPositionAndSource<>(capas.getCode(),
-                                                                                                                                                                                          capas.getPosition(),
-                                                                                                                                                                                          capas.getSources()
-                                                                                                                                                                                               .stream()
-                                                                                                                                                                                               .map(cap -> new CodeAndPosition<>(
-
-                                                                                                                                                                                                                                 ComplementaryBasePairUtils.toComplement(cap.getCode(),
-                                                                                                                                                                                                                                                                         complementationType)
-                                                                                                                                                                                                                                 /*
-                                                                                                                                                                                                                                  * cap
-                                                                                                                                                                                                                                  * .
-                                                                                                                                                                                                                                  * getCode
-                                                                                                                                                                                                                                  * (
-                                                                                                                                                                                                                                  * )
-                                                                                                                                                                                                                                  */
-
-                                                                                                                                                                                                                                 ,
-                                                                                                                                                                                                                                 (sequence.size()
-                                                                                                                                                                                                                                         - 1)
-                                                                                                                                                                                                                                         - cap.getPosition()))
-                                                                                                                                                                                               .collect(Collectors.toList())))),
-                                                          frame, reverse);
+        return new NucleicAcidCodeSequenceTranslationImpl(retval, frame, reverse);
+    }
+
+    private static List<CodeAndPosition<NucleicAcidCode>> createReverseSources(NucleicAcidCodeSequence sequence, int position)
+    {
+        return Arrays.asList(new CodeAndPosition<>(sequence.get(position + 2), position + 2), new CodeAndPosition<>(sequence.get(position + 1), position + 1),
+                             new CodeAndPosition<>(sequence.get(position), position));
     }
 
     /**
@@ -773,17 +924,30 @@ public class TranslationUtils
      * @return
      */
     public static NucleicAcidCodeSequenceTranslation translateCodeAndPosition(int frame, Stream<CodeAndPosition<NucleicAcidCode>> sequence)
+    {
+        return translateCodeAndPosition(frame, sequence, GeneticCode.STANDARD);
+    }
+
+    /**
+     * Similar to {@link #translateCodeAndPosition(int, Stream)} using the given {@link GeneticCode}
+     * 
+     * @param frame
+     * @param sequence
+     * @param geneticCode
+     * @return
+     */
+    public static NucleicAcidCodeSequenceTranslation translateCodeAndPosition(int frame, Stream<CodeAndPosition<NucleicAcidCode>> sequence,
+                                                                              GeneticCode geneticCode)
     {
         AtomicLong position = new AtomicLong();
         Stream<CodeAndPositionAndSource<AminoAcidCode, NucleicAcidCode>> retval = StreamUtils.framedPreserveSize(3, sequence.skip(frame))
                                                                                              .map(codes ->
                                                                                              {
                                                                                                  List<CodeAndPosition<NucleicAcidCode>> codesList = Arrays.asList(codes);
-                                                                                                 AminoAcidCode code = CodonTableUtils.translate(codesList.stream()
-                                                                                                                                                         .map(cap -> cap != null
-                                                                                                                                                                 ? cap.getCode()
-                                                                                                                                                                 : null)
-                                                                                                                                                         .collect(Collectors.toList()));
+                                                                                                 AminoAcidCode code = codes[0] != null && codes[1] != null && codes[2] != null
+                                                                                                         ? geneticCode.translate(codes[0].getCode(), codes[1].getCode(),
+                                                                                                                                 codes[2].getCode())
+                                                                                                         : null;
 
                                                                                                  return code == null ? null
                                                                                                          : new CodeAndPositionAndSource<AminoAcidCode, NucleicAcidCode>(code,
@@ -795,6 +959,224 @@ public class TranslationUtils
         return new NucleicAcidCodeSequenceTranslationImpl(retval, frame, reverse);
     }
 
+    private static byte[] compileAsciiNucleicAcidOrdinals()
+    {
+        byte[] retval = new byte[128];
+        for (char character = 0; character < retval.length; character++)
+        {
+            NucleicAcidCode code = NucleicAcidCode.valueOf(character);
+            retval[character] = code != null ? (byte) code.ordinal() : -1;
+        }
+        return retval;
+    }
+
+    private static int toOrdinal(int character)
+    {
+        return character >= 0 && character < 128 ? ASCII_NUCLEIC_ACID_ORDINALS[character] : -1;
+    }
+
+    private static int toComplementOrdinal(int character)
+    {
+        return ComplementationType.DNA.getComplementOrdinal(toOrdinal(character));
+    }
+
+    private static int translateCodonToAscii(int first, int second, int third, GeneticCode geneticCode, byte[] target, int targetIndex)
+    {
+        if (first < 0 || second < 0 || third < 0)
+        {
+            return 0;
+        }
+        byte aminoAcid = geneticCode.translateToAscii(CodonTableUtils.codonIndex(first, second, third));
+        if (aminoAcid == 0)
+        {
+            return 0;
+        }
+        target[targetIndex] = aminoAcid;
+        return 1;
+    }
+
+    /**
+     * Returns the start of the first codon within a region of the given length which belongs to the given frame of the reverse strand. The codons of the
+     * reverse frame start at every third position from there up to {@link #lastReverseCodonStart(int, int)}.
+     */
+    private static int firstReverseCodonStart(int frame, int length)
+    {
+        return (length - 3 - frame) % 3;
+    }
+
+    private static int lastReverseCodonStart(int frame, int length)
+    {
+        return length - 3 - frame;
+    }
+
+    /**
+     * Translates the region of the given ASCII encoded nucleic acid sequence into the ASCII characters of the {@link AminoAcidCode}s which are written into
+     * the given target array starting at the given target offset.<br>
+     * <br>
+     * The result is equal to the {@link NucleicAcidCodeSequenceTranslation#toString()} of {@link #translate(int, NucleicAcidCodeSequence, GeneticCode)}
+     * or for the reverse strand of {@link #translateReverse(int, NucleicAcidCodeSequence, GeneticCode)}, but no objects are created at all. Codons containing
+     * unknown characters or gaps are skipped.<br>
+     * <br>
+     * The target array has to have at least length / 3 free entries.
+     * 
+     * @param frame
+     *            = 0,1,2
+     * @param reverse
+     *            true for the reverse strand
+     * @param source
+     * @param offset
+     * @param length
+     * @param geneticCode
+     * @param target
+     * @param targetOffset
+     * @return number of written {@link AminoAcidCode} characters
+     */
+    public static int translateAscii(int frame, boolean reverse, byte[] source, int offset, int length, GeneticCode geneticCode, byte[] target,
+                                     int targetOffset)
+    {
+        int count = 0;
+        if (!reverse)
+        {
+            for (int ii = offset + frame, end = offset + length - 2; ii < end; ii += 3)
+            {
+                count += translateCodonToAscii(toOrdinal(source[ii]), toOrdinal(source[ii + 1]), toOrdinal(source[ii + 2]), geneticCode, target,
+                                               targetOffset + count);
+            }
+        }
+        else
+        {
+            for (int ii = firstReverseCodonStart(frame, length), last = lastReverseCodonStart(frame, length); ii >= 0 && ii <= last; ii += 3)
+            {
+                int position = offset + ii;
+                count += translateCodonToAscii(toComplementOrdinal(source[position + 2]), toComplementOrdinal(source[position + 1]),
+                                               toComplementOrdinal(source[position]), geneticCode, target, targetOffset + count);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Similar to {@link #translateAscii(int, boolean, byte[], int, int, GeneticCode, byte[], int)} reading from a {@link CharSequence}
+     * 
+     * @param frame
+     * @param reverse
+     * @param source
+     * @param offset
+     * @param length
+     * @param geneticCode
+     * @param target
+     * @param targetOffset
+     * @return
+     */
+    public static int translateAscii(int frame, boolean reverse, CharSequence source, int offset, int length, GeneticCode geneticCode, byte[] target,
+                                     int targetOffset)
+    {
+        int count = 0;
+        if (!reverse)
+        {
+            for (int ii = offset + frame, end = offset + length - 2; ii < end; ii += 3)
+            {
+                count += translateCodonToAscii(toOrdinal(source.charAt(ii)), toOrdinal(source.charAt(ii + 1)), toOrdinal(source.charAt(ii + 2)),
+                                               geneticCode, target, targetOffset + count);
+            }
+        }
+        else
+        {
+            for (int ii = firstReverseCodonStart(frame, length), last = lastReverseCodonStart(frame, length); ii >= 0 && ii <= last; ii += 3)
+            {
+                int position = offset + ii;
+                count += translateCodonToAscii(toComplementOrdinal(source.charAt(position + 2)), toComplementOrdinal(source.charAt(position + 1)),
+                                               toComplementOrdinal(source.charAt(position)), geneticCode, target, targetOffset + count);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Similar to {@link #translateAscii(int, boolean, byte[], int, int, GeneticCode, byte[], int)} reading from a heap or direct {@link ByteBuffer}. The
+     * offset is an absolute index and the position of the {@link ByteBuffer} is not modified.
+     * 
+     * @param frame
+     * @param reverse
+     * @param source
+     * @param offset
+     * @param length
+     * @param geneticCode
+     * @param target
+     * @param targetOffset
+     * @return
+     */
+    public static int translateAscii(int frame, boolean reverse, ByteBuffer source, int offset, int length, GeneticCode geneticCode, byte[] target,
+                                     int targetOffset)
+    {
+        int count = 0;
+        if (!reverse)
+        {
+            for (int ii = offset + frame, end = offset + length - 2; ii < end; ii += 3)
+            {
+                count += translateCodonToAscii(toOrdinal(source.get(ii)), toOrdinal(source.get(ii + 1)), toOrdinal(source.get(ii + 2)), geneticCode,
+                                               target, targetOffset + count);
+            }
+        }
+        else
+        {
+            for (int ii = firstReverseCodonStart(frame, length), last = lastReverseCodonStart(frame, length); ii >= 0 && ii <= last; ii += 3)
+            {
+                int position = offset + ii;
+                count += translateCodonToAscii(toComplementOrdinal(source.get(position + 2)), toComplementOrdinal(source.get(position + 1)),
+                                               toComplementOrdinal(source.get(position)), geneticCode, target, targetOffset + count);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Similar to {@link #translateAscii(int, boolean, byte[], int, int, GeneticCode, byte[], int)} reading from a {@link NucleicAcidCodeSequence}
+     * 
+     * @param frame
+     * @param reverse
+     * @param source
+     * @param offset
+     * @param length
+     * @param geneticCode
+     * @param target
+     * @param targetOffset
+     * @return
+     */
+    public static int translateAscii(int frame, boolean reverse, NucleicAcidCodeSequence source, int offset, int length, GeneticCode geneticCode,
+                                     byte[] target, int targetOffset)
+    {
+        int count = 0;
+        if (!reverse)
+        {
+            for (int ii = offset + frame, end = offset + length - 2; ii < end; ii += 3)
+            {
+                count += translateCodonToAscii(toOrdinal(source.get(ii)), toOrdinal(source.get(ii + 1)), toOrdinal(source.get(ii + 2)), geneticCode,
+                                               target, targetOffset + count);
+            }
+        }
+        else
+        {
+            for (int ii = firstReverseCodonStart(frame, length), last = lastReverseCodonStart(frame, length); ii >= 0 && ii <= last; ii += 3)
+            {
+                int position = offset + ii;
+                count += translateCodonToAscii(toComplementOrdinal(source.get(position + 2)), toComplementOrdinal(source.get(position + 1)),
+                                               toComplementOrdinal(source.get(position)), geneticCode, target, targetOffset + count);
+            }
+        }
+        return count;
+    }
+
+    private static int toOrdinal(NucleicAcidCode code)
+    {
+        return code != null ? code.ordinal() : -1;
+    }
+
+    private static int toComplementOrdinal(NucleicAcidCode code)
+    {
+        return ComplementationType.DNA.getComplementOrdinal(toOrdinal(code));
+    }
+
     public static interface MultiNucleicAcidCodeSequenceTranslation
     {
         public NucleicAcidCodeSequenceTranslation getForFrame(int frame);
@@ -835,10 +1217,799 @@ public class TranslationUtils
         };
     }
 
-    public static NucleicAcidCodeSequence reverseStrand(NucleicAcidCodeSequence sequence, ComplementationType complementationType)
+    /**
+     * Translation of all three frames and all three reverse frames of a {@link NucleicAcidCodeSequence}
+     * 
+     * @see TranslationUtils#translateSixFrames(NucleicAcidCodeSequence, GeneticCode)
+     * @author omnaest
+     */
+    public static interface SixFrameTranslation extends MultiNucleicAcidCodeSequenceTranslation
     {
-        return NucleicAcidCodeSequence.valueOf(sequence.stream()
-                                                       .map(code -> ComplementaryBasePairUtils.toComplement(code, complementationType)));
+        /**
+         * Returns the translation of the given frame of the reverse strand, similar to {@link TranslationUtils#translateReverse(int, NucleicAcidCodeSequence)}
+         * 
+         * @param frame
+         * @return
+         */
+        public NucleicAcidCodeSequenceTranslation getForReverseFrame(int frame);
+
+        /**
+         * Returns the frames 0,1,2 followed by the reverse frames 0,1,2
+         */
+        @Override
+        public Stream<NucleicAcidCodeSequenceTranslation> asStream();
+    }
+
+    /**
+     * Similar to {@link #translateSixFrames(NucleicAcidCodeSequence, GeneticCode)} using the {@link GeneticCode#STANDARD}
+     * 
+     * @param sequence
+     * @return
+     */
+    public static SixFrameTranslation translateSixFrames(NucleicAcidCodeSequence sequence)
+    {
+        return translateSixFrames(sequence, GeneticCode.STANDARD);
+    }
+
+    /**
+     * Translates all three frames and all three reverse frames within a single pass over the given {@link NucleicAcidCodeSequence}.<br>
+     * <br>
+     * The results are equal to {@link #translate(int, NucleicAcidCodeSequence, GeneticCode)} and
+     * {@link #translateReverse(int, NucleicAcidCodeSequence, GeneticCode)}, but the translated frames only hold one byte per {@link AminoAcidCode} and
+     * resolve the {@link CodeAndPositionAndSource}s lazily from the given {@link NucleicAcidCodeSequence}.
+     * 
+     * @param sequence
+     * @param geneticCode
+     * @return
+     */
+    public static SixFrameTranslation translateSixFrames(NucleicAcidCodeSequence sequence, GeneticCode geneticCode)
+    {
+        boolean[] allFrames = { true, true, true };
+        TranslatedFrame[][] translatedFrames = translateFrames(sequence, geneticCode, allFrames, allFrames);
+        return new SixFrameTranslation()
+        {
+            @Override
+            public NucleicAcidCodeSequenceTranslation getForFrame(int frame)
+            {
+                return translatedFrames[0][frame];
+            }
+
+            @Override
+            public NucleicAcidCodeSequenceTranslation getForReverseFrame(int frame)
+            {
+                return translatedFrames[1][frame];
+            }
+
+            @Override
+            public Stream<NucleicAcidCodeSequenceTranslation> asStream()
+            {
+                return Stream.concat(Arrays.stream(translatedFrames[0]), Arrays.stream(translatedFrames[1]));
+            }
+        };
+    }
+
+    /**
+     * Translates the selected frames and reverse frames within a single sequential scan. Every codon start position p belongs to exactly one forward frame (p
+     * mod 3) and to exactly one reverse frame ((size - 3 - p) mod 3), so a rolling window of the last three bases is sufficient for all frames. Since the
+     * reverse frames are scanned in forward direction their codons arrive already in the order of
+     * {@link #translateReverse(int, NucleicAcidCodeSequence, GeneticCode)}.
+     * 
+     * @return [0] the forward frames and [1] the reverse frames, where not selected frames are null
+     */
+    private static TranslatedFrame[][] translateFrames(NucleicAcidCodeSequence sequence, GeneticCode geneticCode, boolean[] frames, boolean[] reverseFrames)
+    {
+        int size = sequence.size();
+        int expectedNumberOfCodons = size / 3 + 1;
+
+        FrameAccumulator[] forwardAccumulators = new FrameAccumulator[3];
+        FrameAccumulator[] reverseAccumulators = new FrameAccumulator[3];
+        for (int frame = 0; frame < 3; frame++)
+        {
+            forwardAccumulators[frame] = frames[frame] ? new FrameAccumulator(expectedNumberOfCodons) : null;
+            reverseAccumulators[frame] = reverseFrames[frame] ? new FrameAccumulator(expectedNumberOfCodons) : null;
+        }
+
+        int first = -1;
+        int second = -1;
+        int position = 0;
+        for (NucleicAcidCode code : sequence)
+        {
+            int third = code != null ? code.ordinal() : -1;
+            int codonStart = position - 2;
+            if (codonStart >= 0)
+            {
+                FrameAccumulator forwardAccumulator = forwardAccumulators[codonStart % 3];
+                if (forwardAccumulator != null)
+                {
+                    forwardAccumulator.add(first >= 0 && second >= 0 && third >= 0 ? geneticCode.translate(CodonTableUtils.codonIndex(first, second, third))
+                            : null);
+                }
+
+                FrameAccumulator reverseAccumulator = reverseAccumulators[(size - 3 - codonStart) % 3];
+                if (reverseAccumulator != null)
+                {
+                    int reverseFirst = ComplementationType.DNA.getComplementOrdinal(third);
+                    int reverseSecond = ComplementationType.DNA.getComplementOrdinal(second);
+                    int reverseThird = ComplementationType.DNA.getComplementOrdinal(first);
+                    reverseAccumulator.add(reverseFirst >= 0 && reverseSecond >= 0 && reverseThird >= 0
+                            ? geneticCode.translate(CodonTableUtils.codonIndex(reverseFirst, reverseSecond, reverseThird))
+                            : null);
+                }
+            }
+            first = second;
+            second = third;
+            position++;
+        }
+
+        TranslatedFrame[][] retval = new TranslatedFrame[2][3];
+        for (int frame = 0; frame < 3; frame++)
+        {
+            if (forwardAccumulators[frame] != null)
+            {
+                retval[0][frame] = forwardAccumulators[frame].build(sequence, frame, false, frame);
+            }
+            if (reverseAccumulators[frame] != null)
+            {
+                retval[1][frame] = reverseAccumulators[frame].build(sequence, frame, true, firstReverseCodonStart(frame, size));
+            }
+        }
+        return retval;
+    }
+
+    /**
+     * Similar to {@link #translateFrames(NucleicAcidCodeSequence, GeneticCode, boolean[], boolean[])} but splits every selected frame into chunks of
+     * {@link #PARALLEL_CODONS_PER_CHUNK} codons which are translated on the given {@link ForkJoinPool}. Since the chunks are aligned to the codons of their
+     * frame and are concatenated in order, the result is identical to the sequential translation.
+     */
+    private static TranslatedFrame[][] translateFramesInParallel(NucleicAcidCodeSequence sequence, GeneticCode geneticCode, boolean[] frames,
+                                                                 boolean[] reverseFrames, ForkJoinPool pool)
+    {
+        int size = sequence.size();
+        if (size <= 3 * PARALLEL_CODONS_PER_CHUNK)
+        {
+            return translateFrames(sequence, geneticCode, frames, reverseFrames);
+        }
+
+        return pool.invoke(new RecursiveTask<TranslatedFrame[][]>()
+        {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected TranslatedFrame[][] compute()
+            {
+                boolean[][] selectedFrames = { frames, reverseFrames };
+                List<List<FrameChunkTask>> tasksByFrame = new ArrayList<>();
+                for (int strand = 0; strand < 2; strand++)
+                {
+                    boolean reverse = strand == 1;
+                    for (int frame = 0; frame < 3; frame++)
+                    {
+                        List<FrameChunkTask> tasks = new ArrayList<>();
+                        if (selectedFrames[strand][frame])
+                        {
+                            int firstCodonStart = reverse ? firstReverseCodonStart(frame, size) : frame;
+                            int numberOfCodons = firstCodonStart >= 0 && size - 3 - firstCodonStart >= 0 ? (size - 3 - firstCodonStart) / 3 + 1 : 0;
+                            for (int fromCodon = 0; fromCodon < numberOfCodons; fromCodon += PARALLEL_CODONS_PER_CHUNK)
+                            {
+                                tasks.add(new FrameChunkTask(sequence, geneticCode, reverse, firstCodonStart + 3 * fromCodon,
+                                                             Math.min(PARALLEL_CODONS_PER_CHUNK, numberOfCodons - fromCodon)));
+                            }
+                        }
+                        tasksByFrame.add(tasks);
+                    }
+                }
+
+                invokeAll(tasksByFrame.stream()
+                                      .flatMap(List::stream)
+                                      .collect(Collectors.toList()));
+
+                TranslatedFrame[][] retval = new TranslatedFrame[2][3];
+                for (int strand = 0; strand < 2; strand++)
+                {
+                    boolean reverse = strand == 1;
+                    for (int frame = 0; frame < 3; frame++)
+                    {
+                        if (selectedFrames[strand][frame])
+                        {
+                            FrameAccumulator frameAccumulator = new FrameAccumulator(size / 3 + 1);
+                            tasksByFrame.get(strand * 3 + frame)
+                                        .forEach(task -> frameAccumulator.append(task.join()));
+                            retval[strand][frame] = frameAccumulator.build(sequence, frame, reverse,
+                                                                           reverse ? firstReverseCodonStart(frame, size) : frame);
+                        }
+                    }
+                }
+                return retval;
+            }
+        });
+    }
+
+    /**
+     * Translates a number of consecutive codons of a single frame starting at the given codon start
+     */
+    private static class FrameChunkTask extends RecursiveTask<FrameAccumulator>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final NucleicAcidCodeSequence sequence;
+        private final GeneticCode             geneticCode;
+        private final boolean                 reverse;
+        private final int                     firstCodonStart;
+        private final int                     numberOfCodons;
+
+        public FrameChunkTask(NucleicAcidCodeSequence sequence, GeneticCode geneticCode, boolean reverse, int firstCodonStart, int numberOfCodons)
+        {
+            super();
+            this.sequence = sequence;
+            this.geneticCode = geneticCode;
+            this.reverse = reverse;
+            this.firstCodonStart = firstCodonStart;
+            this.numberOfCodons = numberOfCodons;
+        }
+
+        @Override
+        protected FrameAccumulator compute()
+        {
+            FrameAccumulator retval = new FrameAccumulator(this.numberOfCodons);
+            for (int codon = 0, codonStart = this.firstCodonStart; codon < this.numberOfCodons; codon++, codonStart += 3)
+            {
+                int first = toOrdinal(this.sequence.get(codonStart));
+                int second = toOrdinal(this.sequence.get(codonStart + 1));
+                int third = toOrdinal(this.sequence.get(codonStart + 2));
+                if (this.reverse)
+                {
+                    int reverseFirst = ComplementationType.DNA.getComplementOrdinal(third);
+                    second = ComplementationType.DNA.getComplementOrdinal(second);
+                    third = ComplementationType.DNA.getComplementOrdinal(first);
+                    first = reverseFirst;
+                }
+                retval.add(first >= 0 && second >= 0 && third >= 0 ? this.geneticCode.translate(CodonTableUtils.codonIndex(first, second, third)) : null);
+            }
+            return retval;
+        }
+    }
+
+    /**
+     * Collects the translated codons of a single frame as {@link AminoAcidCode} ordinals. Codons without translation are not stored, only their slot
+     * numbers are kept which are rare.
+     */
+    private static class FrameAccumulator
+    {
+        private byte[] ordinals;
+        private int    size         = 0;
+        private int    slot         = 0;
+        private int[]  skippedSlots = new int[4];
+        private int    skippedCount = 0;
+
+        public FrameAccumulator(int capacity)
+        {
+            this.ordinals = new byte[Math.max(1, capacity)];
+        }
+
+        public void add(AminoAcidCode code)
+        {
+            if (code != null)
+            {
+                if (this.size >= this.ordinals.length)
+                {
+                    this.ordinals = Arrays.copyOf(this.ordinals, this.ordinals.length * 2);
+                }
+                this.ordinals[this.size++] = (byte) code.ordinal();
+            }
+            else
+            {
+                if (this.skippedCount >= this.skippedSlots.length)
+                {
+                    this.skippedSlots = Arrays.copyOf(this.skippedSlots, this.skippedSlots.length * 2);
+                }
+                this.skippedSlots[this.skippedCount++] = this.slot;
+            }
+            this.slot++;
+        }
+
+        /**
+         * Appends the codons of the given {@link FrameAccumulator} which are following the codons of this {@link FrameAccumulator}
+         * 
+         * @param other
+         */
+        public void append(FrameAccumulator other)
+        {
+            if (this.size + other.size > this.ordinals.length)
+            {
+                this.ordinals = Arrays.copyOf(this.ordinals, Math.max(this.ordinals.length * 2, this.size + other.size));
+            }
+            System.arraycopy(other.ordinals, 0, this.ordinals, this.size, other.size);
+            this.size += other.size;
+
+            if (this.skippedCount + other.skippedCount > this.skippedSlots.length)
+            {
+                this.skippedSlots = Arrays.copyOf(this.skippedSlots, Math.max(this.skippedSlots.length * 2, this.skippedCount + other.skippedCount));
+            }
+            for (int ii = 0; ii < other.skippedCount; ii++)
+            {
+                this.skippedSlots[this.skippedCount++] = this.slot + other.skippedSlots[ii];
+            }
+            this.slot += other.slot;
+        }
+
+        public TranslatedFrame build(NucleicAcidCodeSequence sequence, int frame, boolean reverse, int firstCodonStart)
+        {
+            return new TranslatedFrame(sequence, frame, reverse, firstCodonStart, Arrays.copyOf(this.ordinals, this.size),
+                                       Arrays.copyOf(this.skippedSlots, this.skippedCount));
+        }
+    }
+
+    /**
+     * {@link NucleicAcidCodeSequenceTranslation} of a single frame which holds only the {@link AminoAcidCode} ordinals and resolves the
+     * {@link CodeAndPositionAndSource}s lazily
+     */
+    private static class TranslatedFrame implements NucleicAcidCodeSequenceTranslation
+    {
+        private static final AminoAcidCode[] AMINO_ACID_CODES = AminoAcidCode.values();
+
+        private final NucleicAcidCodeSequence sequence;
+        private final int                     frame;
+        private final boolean                 reverse;
+        private final int                     firstCodonStart;
+        private final byte[]                  ordinals;
+        private final int[]                   skippedSlots;
+
+        public TranslatedFrame(NucleicAcidCodeSequence sequence, int frame, boolean reverse, int firstCodonStart, byte[] ordinals, int[] skippedSlots)
+        {
+            super();
+            this.sequence = sequence;
+            this.frame = frame;
+            this.reverse = reverse;
+            this.firstCodonStart = firstCodonStart;
+            this.ordinals = ordinals;
+            this.skippedSlots = skippedSlots;
+        }
+
+        @Override
+        public int getFrame()
+        {
+            return this.frame;
+        }
+
+        @Override
+        public boolean isReverse()
+        {
+            return this.reverse;
+        }
+
+        @Override
+        public Stream<AminoAcidCode> asCodeSequence()
+        {
+            return IntStream.range(0, this.ordinals.length)
+                            .mapToObj(index -> AMINO_ACID_CODES[this.ordinals[index]]);
+        }
+
+        @Override
+        public Stream<CodeAndPositionAndSource<AminoAcidCode, NucleicAcidCode>> asCodeAndPositionAndSourceSequence()
+        {
+            Iterator<CodeAndPositionAndSource<AminoAcidCode, NucleicAcidCode>> iterator = new Iterator<CodeAndPositionAndSource<AminoAcidCode, NucleicAcidCode>>()
+            {
+                private int index       = 0;
+                private int slot        = 0;
+                private int skippedSlot = 0;
+
+                @Override
+                public boolean hasNext()
+                {
+                    return this.index < TranslatedFrame.this.ordinals.length;
+                }
+
+                @Override
+                public CodeAndPositionAndSource<AminoAcidCode, NucleicAcidCode> next()
+                {
+                    if (!this.hasNext())
+                    {
+                        throw new NoSuchElementException();
+                    }
+
+                    int[] skippedSlots = TranslatedFrame.this.skippedSlots;
+                    while (this.skippedSlot < skippedSlots.length && skippedSlots[this.skippedSlot] == this.slot)
+                    {
+                        this.skippedSlot++;
+                        this.slot++;
+                    }
+
+                    int codonStart = TranslatedFrame.this.firstCodonStart + 3 * this.slot;
+                    int index = this.index;
+                    this.index++;
+                    this.slot++;
+                    return TranslatedFrame.this.createCodeAndPositionAndSource(index, codonStart);
+                }
+            };
+            return StreamSupport.stream(Spliterators.spliterator(iterator, this.ordinals.length, Spliterator.ORDERED), false);
+        }
+
+        private CodeAndPositionAndSource<AminoAcidCode, NucleicAcidCode> createCodeAndPositionAndSource(int index, int codonStart)
+        {
+            AminoAcidCode code = AMINO_ACID_CODES[this.ordinals[index]];
+            if (this.reverse)
+            {
+                return new CodeAndPositionAndSource<>(code, this.ordinals.length - 1 - index, createReverseSources(this.sequence, codonStart));
+            }
+            else
+            {
+                return new CodeAndPositionAndSource<>(code, index,
+                                                      Arrays.asList(new CodeAndPosition<>(this.sequence.get(codonStart), codonStart),
+                                                                    new CodeAndPosition<>(this.sequence.get(codonStart + 1), codonStart + 1),
+                                                                    new CodeAndPosition<>(this.sequence.get(codonStart + 2), codonStart + 2)));
+            }
+        }
+
+        @Override
+        public AminoAcidCodeSequence asAminoAcidCodeSequence()
+        {
+            return new AminoAcidCodeSequence(this.asCodeSequence());
+        }
+
+        @Override
+        public AminoAcidCodeAndPositionAndSourceSequence asAminoAcidCodeAndPositionAndSourceSequence()
+        {
+            return AminoAcidCodeAndPositionAndSourceSequence.valueOf(this.asCodeAndPositionAndSourceSequence());
+        }
+    }
+
+    /**
+     * Result of a {@link BatchTranslationBuilder} for a single {@link NucleicAcidCodeSequence}
+     * 
+     * @author omnaest
+     */
+    public static interface BatchTranslation
+    {
+        /**
+         * Returns the index of the {@link NucleicAcidCodeSequence} within the input: n=0,1,2,...
+         * 
+         * @return
+         */
+        public long getIndex();
+
+        public NucleicAcidCodeSequence getSequence();
+
+        /**
+         * Returns the translation of the given frame as {@link AminoAcidCode} characters, or null if the frame was not selected
+         * 
+         * @see TranslationUtils#translate(int, NucleicAcidCodeSequence)
+         * @param frame
+         * @return
+         */
+        public String getFrame(int frame);
+
+        /**
+         * Returns the translation of the given reverse frame as {@link AminoAcidCode} characters, or null if the reverse frame was not selected
+         * 
+         * @see TranslationUtils#translateReverse(int, NucleicAcidCodeSequence)
+         * @param frame
+         * @return
+         */
+        public String getReverseFrame(int frame);
+    }
+
+    /**
+     * Builder for the translation of a large number of mostly short {@link NucleicAcidCodeSequence}s. The sequences are read in work units of
+     * {@link #withWorkUnitSize(int)} sequences which are translated in parallel, where every worker thread reuses its own output buffer.
+     * 
+     * @see #get()
+     * @see #forEach(Consumer)
+     * @author omnaest
+     */
+    public static interface BatchTranslationBuilder
+    {
+        public BatchTranslationBuilder frames(int... frames);
+
+        public BatchTranslationBuilder allFrames();
+
+        public BatchTranslationBuilder reverseFrames(int... frames);
+
+        public BatchTranslationBuilder allReverseFrames();
+
+        /**
+         * Default is {@link GeneticCode#STANDARD}
+         * 
+         * @param geneticCode
+         * @return
+         */
+        public BatchTranslationBuilder usingGeneticCode(GeneticCode geneticCode);
+
+        /**
+         * Default is {@link ForkJoinPool#commonPool()}
+         * 
+         * @param pool
+         * @return
+         */
+        public BatchTranslationBuilder usingPool(ForkJoinPool pool);
+
+        /**
+         * Defines the number of {@link NucleicAcidCodeSequence}s per work unit. Default is 1024.
+         * 
+         * @param workUnitSize
+         * @return
+         */
+        public BatchTranslationBuilder withWorkUnitSize(int workUnitSize);
+
+        /**
+         * Returns the {@link BatchTranslation}s in the order of the input
+         * 
+         * @return
+         */
+        public Stream<BatchTranslation> get();
+
+        /**
+         * Calls the given {@link Consumer} for every {@link BatchTranslation} from the worker threads as soon as its work unit is translated, without any
+         * particular order. Returns after all {@link BatchTranslation}s have been consumed.
+         * 
+         * @param consumer
+         */
+        public void forEach(Consumer<BatchTranslation> consumer);
+    }
+
+    /**
+     * Similar to {@link #translateBatch(Iterator)}
+     * 
+     * @param sequences
+     * @return
+     */
+    public static BatchTranslationBuilder translateBatch(Collection<NucleicAcidCodeSequence> sequences)
+    {
+        return translateBatch(sequences.iterator());
+    }
+
+    /**
+     * Similar to {@link #translateBatch(Iterator)}
+     * 
+     * @param sequences
+     * @return
+     */
+    public static BatchTranslationBuilder translateBatch(Stream<NucleicAcidCodeSequence> sequences)
+    {
+        return translateBatch(sequences.iterator());
+    }
+
+    /**
+     * Returns a {@link BatchTranslationBuilder} for the given {@link NucleicAcidCodeSequence}s. The {@link Iterator} is only consumed by a single thread
+     * and only a bounded number of work units is read ahead.
+     * 
+     * @param sequences
+     * @return
+     */
+    public static BatchTranslationBuilder translateBatch(Iterator<NucleicAcidCodeSequence> sequences)
+    {
+        return new BatchTranslationBuilder()
+        {
+            private Set<Integer> frames        = new LinkedHashSet<>();
+            private Set<Integer> reverseFrames = new LinkedHashSet<>();
+            private GeneticCode  geneticCode   = GeneticCode.STANDARD;
+            private ForkJoinPool pool          = ForkJoinPool.commonPool();
+            private int          workUnitSize  = 1024;
+
+            @Override
+            public BatchTranslationBuilder frames(int... frames)
+            {
+                this.frames.addAll(Arrays.asList(org.apache.commons.lang3.ArrayUtils.toObject(frames)));
+                return this;
+            }
+
+            @Override
+            public BatchTranslationBuilder allFrames()
+            {
+                return this.frames(0, 1, 2);
+            }
+
+            @Override
+            public BatchTranslationBuilder reverseFrames(int... frames)
+            {
+                this.reverseFrames.addAll(Arrays.asList(org.apache.commons.lang3.ArrayUtils.toObject(frames)));
+                return this;
+            }
+
+            @Override
+            public BatchTranslationBuilder allReverseFrames()
+            {
+                return this.reverseFrames(0, 1, 2);
+            }
+
+            @Override
+            public BatchTranslationBuilder usingGeneticCode(GeneticCode geneticCode)
+            {
+                this.geneticCode = geneticCode;
+                return this;
+            }
+
+            @Override
+            public BatchTranslationBuilder usingPool(ForkJoinPool pool)
+            {
+                this.pool = pool;
+                return this;
+            }
+
+            @Override
+            public BatchTranslationBuilder withWorkUnitSize(int workUnitSize)
+            {
+                this.workUnitSize = Math.max(1, workUnitSize);
+                return this;
+            }
+
+            @Override
+            public Stream<BatchTranslation> get()
+            {
+                Iterator<List<BatchTranslation>> workUnits = this.createWorkUnitIterator(workUnit -> workUnit);
+                return StreamSupport.stream(Spliterators.spliteratorUnknownSize(workUnits, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                                    .flatMap(List::stream);
+            }
+
+            @Override
+            public void forEach(Consumer<BatchTranslation> consumer)
+            {
+                Iterator<List<BatchTranslation>> workUnits = this.createWorkUnitIterator(workUnit ->
+                {
+                    workUnit.forEach(consumer);
+                    return Collections.emptyList();
+                });
+                while (workUnits.hasNext())
+                {
+                    workUnits.next();
+                }
+            }
+
+            private Iterator<List<BatchTranslation>> createWorkUnitIterator(UnaryOperator<List<BatchTranslation>> workUnitFinisher)
+            {
+                int[] frames = this.frames.stream()
+                                          .mapToInt(Integer::intValue)
+                                          .toArray();
+                int[] reverseFrames = this.reverseFrames.stream()
+                                                        .mapToInt(Integer::intValue)
+                                                        .toArray();
+                GeneticCode geneticCode = this.geneticCode;
+                ForkJoinPool pool = this.pool;
+                int workUnitSize = this.workUnitSize;
+                int maximumNumberOfPendingWorkUnits = 2 * pool.getParallelism() + 1;
+                return new Iterator<List<BatchTranslation>>()
+                {
+                    private Deque<ForkJoinTask<List<BatchTranslation>>> pendingWorkUnits = new ArrayDeque<>();
+                    private long                                        index            = 0;
+
+                    @Override
+                    public boolean hasNext()
+                    {
+                        this.submitWorkUnits();
+                        return !this.pendingWorkUnits.isEmpty();
+                    }
+
+                    @Override
+                    public List<BatchTranslation> next()
+                    {
+                        if (!this.hasNext())
+                        {
+                            throw new NoSuchElementException();
+                        }
+                        return this.pendingWorkUnits.poll()
+                                                    .join();
+                    }
+
+                    private void submitWorkUnits()
+                    {
+                        while (this.pendingWorkUnits.size() < maximumNumberOfPendingWorkUnits && sequences.hasNext())
+                        {
+                            List<NucleicAcidCodeSequence> workUnit = new ArrayList<>(workUnitSize);
+                            while (workUnit.size() < workUnitSize && sequences.hasNext())
+                            {
+                                workUnit.add(sequences.next());
+                            }
+                            long firstIndex = this.index;
+                            this.index += workUnit.size();
+                            this.pendingWorkUnits.add(pool.submit(() -> workUnitFinisher.apply(translateWorkUnit(workUnit, firstIndex, frames,
+                                                                                                                 reverseFrames, geneticCode))));
+                        }
+                    }
+                };
+            }
+        };
+    }
+
+    private static List<BatchTranslation> translateWorkUnit(List<NucleicAcidCodeSequence> workUnit, long firstIndex, int[] frames, int[] reverseFrames,
+                                                            GeneticCode geneticCode)
+    {
+        List<BatchTranslation> retval = new ArrayList<>(workUnit.size());
+        byte[] buffer = BATCH_TRANSLATION_BUFFER.get();
+        long index = firstIndex;
+        for (NucleicAcidCodeSequence sequence : workUnit)
+        {
+            int size = sequence.size();
+            if (buffer.length < size / 3 + 1)
+            {
+                buffer = new byte[Math.max(buffer.length * 2, size / 3 + 1)];
+                BATCH_TRANSLATION_BUFFER.set(buffer);
+            }
+
+            String[] frameTranslations = new String[frames.length];
+            for (int ii = 0; ii < frames.length; ii++)
+            {
+                int count = translateAscii(frames[ii], false, sequence, 0, size, geneticCode, buffer, 0);
+                frameTranslations[ii] = new String(buffer, 0, count, StandardCharsets.US_ASCII);
+            }
+            String[] reverseFrameTranslations = new String[reverseFrames.length];
+            for (int ii = 0; ii < reverseFrames.length; ii++)
+            {
+                int count = translateAscii(reverseFrames[ii], true, sequence, 0, size, geneticCode, buffer, 0);
+                reverseFrameTranslations[ii] = new String(buffer, 0, count, StandardCharsets.US_ASCII);
+            }
+            retval.add(new BatchTranslationImpl(index++, sequence, frames, frameTranslations, reverseFrames, reverseFrameTranslations));
+        }
+        return retval;
+    }
+
+    private static class BatchTranslationImpl implements BatchTranslation
+    {
+        private final long                    index;
+        private final NucleicAcidCodeSequence sequence;
+        private final int[]                   frames;
+        private final String[]                frameTranslations;
+        private final int[]                   reverseFrames;
+        private final String[]                reverseFrameTranslations;
+
+        public BatchTranslationImpl(long index, NucleicAcidCodeSequence sequence, int[] frames, String[] frameTranslations, int[] reverseFrames,
+                                    String[] reverseFrameTranslations)
+        {
+            super();
+            this.index = index;
+            this.sequence = sequence;
+            this.frames = frames;
+            this.frameTranslations = frameTranslations;
+            this.reverseFrames = reverseFrames;
+            this.reverseFrameTranslations = reverseFrameTranslations;
+        }
+
+        @Override
+        public long getIndex()
+        {
+            return this.index;
+        }
+
+        @Override
+        public NucleicAcidCodeSequence getSequence()
+        {
+            return this.sequence;
+        }
+
+        @Override
+        public String getFrame(int frame)
+        {
+            return find(frame, this.frames, this.frameTranslations);
+        }
+
+        @Override
+        public String getReverseFrame(int frame)
+        {
+            return find(frame, this.reverseFrames, this.reverseFrameTranslations);
+        }
+
+        private static String find(int frame, int[] frames, String[] translations)
+        {
+            for (int ii = 0; ii < frames.length; ii++)
+            {
+                if (frames[ii] == frame)
+                {
+                    return translations[ii];
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "BatchTranslation [index=" + this.index + ", frameTranslations=" + Arrays.toString(this.frameTranslations) + ", reverseFrameTranslations="
+                    + Arrays.toString(this.reverseFrameTranslations) + "]";
+        }
+
+    }
+
+    public static NucleicAcidCodeSequence reverseStrand(NucleicAcidCodeSequence sequence, ComplementationType complementationType)
+    {
+        return sequence.asReverseStrand(complementationType);
     }
 
     public static NucleicAcidCodeSequence translateFromRNAToDNA(NucleicAcidCodeSequence sequence)
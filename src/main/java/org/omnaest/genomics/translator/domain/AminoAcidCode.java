@@ -23,7 +23,8 @@ package org.omnaest.genomics.translator.domain;
 
 import java.util.ArrayList;
 import java.util.BitSet;
-import java.util.LinkedHashSet;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
 import java.util.function.Predicate;
@@ -62,9 +63,57 @@ public enum AminoAcidCode implements Predicate<AminoAcidCode>
     X("any", 'X', STOP.negate()
                       .and(__.negate()));
 
+    /**
+     * {@link AminoAcidCode} per ASCII character, upper and lower case
+     */
+    private static final AminoAcidCode[] ASCII_CODES = new AminoAcidCode[128];
+    static
+    {
+        for (AminoAcidCode aminoAcidCode : values())
+        {
+            char code = aminoAcidCode.getCode();
+            ASCII_CODES[code] = aminoAcidCode;
+            ASCII_CODES[Character.toLowerCase(code)] = aminoAcidCode;
+        }
+    }
+
+    /**
+     * Resolves the predicates once into bitmasks of ordinals. This is done in the order of the ordinals, which allows the predicates to use
+     * {@link #test(AminoAcidCode)} since they only refer to codes declared before.
+     */
+    static
+    {
+        for (AminoAcidCode aminoAcidCode : values())
+        {
+            int matchingMask = 1 << aminoAcidCode.ordinal();
+            for (AminoAcidCode other : values())
+            {
+                if (aminoAcidCode.predicate != null && aminoAcidCode.predicate.test(other))
+                {
+                    matchingMask |= 1 << other.ordinal();
+                }
+            }
+            aminoAcidCode.matchingMask = matchingMask;
+        }
+        for (AminoAcidCode aminoAcidCode : values())
+        {
+            Set<AminoAcidCode> expandedMatchingCodes = EnumSet.noneOf(AminoAcidCode.class);
+            for (AminoAcidCode other : values())
+            {
+                if (other.test(aminoAcidCode))
+                {
+                    expandedMatchingCodes.add(other);
+                }
+            }
+            aminoAcidCode.expandedMatchingCodes = Collections.unmodifiableSet(expandedMatchingCodes);
+        }
+    }
+
     private Predicate<AminoAcidCode> predicate;
     private Character                code;
     private String                   name;
+    private int                      matchingMask;
+    private Set<AminoAcidCode>       expandedMatchingCodes;
 
     private AminoAcidCode(String name, Character code)
     {
@@ -84,12 +133,26 @@ public enum AminoAcidCode implements Predicate<AminoAcidCode>
         return this.name;
     }
 
+    /**
+     * Returns true if the given {@link AminoAcidCode} is equal to this code or is one of the codes this ambiguity code stands for. Null never matches.
+     */
     @Override
     public boolean test(AminoAcidCode otherAminoAcid)
     {
-        return Predicate.<AminoAcidCode>isEqual(this)
-                        .or(this.predicate)
-                        .test(otherAminoAcid);
+        return otherAminoAcid != null && (this.matchingMask & (1 << otherAminoAcid.ordinal())) != 0;
+    }
+
+    /**
+     * Returns true if both {@link AminoAcidCode}s can stand for the same amino acid, e.g. {@link #J} and {@link #L} or {@link #J} and {@link #X}, but not
+     * {@link #J} and {@link #B}. Null never matches.
+     * 
+     * @param aminoAcidCode
+     * @param otherAminoAcidCode
+     * @return
+     */
+    public static boolean matches(AminoAcidCode aminoAcidCode, AminoAcidCode otherAminoAcidCode)
+    {
+        return aminoAcidCode != null && otherAminoAcidCode != null && (aminoAcidCode.matchingMask & otherAminoAcidCode.matchingMask) != 0;
     }
 
     /**
@@ -97,22 +160,40 @@ public enum AminoAcidCode implements Predicate<AminoAcidCode>
      * <br>
      * If no matching {@link AminoAcidCode} is found, this returns null
      *
+     * @see #valueOf(char)
      * @param code
      * @return
      */
     public static AminoAcidCode valueOf(Character code)
     {
-        AminoAcidCode retval = null;
-        for (AminoAcidCode aminoAcidCode : AminoAcidCode.values())
+        return code != null ? valueOf(code.charValue()) : null;
+    }
+
+    /**
+     * Returns the matching {@link AminoAcidCode} for the given code character, ignoring the case, or null if no {@link AminoAcidCode} matches
+     * 
+     * @param code
+     * @return
+     */
+    public static AminoAcidCode valueOf(char code)
+    {
+        if (code < ASCII_CODES.length)
         {
-            if (aminoAcidCode.getCode()
-                             .equals(Character.toUpperCase(code)))
-            {
-                retval = aminoAcidCode;
-                break;
-            }
+            return ASCII_CODES[code];
         }
-        return retval;
+        char upperCaseCode = Character.toUpperCase(code);
+        return upperCaseCode < ASCII_CODES.length ? ASCII_CODES[upperCaseCode] : null;
+    }
+
+    /**
+     * Returns the matching {@link AminoAcidCode} for the given ASCII encoded code, ignoring the case, or null if no {@link AminoAcidCode} matches
+     * 
+     * @param code
+     * @return
+     */
+    public static AminoAcidCode valueOf(byte code)
+    {
+        return code >= 0 ? ASCII_CODES[code] : null;
     }
 
     public static AminoAcidCode valueOf(BitSet bitSet)
@@ -147,22 +228,15 @@ public enum AminoAcidCode implements Predicate<AminoAcidCode>
     }
 
     /**
-     * Returns a further {@link Set} of all matching {@link AminoAcidCode}s including those which are non specific and do only exclude certain amino acids
+     * Returns a further {@link Set} of all matching {@link AminoAcidCode}s including those which are non specific and do only exclude certain amino acids.
+     * The returned {@link Set} is immutable.
      *
      * @param code
      * @return
      */
     public Set<AminoAcidCode> expandedMatchingCodes()
     {
-        Set<AminoAcidCode> retval = new LinkedHashSet<>();
-        for (AminoAcidCode aminoAcidCode : AminoAcidCode.values())
-        {
-            if (aminoAcidCode.test(this))
-            {
-                retval.add(aminoAcidCode);
-            }
-        }
-        return retval;
+        return this.expandedMatchingCodes;
     }
 
     public BitSet asBitSet()
@@ -41,23 +41,23 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
-import org.apache.commons.lang.ArrayUtils;
-import org.omnaest.utils.BitSetUtils;
 import org.omnaest.utils.ListUtils;
-import org.omnaest.utils.list.enumeration.CompressableEnumList;
-import org.omnaest.utils.list.enumeration.ConstantCompressableEnumList;
 
 /**
- * {@link AminoAcidCode} sequence storage
+ * {@link AminoAcidCode} sequence storage<br>
+ * <br>
+ * The {@link AminoAcidCode}s are held within a {@link PackedAminoAcidCodeList} which uses 5 bits per code.
  * 
  * @see NucleicAcidCodeSequence
  * @author omnaest
  */
 public class AminoAcidCodeSequence implements CodeSequence<AminoAcidCode>
 {
-    private CompressableEnumList<AminoAcidCode> codesEnumList;
+    private PackedAminoAcidCodeList codes;
+    private boolean                 inMemoryCompression = false;
 
     public AminoAcidCodeSequence(AminoAcidCode... aminoAcidCodes)
     {
@@ -67,7 +67,7 @@ public class AminoAcidCodeSequence implements CodeSequence<AminoAcidCode>
     public AminoAcidCodeSequence(Collection<AminoAcidCode> aminoAcidCodes)
     {
         super();
-        this.codesEnumList = new ConstantCompressableEnumList<>(AminoAcidCode.class, aminoAcidCodes);
+        this.codes = PackedAminoAcidCodeList.valueOf(aminoAcidCodes);
     }
 
     public AminoAcidCodeSequence(Stream<AminoAcidCode> aminoAcidCodes)
@@ -86,28 +86,36 @@ public class AminoAcidCodeSequence implements CodeSequence<AminoAcidCode>
     }
 
     /**
-     * Enables or disables the in memory compression. Default is not active.
+     * Enables or disables the in memory compression. Default is not active.<br>
+     * <br>
+     * Since the {@link AminoAcidCode}s are always stored packed, this is only kept as flag which is passed on to derived sequences.
      * 
      * @param active
      * @return
      */
     public AminoAcidCodeSequence usingInMemoryCompression(boolean active)
     {
-        this.codesEnumList.usingInMemoryCompression(active);
+        this.inMemoryCompression = active;
         return this;
     }
 
     public static AminoAcidCodeSequence valueOf(String codes)
     {
-        return new AminoAcidCodeSequence(Arrays.stream(ArrayUtils.toObject(codes.toCharArray()))
-                                               .map(code -> AminoAcidCode.valueOf(code))
-                                               .collect(Collectors.toList()));
+        PackedAminoAcidCodeList.Builder builder = PackedAminoAcidCodeList.builder(codes.length());
+        CodeCodecUtils.decodeAminoAcidCodes(codes, 0, codes.length(), builder);
+        return new AminoAcidCodeSequence(builder.build());
     }
 
+    /**
+     * Returns a {@link Predicate} which matches {@link AminoAcidCodeSequence}s with exactly the same {@link AminoAcidCode}s. The packed words are compared
+     * directly.
+     * 
+     * @return
+     */
     public Predicate<? super AminoAcidCodeSequence> asPredicateMatcher()
     {
-        BitSet bitSetSignature = this.asBitSet();
-        return aminoAcidCodes -> bitSetSignature.equals(aminoAcidCodes.asBitSet());
+        PackedAminoAcidCodeList signature = this.codes;
+        return aminoAcidCodes -> signature.equals(aminoAcidCodes.codes);
     }
 
     public Predicate<? super AminoAcidCodeSequence> asPredicateMatcherFuzzy()
@@ -116,29 +124,51 @@ public class AminoAcidCodeSequence implements CodeSequence<AminoAcidCode>
         {
             Iterator<AminoAcidCode> validationIterator = aminoAcidCodes.toList()
                                                                        .iterator();
-            return this.codesEnumList.stream()
-                                     .allMatch(aminoAcidCode -> validationIterator.hasNext() && aminoAcidCode.test(validationIterator.next()));
+            return this.codes.stream()
+                             .allMatch(aminoAcidCode -> validationIterator.hasNext() && aminoAcidCode.test(validationIterator.next()));
         };
     }
 
     private List<AminoAcidCode> toList()
     {
-        return new ArrayList<>(this.codesEnumList);
+        return new ArrayList<>(this.codes);
     }
 
+    /**
+     * Returns the {@link AminoAcidCode}s as {@link BitSet} which holds 5 bits per code like the {@link PackedAminoAcidCodeList}
+     * 
+     * @see #valueOf(BitSet)
+     * @return
+     */
     public BitSet asBitSet()
     {
-        byte[] values = ArrayUtils.toPrimitive(this.codesEnumList.stream()
-                                                                 .map(aminoAcidCode -> BitSetUtils.toByte(aminoAcidCode.asBitSet()))
-                                                                 .collect(Collectors.toList())
-                                                                 .toArray(new Byte[0]));
+        return BitSet.valueOf(this.codes.toWords());
+    }
 
-        return BitSetUtils.valueOf(values);
+    /**
+     * Returns the immutable {@link PackedAminoAcidCodeList} which holds the {@link AminoAcidCode}s of this {@link AminoAcidCodeSequence}, which allows to
+     * access the packed words directly
+     * 
+     * @return
+     */
+    public PackedAminoAcidCodeList asPackedAminoAcidCodeList()
+    {
+        return this.codes;
     }
 
     public Stream<AminoAcidCode> stream()
     {
-        return this.codesEnumList.stream();
+        return this.codes.stream();
+    }
+
+    /**
+     * Returns the number of {@link AminoAcidCode}s
+     * 
+     * @return
+     */
+    public int size()
+    {
+        return this.codes.size();
     }
 
     /**
@@ -153,14 +183,20 @@ public class AminoAcidCodeSequence implements CodeSequence<AminoAcidCode>
 
     public Stream<String> toStringStream()
     {
-        return this.codesEnumList.stream()
-                                 .filter(code -> code != null)
-                                 .map(code -> String.valueOf(code.getCode()));
+        return this.codes.stream()
+                         .filter(code -> code != null)
+                         .map(code -> String.valueOf(code.getCode()));
     }
 
+    /**
+     * Returns the {@link AminoAcidCodeSequence} of a {@link BitSet} like returned by {@link #asBitSet()}
+     * 
+     * @param bitSet
+     * @return
+     */
     public static AminoAcidCodeSequence valueOf(BitSet bitSet)
     {
-        return new AminoAcidCodeSequence(AminoAcidCode.valuesOf(bitSet));
+        return new AminoAcidCodeSequence(PackedAminoAcidCodeList.valueOf(bitSet.toLongArray()));
     }
 
     @Override
@@ -168,7 +204,7 @@ public class AminoAcidCodeSequence implements CodeSequence<AminoAcidCode>
     {
         final int prime = 31;
         int result = 1;
-        result = prime * result + ((this.codesEnumList == null) ? 0 : this.codesEnumList.hashCode());
+        result = prime * result + ((this.codes == null) ? 0 : this.codes.hashCodeOfWords());
         return result;
     }
 
@@ -188,81 +224,98 @@ public class AminoAcidCodeSequence implements CodeSequence<AminoAcidCode>
             return false;
         }
         AminoAcidCodeSequence other = (AminoAcidCodeSequence) obj;
-        if (this.codesEnumList == null)
+        if (this.codes == null)
         {
-            if (other.codesEnumList != null)
+            if (other.codes != null)
             {
                 return false;
             }
         }
-        else if (!this.codesEnumList.equals(other.codesEnumList))
+        else if (!this.codes.equals(other.codes))
         {
             return false;
         }
         return true;
     }
 
+    /**
+     * Returns true if the given {@link AminoAcidCodeSequence} occurs within this {@link AminoAcidCodeSequence}
+     * 
+     * @see #indexOf(AminoAcidCodeSequence)
+     * @param aminoAcidCodeSequence
+     * @return
+     */
     public boolean contains(AminoAcidCodeSequence aminoAcidCodeSequence)
     {
-        boolean retval = false;
-
-        List<AminoAcidCode> externalAminoAcidCodes = aminoAcidCodeSequence.asList();
+        return this.indexOf(aminoAcidCodeSequence) >= 0;
+    }
 
-        List<AminoAcidCode> flowingAminoAcidCodes = new ArrayList<>();
-        for (AminoAcidCode aminoAcidCode : this.codesEnumList)
-        {
-            flowingAminoAcidCodes.add(aminoAcidCode);
-            if (flowingAminoAcidCodes.size() > externalAminoAcidCodes.size())
-            {
-                flowingAminoAcidCodes.remove(0);
-            }
-            if (flowingAminoAcidCodes.size() == externalAminoAcidCodes.size())
-            {
-                boolean isEqual = this.validateEqualityOfAminoAcidCodes(externalAminoAcidCodes, flowingAminoAcidCodes);
-                if (isEqual)
-                {
-                    retval = true;
-                    break;
-                }
-            }
-        }
+    /**
+     * Returns the index of the first occurrence of the given {@link AminoAcidCodeSequence} or -1 if it does not occur. The search runs in linear time
+     * directly on the packed codes.
+     * 
+     * @see #indexOf(AminoAcidCodeSequence, int)
+     * @see #findAll(AminoAcidCodeSequence)
+     * @param aminoAcidCodeSequence
+     * @return
+     */
+    public int indexOf(AminoAcidCodeSequence aminoAcidCodeSequence)
+    {
+        return this.indexOf(aminoAcidCodeSequence, 0);
+    }
 
-        return retval;
+    /**
+     * Similar to {@link #indexOf(AminoAcidCodeSequence)} but starts the search at the given index
+     * 
+     * @param aminoAcidCodeSequence
+     * @param fromIndex
+     * @return
+     */
+    public int indexOf(AminoAcidCodeSequence aminoAcidCodeSequence, int fromIndex)
+    {
+        return this.codes.find(aminoAcidCodeSequence.codes, fromIndex);
     }
 
-    private boolean validateEqualityOfAminoAcidCodes(List<AminoAcidCode> externalAminoAcidCodes, List<AminoAcidCode> flowingAminoAcidCodes)
+    /**
+     * Returns the indexes of all, possibly overlapping, occurrences of the given {@link AminoAcidCodeSequence} in ascending order
+     * 
+     * @param aminoAcidCodeSequence
+     * @return
+     */
+    public IntStream findAll(AminoAcidCodeSequence aminoAcidCodeSequence)
     {
-        return flowingAminoAcidCodes.equals(externalAminoAcidCodes);
+        return IntStream.of(this.codes.findAll(aminoAcidCodeSequence.codes));
     }
 
     public List<AminoAcidCode> asList()
     {
-        return new ArrayList<>(this.codesEnumList);
+        return new ArrayList<>(this.codes);
     }
 
     /**
      * Returns a new {@link AminoAcidCodeSequence} representing a subsequence from the given start with the given length of {@link AminoAcidCode}s
-     *
+     * 
      * @param start
      * @param length
      * @return
      */
     public AminoAcidCodeSequence subSequence(int start, int length)
     {
-        return new AminoAcidCodeSequence(this.codesEnumList.subList(start, start + length));
+        return new AminoAcidCodeSequence(this.codes.subList(start, start + length)).usingInMemoryCompression(this.inMemoryCompression);
     }
 
     /**
      * Returns a new sequence instance containing the code sequence from the current instance and the code sequence from the given sequence appended to it
-     *
+     * 
      * @param appendedAminoAcidCodeSequence
      * @return new
      */
     public AminoAcidCodeSequence asAppendedWith(AminoAcidCodeSequence appendedAminoAcidCodeSequence)
     {
-        Collection<AminoAcidCode> aminoAcidCodes2 = new ArrayList<>(this.codesEnumList);
-        aminoAcidCodes2.addAll(appendedAminoAcidCodeSequence.codesEnumList);
-        return new AminoAcidCodeSequence(aminoAcidCodes2).usingInMemoryCompression(this.codesEnumList.isInMemoryCompressionActive());
+        PackedAminoAcidCodeList.Builder builder = PackedAminoAcidCodeList.builder(this.codes.size() + appendedAminoAcidCodeSequence.codes.size());
+        builder.append(this.codes)
+               .append(appendedAminoAcidCodeSequence.codes);
+        return new AminoAcidCodeSequence(builder.build()).usingInMemoryCompression(this.inMemoryCompression);
     }
 
     public static interface Builder
@@ -280,33 +333,33 @@ public class AminoAcidCodeSequence implements CodeSequence<AminoAcidCode>
     {
         return new Builder()
         {
-            private List<AminoAcidCode> aminoAcidCodes = new ArrayList<>();
+            private PackedAminoAcidCodeList.Builder aminoAcidCodes = PackedAminoAcidCodeList.builder();
 
             @Override
             public Builder append(AminoAcidCodeSequence aminoAcidCodeSequence)
             {
-                this.aminoAcidCodes.addAll(aminoAcidCodeSequence.asList());
+                this.aminoAcidCodes.append(aminoAcidCodeSequence.codes);
                 return this;
             }
 
             @Override
             public Builder append(Collection<AminoAcidCode> aminoAcidCodes)
             {
-                this.aminoAcidCodes.addAll(aminoAcidCodes);
+                this.aminoAcidCodes.append(aminoAcidCodes);
                 return this;
             }
 
             @Override
             public Builder append(AminoAcidCode... aminoAcidCodes)
             {
-                this.aminoAcidCodes.addAll(Arrays.asList(aminoAcidCodes));
+                this.aminoAcidCodes.append(Arrays.asList(aminoAcidCodes));
                 return this;
             }
 
             @Override
             public AminoAcidCodeSequence build()
             {
-                return new AminoAcidCodeSequence(this.aminoAcidCodes);
+                return new AminoAcidCodeSequence(this.aminoAcidCodes.build());
             }
         };
     }
@@ -328,7 +381,7 @@ public class AminoAcidCodeSequence implements CodeSequence<AminoAcidCode>
      */
     public AminoAcidCodeSequence reverse()
     {
-        return valueOf(ListUtils.inverse(this.codesEnumList));
+        return valueOf(ListUtils.inverse(this.codes));
     }
 
 }
@@ -0,0 +1,217 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.genomics.translator.domain;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Bulk conversion between ASCII encoded text and {@link NucleicAcidCode}s or {@link AminoAcidCode}s based on the lookup tables behind
+ * {@link NucleicAcidCode#valueOf(byte)} and {@link AminoAcidCode#valueOf(byte)}.<br>
+ * <br>
+ * Invalid characters are decoded as null and their positions are returned together as a {@link BitSet}.
+ * 
+ * @author omnaest
+ */
+public class CodeCodecUtils
+{
+    private static final byte   NULL_CHARACTER                    = ' ';
+    private static final byte[] NUCLEIC_ACID_CHARACTER_OF_ORDINAL = new byte[NucleicAcidCode.values().length];
+    private static final byte[] AMINO_ACID_CHARACTER_OF_ORDINAL   = new byte[AminoAcidCode.values().length];
+    static
+    {
+        for (NucleicAcidCode code : NucleicAcidCode.values())
+        {
+            NUCLEIC_ACID_CHARACTER_OF_ORDINAL[code.ordinal()] = (byte) code.getRawCode()
+                                                                          .charValue();
+        }
+        for (AminoAcidCode code : AminoAcidCode.values())
+        {
+            AMINO_ACID_CHARACTER_OF_ORDINAL[code.ordinal()] = (byte) code.getCode()
+                                                                        .charValue();
+        }
+    }
+
+    protected CodeCodecUtils()
+    {
+    }
+
+    /**
+     * Decodes the given region of ASCII characters into {@link NucleicAcidCode}s which are appended to the given {@link PackedNucleicAcidCodeList.Builder}
+     * 
+     * @param source
+     * @param offset
+     * @param length
+     * @param sink
+     * @return the positions relative to the offset of all characters which are no {@link NucleicAcidCode} and which are appended as null
+     */
+    public static BitSet decodeNucleicAcidCodes(byte[] source, int offset, int length, PackedNucleicAcidCodeList.Builder sink)
+    {
+        BitSet invalidPositions = new BitSet();
+        for (int ii = 0; ii < length; ii++)
+        {
+            NucleicAcidCode code = NucleicAcidCode.valueOf(source[offset + ii]);
+            if (code == null)
+            {
+                invalidPositions.set(ii);
+            }
+            sink.append(code);
+        }
+        return invalidPositions;
+    }
+
+    /**
+     * Similar to {@link #decodeNucleicAcidCodes(byte[], int, int, PackedNucleicAcidCodeList.Builder)}
+     * 
+     * @param source
+     * @param offset
+     * @param length
+     * @param sink
+     * @return
+     */
+    public static BitSet decodeNucleicAcidCodes(CharSequence source, int offset, int length, PackedNucleicAcidCodeList.Builder sink)
+    {
+        BitSet invalidPositions = new BitSet();
+        for (int ii = 0; ii < length; ii++)
+        {
+            NucleicAcidCode code = NucleicAcidCode.valueOf(source.charAt(offset + ii));
+            if (code == null)
+            {
+                invalidPositions.set(ii);
+            }
+            sink.append(code);
+        }
+        return invalidPositions;
+    }
+
+    /**
+     * Decodes the given region of ASCII characters into {@link AminoAcidCode}s which are appended to the given {@link PackedAminoAcidCodeList.Builder}
+     * 
+     * @param source
+     * @param offset
+     * @param length
+     * @param sink
+     * @return the positions relative to the offset of all characters which are no {@link AminoAcidCode} and which are appended as null
+     */
+    public static BitSet decodeAminoAcidCodes(byte[] source, int offset, int length, PackedAminoAcidCodeList.Builder sink)
+    {
+        BitSet invalidPositions = new BitSet();
+        for (int ii = 0; ii < length; ii++)
+        {
+            AminoAcidCode code = AminoAcidCode.valueOf(source[offset + ii]);
+            if (code == null)
+            {
+                invalidPositions.set(ii);
+            }
+            sink.append(code);
+        }
+        return invalidPositions;
+    }
+
+    /**
+     * Similar to {@link #decodeAminoAcidCodes(byte[], int, int, PackedAminoAcidCodeList.Builder)}
+     * 
+     * @param source
+     * @param offset
+     * @param length
+     * @param sink
+     * @return
+     */
+    public static BitSet decodeAminoAcidCodes(CharSequence source, int offset, int length, PackedAminoAcidCodeList.Builder sink)
+    {
+        BitSet invalidPositions = new BitSet();
+        for (int ii = 0; ii < length; ii++)
+        {
+            AminoAcidCode code = AminoAcidCode.valueOf(source.charAt(offset + ii));
+            if (code == null)
+            {
+                invalidPositions.set(ii);
+            }
+            sink.append(code);
+        }
+        return invalidPositions;
+    }
+
+    /**
+     * Encodes the given region of {@link NucleicAcidCode}s as upper case ASCII characters into the given target, where null is encoded as a space
+     * 
+     * @param codes
+     * @param offset
+     * @param length
+     * @param target
+     * @param targetOffset
+     */
+    public static void encodeNucleicAcidCodes(List<NucleicAcidCode> codes, int offset, int length, byte[] target, int targetOffset)
+    {
+        if (codes instanceof PackedNucleicAcidCodeList)
+        {
+            PackedNucleicAcidCodeList packedCodes = (PackedNucleicAcidCodeList) codes;
+            for (int ii = 0; ii < length; ii++)
+            {
+                int ordinal = packedCodes.ordinalAt(offset + ii);
+                target[targetOffset + ii] = ordinal >= 0 ? NUCLEIC_ACID_CHARACTER_OF_ORDINAL[ordinal] : NULL_CHARACTER;
+            }
+        }
+        else
+        {
+            int ii = 0;
+            for (NucleicAcidCode code : codes.subList(offset, offset + length))
+            {
+                target[targetOffset + ii++] = code != null ? NUCLEIC_ACID_CHARACTER_OF_ORDINAL[code.ordinal()] : NULL_CHARACTER;
+            }
+        }
+    }
+
+    /**
+     * Encodes the given region of {@link AminoAcidCode}s as upper case ASCII characters into the given target, where null is encoded as a space
+     * 
+     * @param codes
+     * @param offset
+     * @param length
+     * @param target
+     * @param targetOffset
+     */
+    public static void encodeAminoAcidCodes(List<AminoAcidCode> codes, int offset, int length, byte[] target, int targetOffset)
+    {
+        int ii = 0;
+        for (AminoAcidCode code : codes.subList(offset, offset + length))
+        {
+            target[targetOffset + ii++] = code != null ? AMINO_ACID_CHARACTER_OF_ORDINAL[code.ordinal()] : NULL_CHARACTER;
+        }
+    }
+
+    /**
+     * Returns the upper case ASCII character of the given {@link NucleicAcidCode} or a space for null
+     * 
+     * @param code
+     * @return
+     */
+    public static byte encode(NucleicAcidCode code)
+    {
+        return code != null ? NUCLEIC_ACID_CHARACTER_OF_ORDINAL[code.ordinal()] : NULL_CHARACTER;
+    }
+
+    /**
+     * Returns the upper case ASCII character of the given {@link AminoAcidCode} or a space for null
+     * 
+     * @param code
+     * @return
+     */
+    public static byte encode(AminoAcidCode code)
+    {
+        return code != null ? AMINO_ACID_CHARACTER_OF_ORDINAL[code.ordinal()] : NULL_CHARACTER;
+    }
+}
@@ -21,7 +21,8 @@
  */
 package org.omnaest.genomics.translator.domain;
 
-import java.util.LinkedHashSet;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.Set;
 import java.util.function.Predicate;
 
@@ -50,10 +51,62 @@ public enum NucleicAcidCode implements Predicate<Character>
                                        .or(G)
                                        .or(T)
                                        .or(U)),
-    ___("gap of indeterminate length", '-', nucleicAcidCode -> "-".equals(nucleicAcidCode));
+    ___("gap of indeterminate length", '-', nucleicAcidCode -> '-' == nucleicAcidCode);
+
+    private static final int BASE_MASK_GAP = 32;
+
+    /**
+     * {@link NucleicAcidCode} per ASCII character, upper and lower case
+     */
+    private static final NucleicAcidCode[] ASCII_CODES = new NucleicAcidCode[128];
+    static
+    {
+        for (NucleicAcidCode nucleicAcidCode : values())
+        {
+            char code = nucleicAcidCode.getRawCode();
+            ASCII_CODES[code] = nucleicAcidCode;
+            ASCII_CODES[Character.toLowerCase(code)] = nucleicAcidCode;
+        }
+    }
+
+    /**
+     * Resolves the predicates once into bitmasks over the ASCII characters and over the bases A, C, G, T and U. This is done in the order of the
+     * ordinals, which allows the predicates to use {@link #test(Character)} since they only refer to codes declared before.
+     */
+    static
+    {
+        for (NucleicAcidCode nucleicAcidCode : values())
+        {
+            for (char character = 0; character < 128; character++)
+            {
+                if (nucleicAcidCode.predicate.test(character))
+                {
+                    nucleicAcidCode.asciiMasks[character >>> 6] |= 1L << character;
+                }
+            }
+            nucleicAcidCode.baseMask = nucleicAcidCode == ___ ? BASE_MASK_GAP
+                    : (nucleicAcidCode.test('A') ? 1 : 0) | (nucleicAcidCode.test('C') ? 2 : 0) | (nucleicAcidCode.test('G') ? 4 : 0)
+                            | (nucleicAcidCode.test('T') ? 8 : 0) | (nucleicAcidCode.test('U') ? 16 : 0);
+        }
+        for (NucleicAcidCode nucleicAcidCode : values())
+        {
+            Set<NucleicAcidCode> matchingCodes = EnumSet.noneOf(NucleicAcidCode.class);
+            for (NucleicAcidCode other : values())
+            {
+                if (other.test(nucleicAcidCode.getRawCode()))
+                {
+                    matchingCodes.add(other);
+                }
+            }
+            nucleicAcidCode.matchingCodes = Collections.unmodifiableSet(matchingCodes);
+        }
+    }
 
     private Predicate<Character> predicate;
     private Character            code;
+    private long[]               asciiMasks = new long[2];
+    private int                  baseMask;
+    private Set<NucleicAcidCode> matchingCodes;
 
     private NucleicAcidCode(String name, Character code, Predicate<Character> predicate)
     {
@@ -65,7 +118,31 @@ public enum NucleicAcidCode implements Predicate<Character>
     @Override
     public boolean test(Character t)
     {
-        return this.predicate.test(t);
+        return this.test(t.charValue());
+    }
+
+    /**
+     * Similar to {@link #test(Character)}
+     * 
+     * @param character
+     * @return
+     */
+    public boolean test(char character)
+    {
+        return character < 128 ? (this.asciiMasks[character >>> 6] & (1L << character)) != 0 : this.predicate.test(character);
+    }
+
+    /**
+     * Returns true if both {@link NucleicAcidCode}s can stand for the same base, e.g. {@link #R} and {@link #A} or {@link #R} and {@link #N}, but not
+     * {@link #R} and {@link #Y}. A gap only matches a gap and null never matches.
+     * 
+     * @param nucleicAcidCode
+     * @param otherNucleicAcidCode
+     * @return
+     */
+    public static boolean matches(NucleicAcidCode nucleicAcidCode, NucleicAcidCode otherNucleicAcidCode)
+    {
+        return nucleicAcidCode != null && otherNucleicAcidCode != null && (nucleicAcidCode.baseMask & otherNucleicAcidCode.baseMask) != 0;
     }
 
     /**
@@ -83,40 +160,50 @@ public enum NucleicAcidCode implements Predicate<Character>
      * <br>
      * If no matching {@link NucleicAcidCode} is found, this returns null
      *
+     * @see #valueOf(char)
      * @param code
      * @return
      */
     public static NucleicAcidCode valueOf(Character code)
     {
-        NucleicAcidCode retval = null;
-        for (NucleicAcidCode nucleicAcidCode : NucleicAcidCode.values())
+        return code != null ? valueOf(code.charValue()) : null;
+    }
+
+    /**
+     * Returns the matching {@link NucleicAcidCode} for the given code character, ignoring the case, or null if no {@link NucleicAcidCode} matches
+     * 
+     * @param code
+     * @return
+     */
+    public static NucleicAcidCode valueOf(char code)
+    {
+        if (code < ASCII_CODES.length)
         {
-            if (nucleicAcidCode.getRawCode()
-                               .equals(Character.toUpperCase(code)))
-            {
-                retval = nucleicAcidCode;
-                break;
-            }
+            return ASCII_CODES[code];
         }
-        return retval;
+        char upperCaseCode = Character.toUpperCase(code);
+        return upperCaseCode < ASCII_CODES.length ? ASCII_CODES[upperCaseCode] : null;
+    }
+
+    /**
+     * Returns the matching {@link NucleicAcidCode} for the given ASCII encoded code, ignoring the case, or null if no {@link NucleicAcidCode} matches
+     * 
+     * @param code
+     * @return
+     */
+    public static NucleicAcidCode valueOf(byte code)
+    {
+        return code >= 0 ? ASCII_CODES[code] : null;
     }
 
     /**
-     * Returns a further {@link Set} of all fuzzy matching {@link NucleicAcidCode}s
+     * Returns a further {@link Set} of all fuzzy matching {@link NucleicAcidCode}s. The returned {@link Set} is immutable.
      *
      * @param code
      * @return
      */
     public Set<NucleicAcidCode> matchingCodes()
     {
-        Set<NucleicAcidCode> retval = new LinkedHashSet<>();
-        for (NucleicAcidCode nucleicAcidCode : NucleicAcidCode.values())
-        {
-            if (nucleicAcidCode.test(this.getRawCode()))
-            {
-                retval.add(nucleicAcidCode);
-            }
-        }
-        return retval;
+        return this.matchingCodes;
     }
 }
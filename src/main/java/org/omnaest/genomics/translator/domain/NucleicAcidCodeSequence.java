@@ -33,26 +33,25 @@
 */
 package org.omnaest.genomics.translator.domain;
 
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.RandomAccess;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
-import org.apache.commons.lang.ArrayUtils;
 import org.omnaest.genomics.translator.ComplementaryBasePairUtils.ComplementationType;
 import org.omnaest.genomics.translator.TranslationUtils;
-import org.omnaest.utils.ListUtils;
-import org.omnaest.utils.ObjectUtils;
-import org.omnaest.utils.list.enumeration.CompressableEnumList;
-import org.omnaest.utils.list.enumeration.ConstantCompressableEnumList;
 
 /**
- * Storage of a sequence of {@link NucleicAcidCode}s
+ * Storage of a sequence of {@link NucleicAcidCode}s<br>
+ * <br>
+ * The {@link NucleicAcidCode}s are held within a {@link PackedNucleicAcidCodeList} which uses 2 bits per canonical base.
  * 
  * @see #usingInMemoryCompression()
  * @see #valueOf(String)
@@ -63,16 +62,26 @@ import org.omnaest.utils.list.enumeration.ConstantCompressableEnumList;
  */
 public class NucleicAcidCodeSequence implements Iterable<NucleicAcidCode>, CodeSequence<NucleicAcidCode>
 {
-    private CompressableEnumList<NucleicAcidCode> codesEnumList;
+    private List<NucleicAcidCode> codes;
+    private boolean               inMemoryCompression = false;
 
     public NucleicAcidCodeSequence(Collection<NucleicAcidCode> nucleicAcidCodes)
+    {
+        this(PackedNucleicAcidCodeList.valueOf(nucleicAcidCodes), false);
+    }
+
+    private NucleicAcidCodeSequence(List<NucleicAcidCode> codes, boolean inMemoryCompression)
     {
         super();
-        this.codesEnumList = new ConstantCompressableEnumList<>(NucleicAcidCode.class, nucleicAcidCodes);
+        this.codes = codes;
+        this.inMemoryCompression = inMemoryCompression;
     }
 
     /**
      * Uses an {@link BitSet} internally to store the {@link NucleicAcidCode} sequence, which uses only as much bits as needed per {@link NucleicAcidCode}
+     * <br>
+     * <br>
+     * Since the {@link NucleicAcidCode}s are always stored packed, this is only kept as flag which is passed on to derived sequences.
      * 
      * @see #usingInMemoryCompression(boolean)
      * @return
@@ -89,33 +98,56 @@ public class NucleicAcidCodeSequence implements Iterable<NucleicAcidCode>, CodeS
      */
     public NucleicAcidCodeSequence usingInMemoryCompression(boolean active)
     {
-        this.codesEnumList.usingInMemoryCompression(active);
+        this.inMemoryCompression = active;
         return this;
     }
 
     public AminoAcidCodeSequence asAminoAcidCodeSequence()
     {
-        return new AminoAcidCodeSequence(TranslationUtils.transform(this.codesEnumList.stream())
+        return new AminoAcidCodeSequence(TranslationUtils.transform(this.codes.stream())
                                                          .map(frames -> frames.getCodeOfFirstFrame())
                                                          .collect(Collectors.toList()));
     }
 
     public Stream<NucleicAcidCode> stream()
     {
-        return this.codesEnumList.stream();
+        return this.codes.stream();
     }
 
     @Override
     public Iterator<NucleicAcidCode> iterator()
     {
-        return this.codesEnumList.iterator();
+        return this.codes.iterator();
+    }
+
+    /**
+     * Returns the {@link NucleicAcidCode} at the given index
+     * 
+     * @param index
+     * @return
+     */
+    public NucleicAcidCode get(int index)
+    {
+        return this.codes.get(index);
+    }
+
+    /**
+     * Returns a view of the {@link NucleicAcidCode}s from the given index inclusive to the given index exclusive
+     * 
+     * @param fromIndex
+     * @param toIndex
+     * @return
+     */
+    public NucleicAcidCodeSequence subSequence(int fromIndex, int toIndex)
+    {
+        return new NucleicAcidCodeSequence(this.codes.subList(fromIndex, toIndex), this.inMemoryCompression);
     }
 
     public static NucleicAcidCodeSequence valueOf(String codes)
     {
-        return new NucleicAcidCodeSequence(Arrays.stream(ArrayUtils.toObject(codes.toCharArray()))
-                                                 .map(code -> NucleicAcidCode.valueOf(code))
-                                                 .collect(Collectors.toList()));
+        PackedNucleicAcidCodeList.Builder builder = PackedNucleicAcidCodeList.builder(codes.length());
+        CodeCodecUtils.decodeNucleicAcidCodes(codes, 0, codes.length(), builder);
+        return new NucleicAcidCodeSequence(builder.build(), false);
     }
 
     public static NucleicAcidCodeSequence valueOf(Collection<NucleicAcidCode> sequence)
@@ -123,14 +155,28 @@ public class NucleicAcidCodeSequence implements Iterable<NucleicAcidCode>, CodeS
         return new NucleicAcidCodeSequence(sequence);
     }
 
+    /**
+     * Returns a {@link NucleicAcidCodeSequence} which is backed directly by the given {@link List} without copying it. This allows to wrap e.g. memory
+     * mapped sequences, the given {@link List} must not be modified afterwards.
+     * 
+     * @param codes
+     * @return
+     */
+    public static NucleicAcidCodeSequence viewOf(List<NucleicAcidCode> codes)
+    {
+        return new NucleicAcidCodeSequence(codes, false);
+    }
+
     public static NucleicAcidCodeSequence valueOf(Stream<NucleicAcidCode> sequence)
     {
-        return new NucleicAcidCodeSequence(sequence.collect(Collectors.toList()));
+        PackedNucleicAcidCodeList.Builder builder = PackedNucleicAcidCodeList.builder();
+        sequence.forEachOrdered(builder::append);
+        return new NucleicAcidCodeSequence(builder.build(), false);
     }
 
     public NucleicAcidCode[] toArray()
     {
-        return this.codesEnumList.toArray(new NucleicAcidCode[this.codesEnumList.size()]);
+        return this.codes.toArray(new NucleicAcidCode[this.codes.size()]);
     }
 
     /**
@@ -140,13 +186,13 @@ public class NucleicAcidCodeSequence implements Iterable<NucleicAcidCode>, CodeS
      */
     public CodeAndPositionSequence<NucleicAcidCode> asCodeAndPositionSequence()
     {
-        return CodeAndPositionSequence.valueOf(IntStream.range(0, this.codesEnumList.size())
-                                                        .mapToObj(position -> new CodeAndPosition<>(this.codesEnumList.get(position), position)));
+        return CodeAndPositionSequence.valueOf(IntStream.range(0, this.codes.size())
+                                                        .mapToObj(position -> new CodeAndPosition<>(this.codes.get(position), position)));
     }
 
     public List<NucleicAcidCode> toList()
     {
-        return new ArrayList<>(this.codesEnumList);
+        return new ArrayList<>(this.codes);
     }
 
     /**
@@ -155,11 +201,9 @@ public class NucleicAcidCodeSequence implements Iterable<NucleicAcidCode>, CodeS
     @Override
     public String toString()
     {
-        return this.toList()
-                   .stream()
-                   .map(code -> ObjectUtils.getOrDefaultIfNotNull(code, c -> code.getRawCode(), c -> ' '))
-                   .map(String::valueOf)
-                   .collect(Collectors.joining());
+        byte[] characters = new byte[this.codes.size()];
+        CodeCodecUtils.encodeNucleicAcidCodes(this.codes, 0, characters.length, characters, 0);
+        return new String(characters, StandardCharsets.US_ASCII);
     }
 
     /**
@@ -169,18 +213,137 @@ public class NucleicAcidCodeSequence implements Iterable<NucleicAcidCode>, CodeS
      */
     public NucleicAcidCodeSequence inverse()
     {
-        return valueOf(ListUtils.inverse(this.codesEnumList)).usingInMemoryCompression(this.codesEnumList.isInMemoryCompressionActive());
+        PackedNucleicAcidCodeList.Builder builder = PackedNucleicAcidCodeList.builder(this.codes.size());
+        for (int ii = this.codes.size() - 1; ii >= 0; ii--)
+        {
+            builder.append(this.codes.get(ii));
+        }
+        return new NucleicAcidCodeSequence(builder.build(), this.inMemoryCompression);
     }
 
     public int size()
     {
-        return this.codesEnumList.size();
+        return this.codes.size();
+    }
+
+    /**
+     * Returns true if this {@link NucleicAcidCodeSequence} contains a {@link NucleicAcidCode#___} or a null value. For packed {@link NucleicAcidCode}s only
+     * the runs of the sparse codes are checked, so ambiguity codes like {@link NucleicAcidCode#N} do not cause a scan of all codes.
+     * 
+     * @return
+     */
+    public boolean containsGapOrNull()
+    {
+        if (this.codes instanceof PackedNucleicAcidCodeList)
+        {
+            return ((PackedNucleicAcidCodeList) this.codes).containsGapOrNull();
+        }
+        return this.codes.stream()
+                         .anyMatch(code -> code == null || code == NucleicAcidCode.___);
     }
 
+    /**
+     * Returns true if this {@link NucleicAcidCodeSequence} contains any {@link NucleicAcidCode#U}, which marks it as RNA
+     * 
+     * @return
+     */
+    public boolean containsUracil()
+    {
+        if (this.codes instanceof PackedNucleicAcidCodeList)
+        {
+            PackedNucleicAcidCodeList packedCodes = (PackedNucleicAcidCodeList) this.codes;
+            if (packedCodes.getThymineOrUracil() == NucleicAcidCode.U)
+            {
+                return true;
+            }
+            else if (!packedCodes.hasSparseCodes())
+            {
+                return false;
+            }
+        }
+        return this.codes.stream()
+                         .anyMatch(code -> code == NucleicAcidCode.U);
+    }
+
+    /**
+     * Returns the complementary strand in the same order, which is computed word wise for the packed {@link NucleicAcidCode}s
+     * 
+     * @see #asReverseComplement(ComplementationType)
+     * @param complementationType
+     * @return
+     */
     public NucleicAcidCodeSequence asReverseStrand(ComplementationType complementationType)
     {
-        return TranslationUtils.reverseStrand(this, complementationType)
-                               .usingInMemoryCompression(this.codesEnumList.isInMemoryCompressionActive());
+        if (this.codes instanceof PackedNucleicAcidCodeList)
+        {
+            return new NucleicAcidCodeSequence(((PackedNucleicAcidCodeList) this.codes).complement(complementationType), this.inMemoryCompression);
+        }
+        PackedNucleicAcidCodeList.Builder builder = PackedNucleicAcidCodeList.builder(this.codes.size());
+        for (NucleicAcidCode code : this.codes)
+        {
+            builder.append(complementationType.getComplement(code));
+        }
+        return new NucleicAcidCodeSequence(builder.build(), this.inMemoryCompression);
+    }
+
+    /**
+     * Returns the reverse complement of this {@link NucleicAcidCodeSequence}, which is equal to {@link #inverse()} followed by
+     * {@link #asReverseStrand(ComplementationType)} but is computed word wise for the packed {@link NucleicAcidCode}s
+     * 
+     * @see #asReverseComplementView(ComplementationType)
+     * @param complementationType
+     * @return
+     */
+    public NucleicAcidCodeSequence asReverseComplement(ComplementationType complementationType)
+    {
+        if (this.codes instanceof PackedNucleicAcidCodeList)
+        {
+            return new NucleicAcidCodeSequence(((PackedNucleicAcidCodeList) this.codes).reverseComplement(complementationType),
+                                               this.inMemoryCompression);
+        }
+        PackedNucleicAcidCodeList.Builder builder = PackedNucleicAcidCodeList.builder(this.codes.size());
+        for (int ii = this.codes.size() - 1; ii >= 0; ii--)
+        {
+            builder.append(complementationType.getComplement(this.codes.get(ii)));
+        }
+        return new NucleicAcidCodeSequence(builder.build(), this.inMemoryCompression);
+    }
+
+    /**
+     * Returns a view of the reverse complement of this {@link NucleicAcidCodeSequence}, which is equal to {@link #inverse()} followed by
+     * {@link #asReverseStrand(ComplementationType)}, but is resolved lazily without copying any {@link NucleicAcidCode}
+     * 
+     * @param complementationType
+     * @return
+     */
+    public NucleicAcidCodeSequence asReverseComplementView(ComplementationType complementationType)
+    {
+        return new NucleicAcidCodeSequence(new ReverseComplementList(this.codes, complementationType), this.inMemoryCompression);
+    }
+
+    private static class ReverseComplementList extends AbstractList<NucleicAcidCode> implements RandomAccess
+    {
+        private final List<NucleicAcidCode> codes;
+        private final ComplementationType   complementationType;
+
+        public ReverseComplementList(List<NucleicAcidCode> codes, ComplementationType complementationType)
+        {
+            super();
+            this.codes = codes;
+            this.complementationType = complementationType;
+        }
+
+        @Override
+        public NucleicAcidCode get(int index)
+        {
+            return this.complementationType.getComplement(this.codes.get(this.codes.size() - 1 - index));
+        }
+
+        @Override
+        public int size()
+        {
+            return this.codes.size();
+        }
     }
 
     @Override
@@ -188,7 +351,7 @@ public class NucleicAcidCodeSequence implements Iterable<NucleicAcidCode>, CodeS
     {
         final int prime = 31;
         int result = 1;
-        result = prime * result + ((this.codesEnumList == null) ? 0 : this.codesEnumList.hashCode());
+        result = prime * result + ((this.codes == null) ? 0 : this.codes.hashCode());
         return result;
     }
 
@@ -208,14 +371,14 @@ public class NucleicAcidCodeSequence implements Iterable<NucleicAcidCode>, CodeS
             return false;
         }
         NucleicAcidCodeSequence other = (NucleicAcidCodeSequence) obj;
-        if (this.codesEnumList == null)
+        if (this.codes == null)
         {
-            if (other.codesEnumList != null)
+            if (other.codes != null)
             {
                 return false;
             }
         }
-        else if (!this.codesEnumList.equals(other.codesEnumList))
+        else if (!this.codes.equals(other.codes))
         {
             return false;
         }
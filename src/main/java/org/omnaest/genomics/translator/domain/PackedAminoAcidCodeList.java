@@ -0,0 +1,490 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.genomics.translator.domain;
+
+import java.nio.LongBuffer;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable {@link java.util.List} of {@link AminoAcidCode}s which stores each code with 5 bits within a long[], 12 codes per long.<br>
+ * <br>
+ * A code is stored as its {@link AminoAcidCode#ordinal()} + 1 and null as 31, so the unused bits are always 0 and a {@link PackedAminoAcidCodeList} can
+ * be restored from its words alone.
+ * 
+ * @see #builder()
+ * @see #valueOf(Collection)
+ * @see #valueOf(long[])
+ * @author omnaest
+ */
+public class PackedAminoAcidCodeList extends AbstractList<AminoAcidCode> implements RandomAccess
+{
+    private static final AminoAcidCode[] CODES          = AminoAcidCode.values();
+    private static final int             CODES_PER_WORD = 12;
+    private static final int             BITS_PER_CODE  = 5;
+    private static final int             NULL_VALUE     = 31;
+    private static final long            VALUE_MASK     = 0x1F;
+
+    private final long[] words;
+    private final int    size;
+
+    private int hashCode;
+
+    protected PackedAminoAcidCodeList(long[] words, int size)
+    {
+        super();
+        this.words = words;
+        this.size = size;
+    }
+
+    public static interface Builder
+    {
+        public Builder append(AminoAcidCode code);
+
+        public Builder append(Iterable<AminoAcidCode> codes);
+
+        /**
+         * Returns the number of {@link AminoAcidCode}s appended so far
+         * 
+         * @return
+         */
+        public int size();
+
+        public PackedAminoAcidCodeList build();
+    }
+
+    public static Builder builder()
+    {
+        return builder(CODES_PER_WORD * 16);
+    }
+
+    /**
+     * Returns a new {@link Builder} with the given initial capacity in number of {@link AminoAcidCode}s
+     * 
+     * @param capacity
+     * @return
+     */
+    public static Builder builder(int capacity)
+    {
+        return new Builder()
+        {
+            private long[] words = new long[Math.max(1, numberOfWords(capacity))];
+            private int    size  = 0;
+
+            @Override
+            public Builder append(AminoAcidCode code)
+            {
+                int wordIndex = this.size / CODES_PER_WORD;
+                if (wordIndex >= this.words.length)
+                {
+                    this.words = Arrays.copyOf(this.words, this.words.length * 2);
+                }
+                this.words[wordIndex] |= toValue(code) << (BITS_PER_CODE * (this.size % CODES_PER_WORD));
+                this.size++;
+                return this;
+            }
+
+            @Override
+            public Builder append(Iterable<AminoAcidCode> codes)
+            {
+                for (AminoAcidCode code : codes)
+                {
+                    this.append(code);
+                }
+                return this;
+            }
+
+            @Override
+            public int size()
+            {
+                return this.size;
+            }
+
+            @Override
+            public PackedAminoAcidCodeList build()
+            {
+                return new PackedAminoAcidCodeList(Arrays.copyOf(this.words, numberOfWords(this.size)), this.size);
+            }
+        };
+    }
+
+    public static PackedAminoAcidCodeList valueOf(Collection<AminoAcidCode> codes)
+    {
+        if (codes instanceof PackedAminoAcidCodeList)
+        {
+            return (PackedAminoAcidCodeList) codes;
+        }
+        return builder(codes.size()).append(codes)
+                                    .build();
+    }
+
+    /**
+     * Returns a {@link PackedAminoAcidCodeList} of the given words like returned by {@link #toWords()}. Trailing words which are 0 can be omitted.
+     * 
+     * @param words
+     * @return
+     */
+    public static PackedAminoAcidCodeList valueOf(long[] words)
+    {
+        int numberOfWords = words.length;
+        while (numberOfWords > 0 && words[numberOfWords - 1] == 0)
+        {
+            numberOfWords--;
+        }
+        int size = 0;
+        if (numberOfWords > 0)
+        {
+            int highestBit = 63 - Long.numberOfLeadingZeros(words[numberOfWords - 1]);
+            size = (numberOfWords - 1) * CODES_PER_WORD + highestBit / BITS_PER_CODE + 1;
+        }
+        return new PackedAminoAcidCodeList(Arrays.copyOf(words, numberOfWords), size);
+    }
+
+    private static int numberOfWords(int size)
+    {
+        return (size + CODES_PER_WORD - 1) / CODES_PER_WORD;
+    }
+
+    private static long toValue(AminoAcidCode code)
+    {
+        return code != null ? code.ordinal() + 1 : NULL_VALUE;
+    }
+
+    @Override
+    public int size()
+    {
+        return this.size;
+    }
+
+    @Override
+    public AminoAcidCode get(int index)
+    {
+        if (index < 0 || index >= this.size)
+        {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        }
+        int value = this.valueAt(index);
+        return value != NULL_VALUE ? CODES[value - 1] : null;
+    }
+
+    private int valueAt(int index)
+    {
+        return (int) ((this.words[index / CODES_PER_WORD] >>> (BITS_PER_CODE * (index % CODES_PER_WORD))) & VALUE_MASK);
+    }
+
+    /**
+     * Returns the index of the first occurrence of the given pattern at or after the given index, or -1 if there is none.<br>
+     * <br>
+     * Patterns of up to 64 codes are searched bit parallel with Shift-And, longer patterns with the Two-Way algorithm, so both run in linear time on the
+     * packed words.
+     * 
+     * @param pattern
+     * @param fromIndex
+     * @return
+     */
+    public int find(PackedAminoAcidCodeList pattern, int fromIndex)
+    {
+        int[] retval = new int[] { -1 };
+        this.search(pattern, fromIndex, index ->
+        {
+            retval[0] = index;
+            return false;
+        });
+        return retval[0];
+    }
+
+    /**
+     * Returns the indexes of all, possibly overlapping, occurrences of the given pattern in ascending order
+     * 
+     * @see #find(PackedAminoAcidCodeList, int)
+     * @param pattern
+     * @return
+     */
+    public int[] findAll(PackedAminoAcidCodeList pattern)
+    {
+        IntStream.Builder retval = IntStream.builder();
+        this.search(pattern, 0, index ->
+        {
+            retval.accept(index);
+            return true;
+        });
+        return retval.build()
+                     .toArray();
+    }
+
+    /**
+     * Calls the given {@link IntPredicate} with the index of each match until it returns false
+     */
+    private void search(PackedAminoAcidCodeList pattern, int fromIndex, IntPredicate matchConsumer)
+    {
+        int start = Math.max(0, fromIndex);
+        if (pattern.size == 0)
+        {
+            for (int index = start; index <= this.size; index++)
+            {
+                if (!matchConsumer.test(index))
+                {
+                    return;
+                }
+            }
+        }
+        else if (pattern.size <= 64)
+        {
+            this.searchShiftAnd(pattern, start, matchConsumer);
+        }
+        else
+        {
+            this.searchTwoWay(pattern, start, matchConsumer);
+        }
+    }
+
+    private void searchShiftAnd(PackedAminoAcidCodeList pattern, int start, IntPredicate matchConsumer)
+    {
+        long[] masks = new long[32];
+        for (int ii = 0; ii < pattern.size; ii++)
+        {
+            masks[pattern.valueAt(ii)] |= 1L << ii;
+        }
+        long matchBit = 1L << (pattern.size - 1);
+
+        long state = 0;
+        int index = start;
+        while (index < this.size)
+        {
+            long word = this.words[index / CODES_PER_WORD] >>> (BITS_PER_CODE * (index % CODES_PER_WORD));
+            int end = Math.min(this.size, (index / CODES_PER_WORD + 1) * CODES_PER_WORD);
+            for (; index < end; index++, word >>>= BITS_PER_CODE)
+            {
+                state = ((state << 1) | 1L) & masks[(int) (word & VALUE_MASK)];
+                if ((state & matchBit) != 0 && !matchConsumer.test(index - pattern.size + 1))
+                {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Two-Way string matching of Crochemore and Perrin, which uses constant extra space and at most 2n comparisons
+     */
+    private void searchTwoWay(PackedAminoAcidCodeList pattern, int start, IntPredicate matchConsumer)
+    {
+        int m = pattern.size;
+        int[] x = new int[m];
+        for (int ii = 0; ii < m; ii++)
+        {
+            x[ii] = pattern.valueAt(ii);
+        }
+
+        int[] maximalSuffix = maximalSuffix(x, false);
+        int[] maximalSuffixReversed = maximalSuffix(x, true);
+        int criticalPosition = maximalSuffix[0] > maximalSuffixReversed[0] ? maximalSuffix[0] : maximalSuffixReversed[0];
+        int period = maximalSuffix[0] > maximalSuffixReversed[0] ? maximalSuffix[1] : maximalSuffixReversed[1];
+
+        boolean periodic = criticalPosition + 1 + period <= m;
+        for (int ii = 0; periodic && ii <= criticalPosition; ii++)
+        {
+            periodic = x[ii] == x[ii + period];
+        }
+
+        int j = start;
+        if (periodic)
+        {
+            int memory = -1;
+            while (j <= this.size - m)
+            {
+                int i = Math.max(criticalPosition, memory) + 1;
+                while (i < m && x[i] == this.valueAt(i + j))
+                {
+                    i++;
+                }
+                if (i >= m)
+                {
+                    i = criticalPosition;
+                    while (i > memory && x[i] == this.valueAt(i + j))
+                    {
+                        i--;
+                    }
+                    if (i <= memory && !matchConsumer.test(j))
+                    {
+                        return;
+                    }
+                    j += period;
+                    memory = m - period - 1;
+                }
+                else
+                {
+                    j += i - criticalPosition;
+                    memory = -1;
+                }
+            }
+        }
+        else
+        {
+            period = Math.max(criticalPosition + 1, m - criticalPosition - 1) + 1;
+            while (j <= this.size - m)
+            {
+                int i = criticalPosition + 1;
+                while (i < m && x[i] == this.valueAt(i + j))
+                {
+                    i++;
+                }
+                if (i >= m)
+                {
+                    i = criticalPosition;
+                    while (i >= 0 && x[i] == this.valueAt(i + j))
+                    {
+                        i--;
+                    }
+                    if (i < 0 && !matchConsumer.test(j))
+                    {
+                        return;
+                    }
+                    j += period;
+                }
+                else
+                {
+                    j += i - criticalPosition;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the start - 1 and the period of the maximal suffix of the given values for the natural or the reversed order
+     */
+    private static int[] maximalSuffix(int[] x, boolean reversed)
+    {
+        int maximalSuffix = -1;
+        int j = 0;
+        int k = 1;
+        int period = 1;
+        while (j + k < x.length)
+        {
+            int a = x[j + k];
+            int b = x[maximalSuffix + k];
+            if (reversed ? a > b : a < b)
+            {
+                j += k;
+                k = 1;
+                period = j - maximalSuffix;
+            }
+            else if (a == b)
+            {
+                if (k != period)
+                {
+                    k++;
+                }
+                else
+                {
+                    j += period;
+                    k = 1;
+                }
+            }
+            else
+            {
+                maximalSuffix = j;
+                j = maximalSuffix + 1;
+                k = 1;
+                period = 1;
+            }
+        }
+        return new int[] { maximalSuffix, period };
+    }
+
+    /**
+     * Returns a copy of the packed words
+     * 
+     * @return
+     */
+    public long[] toWords()
+    {
+        return this.words.clone();
+    }
+
+    /**
+     * Returns the number of packed words
+     * 
+     * @return
+     */
+    public int getNumberOfWords()
+    {
+        return this.words.length;
+    }
+
+    /**
+     * Returns the packed word at the given index without copying the words like {@link #toWords()}
+     * 
+     * @param index
+     * @return
+     */
+    public long getWord(int index)
+    {
+        return this.words[index];
+    }
+
+    /**
+     * Writes all packed words into the given {@link LongBuffer} by a single bulk put
+     * 
+     * @param buffer
+     */
+    public void writeWordsTo(LongBuffer buffer)
+    {
+        buffer.put(this.words);
+    }
+
+    /**
+     * Returns the hash code of the packed words, which is cheaper than {@link #hashCode()} but not compatible with {@link java.util.List#hashCode()}
+     * 
+     * @return
+     */
+    public int hashCodeOfWords()
+    {
+        return Arrays.hashCode(this.words);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int result = this.hashCode;
+        if (result == 0)
+        {
+            result = super.hashCode();
+            this.hashCode = result;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj)
+        {
+            return true;
+        }
+        if (obj instanceof PackedAminoAcidCodeList)
+        {
+            PackedAminoAcidCodeList other = (PackedAminoAcidCodeList) obj;
+            return this.size == other.size && Arrays.equals(this.words, other.words);
+        }
+        return super.equals(obj);
+    }
+
+}
@@ -0,0 +1,531 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.genomics.translator.domain;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+import org.omnaest.genomics.translator.ComplementaryBasePairUtils.ComplementationType;
+
+/**
+ * Immutable {@link java.util.List} of {@link NucleicAcidCode}s which stores the canonical bases {@link NucleicAcidCode#A}, {@link NucleicAcidCode#C},
+ * {@link NucleicAcidCode#G} and {@link NucleicAcidCode#T} (or {@link NucleicAcidCode#U}) with 2 bits per base within a long[].<br>
+ * <br>
+ * All other codes like the IUPAC ambiguity codes, gaps or null values are rare and are stored as runs of equal codes within a sparse side structure.
+ * Which of {@link NucleicAcidCode#T} and {@link NucleicAcidCode#U} is held by the 2 bit code is determined by the first of both which is appended, the
+ * other one is handled like an ambiguity code.
+ * 
+ * @see #builder()
+ * @see #valueOf(Collection)
+ * @author omnaest
+ */
+public class PackedNucleicAcidCodeList extends AbstractList<NucleicAcidCode> implements RandomAccess
+{
+    private static final NucleicAcidCode[] CODES          = NucleicAcidCode.values();
+    private static final int               BASES_PER_WORD = 32;
+    private static final byte              NULL_ORDINAL   = -1;
+
+    private final long[]          words;
+    private final int             size;
+    private final NucleicAcidCode thymineOrUracil;
+
+    private final int[]  runStarts;
+    private final int[]  runEnds;
+    private final byte[] runOrdinals;
+    private final int    runCount;
+
+    private int hashCode;
+
+    protected PackedNucleicAcidCodeList(long[] words, int size, NucleicAcidCode thymineOrUracil, int[] runStarts, int[] runEnds, byte[] runOrdinals,
+                                        int runCount)
+    {
+        super();
+        this.words = words;
+        this.size = size;
+        this.thymineOrUracil = thymineOrUracil;
+        this.runStarts = runStarts;
+        this.runEnds = runEnds;
+        this.runOrdinals = runOrdinals;
+        this.runCount = runCount;
+    }
+
+    public static interface Builder
+    {
+        public Builder append(NucleicAcidCode code);
+
+        public Builder append(Iterable<NucleicAcidCode> codes);
+
+        /**
+         * Returns the number of {@link NucleicAcidCode}s appended so far
+         * 
+         * @return
+         */
+        public int size();
+
+        public PackedNucleicAcidCodeList build();
+    }
+
+    public static Builder builder()
+    {
+        return builder(BASES_PER_WORD * 16);
+    }
+
+    /**
+     * Returns a new {@link Builder} with the given initial capacity in number of {@link NucleicAcidCode}s
+     * 
+     * @param capacity
+     * @return
+     */
+    public static Builder builder(int capacity)
+    {
+        return new Builder()
+        {
+            private long[]          words           = new long[Math.max(1, (capacity + BASES_PER_WORD - 1) / BASES_PER_WORD)];
+            private int             size            = 0;
+            private NucleicAcidCode thymineOrUracil = null;
+
+            private int[]  runStarts   = new int[4];
+            private int[]  runEnds     = new int[4];
+            private byte[] runOrdinals = new byte[4];
+            private int    runCount    = 0;
+
+            @Override
+            public Builder append(NucleicAcidCode code)
+            {
+                int index = this.size;
+                int wordIndex = index >>> 5;
+                if (wordIndex >= this.words.length)
+                {
+                    this.words = Arrays.copyOf(this.words, this.words.length * 2);
+                }
+
+                if (this.thymineOrUracil == null && (code == NucleicAcidCode.T || code == NucleicAcidCode.U))
+                {
+                    this.thymineOrUracil = code;
+                }
+
+                int bits = toBits(code, this.thymineOrUracil);
+                if (bits >= 0)
+                {
+                    this.words[wordIndex] |= ((long) bits) << ((index & 31) << 1);
+                }
+                else
+                {
+                    this.appendToRun(index, code != null ? (byte) code.ordinal() : NULL_ORDINAL);
+                }
+
+                this.size++;
+                return this;
+            }
+
+            private void appendToRun(int index, byte ordinal)
+            {
+                int lastRun = this.runCount - 1;
+                if (lastRun >= 0 && this.runEnds[lastRun] == index && this.runOrdinals[lastRun] == ordinal)
+                {
+                    this.runEnds[lastRun]++;
+                }
+                else
+                {
+                    if (this.runCount >= this.runStarts.length)
+                    {
+                        int capacity = this.runStarts.length * 2;
+                        this.runStarts = Arrays.copyOf(this.runStarts, capacity);
+                        this.runEnds = Arrays.copyOf(this.runEnds, capacity);
+                        this.runOrdinals = Arrays.copyOf(this.runOrdinals, capacity);
+                    }
+                    this.runStarts[this.runCount] = index;
+                    this.runEnds[this.runCount] = index + 1;
+                    this.runOrdinals[this.runCount] = ordinal;
+                    this.runCount++;
+                }
+            }
+
+            @Override
+            public Builder append(Iterable<NucleicAcidCode> codes)
+            {
+                for (NucleicAcidCode code : codes)
+                {
+                    this.append(code);
+                }
+                return this;
+            }
+
+            @Override
+            public int size()
+            {
+                return this.size;
+            }
+
+            @Override
+            public PackedNucleicAcidCodeList build()
+            {
+                int numberOfWords = (this.size + BASES_PER_WORD - 1) / BASES_PER_WORD;
+                return new PackedNucleicAcidCodeList(Arrays.copyOf(this.words, numberOfWords), this.size,
+                                                     this.thymineOrUracil != null ? this.thymineOrUracil : NucleicAcidCode.T,
+                                                     Arrays.copyOf(this.runStarts, this.runCount), Arrays.copyOf(this.runEnds, this.runCount),
+                                                     Arrays.copyOf(this.runOrdinals, this.runCount), this.runCount);
+            }
+        };
+    }
+
+    public static PackedNucleicAcidCodeList valueOf(Collection<NucleicAcidCode> codes)
+    {
+        if (codes instanceof PackedNucleicAcidCodeList)
+        {
+            return (PackedNucleicAcidCodeList) codes;
+        }
+        return builder(codes.size()).append(codes)
+                                    .build();
+    }
+
+    private static int toBits(NucleicAcidCode code, NucleicAcidCode thymineOrUracil)
+    {
+        if (code == NucleicAcidCode.A)
+        {
+            return 0;
+        }
+        else if (code == NucleicAcidCode.C)
+        {
+            return 1;
+        }
+        else if (code == NucleicAcidCode.G)
+        {
+            return 2;
+        }
+        else if (code != null && code == thymineOrUracil)
+        {
+            return 3;
+        }
+        return -1;
+    }
+
+    @Override
+    public int size()
+    {
+        return this.size;
+    }
+
+    @Override
+    public NucleicAcidCode get(int index)
+    {
+        int ordinal = this.ordinalAt(index);
+        return ordinal >= 0 ? CODES[ordinal] : null;
+    }
+
+    /**
+     * Returns the {@link NucleicAcidCode#ordinal()} at the given index or -1 if the code at the given index is null
+     * 
+     * @param index
+     * @return
+     */
+    public int ordinalAt(int index)
+    {
+        if (index < 0 || index >= this.size)
+        {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        }
+
+        if (this.runCount > 0)
+        {
+            int run = this.findRun(index);
+            if (run >= 0)
+            {
+                return this.runOrdinals[run];
+            }
+        }
+        return this.toOrdinal(this.bitsAt(index));
+    }
+
+    /**
+     * Returns the raw 2 bit code at the given index. For positions held by the sparse side structure this returns 0.
+     * 
+     * @param index
+     * @return
+     */
+    public int bitsAt(int index)
+    {
+        return (int) (this.words[index >>> 5] >>> ((index & 31) << 1)) & 0x3;
+    }
+
+    /**
+     * Returns true if this list contains any {@link NucleicAcidCode} which is not represented by the 2 bit code
+     * 
+     * @return
+     */
+    public boolean hasSparseCodes()
+    {
+        return this.runCount > 0;
+    }
+
+    /**
+     * Returns true if this list contains a {@link NucleicAcidCode#___} or a null value. Only the runs of the sparse side structure are checked, since the 2
+     * bit codes never hold one of them.
+     * 
+     * @return
+     */
+    public boolean containsGapOrNull()
+    {
+        for (int ii = 0; ii < this.runCount; ii++)
+        {
+            byte ordinal = this.runOrdinals[ii];
+            if (ordinal == NULL_ORDINAL || ordinal == NucleicAcidCode.___.ordinal())
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the {@link NucleicAcidCode} the 2 bit code 3 stands for, which is either {@link NucleicAcidCode#T} or {@link NucleicAcidCode#U}
+     * 
+     * @return
+     */
+    public NucleicAcidCode getThymineOrUracil()
+    {
+        return this.thymineOrUracil;
+    }
+
+    private int toOrdinal(int bits)
+    {
+        return bits == 3 ? this.thymineOrUracil.ordinal() : bits;
+    }
+
+    private int findRun(int index)
+    {
+        int run = Arrays.binarySearch(this.runStarts, 0, this.runCount, index);
+        if (run < 0)
+        {
+            run = -run - 2;
+        }
+        return run >= 0 && index < this.runEnds[run] ? run : -1;
+    }
+
+    /**
+     * Returns the complement of this list. The 2 bit codes are complemented word wise by inverting all bits, since A=0, C=1, G=2 and T=3 are
+     * complementary to each other by XOR 3.
+     * 
+     * @param complementationType
+     * @return
+     */
+    public PackedNucleicAcidCodeList complement(ComplementationType complementationType)
+    {
+        long[] words = new long[this.words.length];
+        for (int ii = 0; ii < words.length; ii++)
+        {
+            words[ii] = ~this.words[ii];
+        }
+        return this.complementedWith(words, false, complementationType);
+    }
+
+    /**
+     * Returns the reverse complement of this list. The 2 bit codes are reversed and complemented word wise, so only the sparse codes are handled
+     * one by one.
+     * 
+     * @param complementationType
+     * @return
+     */
+    public PackedNucleicAcidCodeList reverseComplement(ComplementationType complementationType)
+    {
+        int numberOfWords = this.words.length;
+        long[] words = new long[numberOfWords];
+        for (int ii = 0; ii < numberOfWords; ii++)
+        {
+            words[ii] = reverseBases(this.words[numberOfWords - 1 - ii]);
+        }
+
+        int paddingBits = (numberOfWords * BASES_PER_WORD - this.size) << 1;
+        if (paddingBits > 0)
+        {
+            for (int ii = 0; ii < numberOfWords; ii++)
+            {
+                long nextWord = ii + 1 < numberOfWords ? words[ii + 1] : 0;
+                words[ii] = (words[ii] >>> paddingBits) | (nextWord << (64 - paddingBits));
+            }
+        }
+        for (int ii = 0; ii < numberOfWords; ii++)
+        {
+            words[ii] = ~words[ii];
+        }
+        return this.complementedWith(words, true, complementationType);
+    }
+
+    /**
+     * Reverses the order of the 32 2 bit codes within the given word
+     * 
+     * @param word
+     * @return
+     */
+    private static long reverseBases(long word)
+    {
+        word = ((word >>> 2) & 0x3333333333333333L) | ((word & 0x3333333333333333L) << 2);
+        word = ((word >>> 4) & 0x0F0F0F0F0F0F0F0FL) | ((word & 0x0F0F0F0F0F0F0F0FL) << 4);
+        return Long.reverseBytes(word);
+    }
+
+    /**
+     * Completes the given complemented words by clearing the unused bits and by complementing the sparse codes, which are moved back into the 2 bit code
+     * if their complement is a canonical base, so the result is the same as created by the {@link Builder}
+     */
+    private PackedNucleicAcidCodeList complementedWith(long[] words, boolean reverse, ComplementationType complementationType)
+    {
+        if ((this.size & 31) != 0)
+        {
+            words[words.length - 1] &= (1L << ((this.size & 31) << 1)) - 1;
+        }
+
+        NucleicAcidCode thymineOrUracil = complementationType.getComplement(NucleicAcidCode.A);
+        int[] runStarts = new int[this.runCount];
+        int[] runEnds = new int[this.runCount];
+        byte[] runOrdinals = new byte[this.runCount];
+        int runCount = 0;
+        for (int ii = 0; ii < this.runCount; ii++)
+        {
+            int run = reverse ? this.runCount - 1 - ii : ii;
+            int start = reverse ? this.size - this.runEnds[run] : this.runStarts[run];
+            int end = reverse ? this.size - this.runStarts[run] : this.runEnds[run];
+            int ordinal = complementationType.getComplementOrdinal(this.runOrdinals[run]);
+
+            int bits = ordinal >= 0 ? toBits(CODES[ordinal], thymineOrUracil) : -1;
+            fillBits(words, start, end, Math.max(0, bits));
+            if (bits < 0)
+            {
+                if (runCount > 0 && runEnds[runCount - 1] == start && runOrdinals[runCount - 1] == ordinal)
+                {
+                    runEnds[runCount - 1] = end;
+                }
+                else
+                {
+                    runStarts[runCount] = start;
+                    runEnds[runCount] = end;
+                    runOrdinals[runCount] = (byte) ordinal;
+                    runCount++;
+                }
+            }
+        }
+
+        if (thymineOrUracil != NucleicAcidCode.T && !containsThree(words))
+        {
+            thymineOrUracil = NucleicAcidCode.T;
+        }
+        return new PackedNucleicAcidCodeList(words, this.size, thymineOrUracil, Arrays.copyOf(runStarts, runCount), Arrays.copyOf(runEnds, runCount),
+                                             Arrays.copyOf(runOrdinals, runCount), runCount);
+    }
+
+    /**
+     * Sets the 2 bit codes from the given index inclusive to the given index exclusive to the given bits
+     */
+    private static void fillBits(long[] words, int fromIndex, int toIndex, int bits)
+    {
+        long pattern = bits * 0x5555555555555555L;
+        for (int index = fromIndex; index < toIndex;)
+        {
+            int wordIndex = index >>> 5;
+            int count = Math.min(toIndex - index, BASES_PER_WORD - (index & 31));
+            long mask = (count == BASES_PER_WORD ? -1L : (1L << (count << 1)) - 1) << ((index & 31) << 1);
+            words[wordIndex] = (words[wordIndex] & ~mask) | (pattern & mask);
+            index += count;
+        }
+    }
+
+    private static boolean containsThree(long[] words)
+    {
+        for (long word : words)
+        {
+            if ((word & (word >>> 1) & 0x5555555555555555L) != 0)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Iterator<NucleicAcidCode> iterator()
+    {
+        return new Iterator<NucleicAcidCode>()
+        {
+            private int index = 0;
+            private int run   = 0;
+
+            @Override
+            public boolean hasNext()
+            {
+                return this.index < PackedNucleicAcidCodeList.this.size;
+            }
+
+            @Override
+            public NucleicAcidCode next()
+            {
+                if (!this.hasNext())
+                {
+                    throw new NoSuchElementException();
+                }
+
+                int currentIndex = this.index++;
+
+                PackedNucleicAcidCodeList list = PackedNucleicAcidCodeList.this;
+                while (this.run < list.runCount && list.runEnds[this.run] <= currentIndex)
+                {
+                    this.run++;
+                }
+                if (this.run < list.runCount && list.runStarts[this.run] <= currentIndex)
+                {
+                    byte ordinal = list.runOrdinals[this.run];
+                    return ordinal >= 0 ? CODES[ordinal] : null;
+                }
+                return CODES[list.toOrdinal(list.bitsAt(currentIndex))];
+            }
+        };
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int result = this.hashCode;
+        if (result == 0)
+        {
+            result = super.hashCode();
+            this.hashCode = result;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj)
+        {
+            return true;
+        }
+        if (obj instanceof PackedNucleicAcidCodeList)
+        {
+            PackedNucleicAcidCodeList other = (PackedNucleicAcidCodeList) obj;
+            if (this.thymineOrUracil == other.thymineOrUracil)
+            {
+                return this.size == other.size && Arrays.equals(this.words, other.words) && Arrays.equals(this.runStarts, other.runStarts)
+                        && Arrays.equals(this.runEnds, other.runEnds) && Arrays.equals(this.runOrdinals, other.runOrdinals);
+            }
+        }
+        return super.equals(obj);
+    }
+
+}
@@ -0,0 +1,241 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.genomics.translator.io;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * {@link ByteBufferSource} for the BGZF format (blocked gzip as written by bgzip). Every block is an independent gzip member of at most 64 KB, which
+ * carries its compressed size within the 'BC' extra subfield. The blocks are read sequentially, inflated concurrently on a {@link ForkJoinPool} and
+ * returned in their original order.
+ * 
+ * @author omnaest
+ */
+class BgzfByteBufferSource implements ByteBufferSource
+{
+    private static final int FIXED_HEADER_SIZE         = 12;
+    private static final int TRAILER_SIZE              = 8;
+    private static final int MAXIMUM_UNCOMPRESSED_SIZE = 1 << 16;
+
+    private final DataInputStream                 inputStream;
+    private final ForkJoinPool                    pool;
+    private final int                             maximumNumberOfPendingBlocks;
+    private final Deque<ForkJoinTask<ByteBuffer>> pendingBlocks = new ArrayDeque<>();
+    private boolean                               end           = false;
+    private ByteBuffer                            currentBuffer = null;
+
+    /**
+     * {@link Inflater}s and uncompressed block buffers which are not in use, so every worker reuses them instead of allocating new ones per block
+     */
+    private final Queue<Inflater> idleInflaters = new ConcurrentLinkedQueue<>();
+    private final Queue<byte[]>   freeBuffers   = new ConcurrentLinkedQueue<>();
+
+    public BgzfByteBufferSource(InputStream inputStream, ForkJoinPool pool)
+    {
+        super();
+        this.inputStream = new DataInputStream(inputStream);
+        this.pool = pool;
+        this.maximumNumberOfPendingBlocks = 4 * pool.getParallelism() + 1;
+    }
+
+    @Override
+    public ByteBuffer next() throws IOException
+    {
+        if (this.currentBuffer != null)
+        {
+            this.freeBuffers.offer(this.currentBuffer.array());
+            this.currentBuffer = null;
+        }
+        while (true)
+        {
+            while (!this.end && this.pendingBlocks.size() < this.maximumNumberOfPendingBlocks)
+            {
+                byte[] block = this.readBlock();
+                if (block == null)
+                {
+                    this.end = true;
+                }
+                else
+                {
+                    this.pendingBlocks.add(this.pool.submit(() -> this.inflate(block)));
+                }
+            }
+
+            ForkJoinTask<ByteBuffer> pendingBlock = this.pendingBlocks.poll();
+            if (pendingBlock == null)
+            {
+                return null;
+            }
+
+            ByteBuffer retval;
+            try
+            {
+                retval = pendingBlock.join();
+            }
+            catch (RuntimeException e)
+            {
+                throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e);
+            }
+            if (retval.hasRemaining())
+            {
+                this.currentBuffer = retval;
+                return retval;
+            }
+            this.freeBuffers.offer(retval.array());
+        }
+    }
+
+    /**
+     * Reads the next complete block or returns null at the end of the stream
+     */
+    private byte[] readBlock() throws IOException
+    {
+        byte[] header = new byte[FIXED_HEADER_SIZE];
+        int first = this.inputStream.read();
+        if (first < 0)
+        {
+            return null;
+        }
+        header[0] = (byte) first;
+        this.inputStream.readFully(header, 1, FIXED_HEADER_SIZE - 1);
+        if ((header[0] & 0xFF) != 0x1f || (header[1] & 0xFF) != 0x8b || header[2] != 8 || (header[3] & 0x04) == 0)
+        {
+            throw new IOException("Invalid BGZF block header");
+        }
+
+        int extraLength = readUnsignedShort(header, 10);
+        byte[] extra = new byte[extraLength];
+        this.inputStream.readFully(extra);
+        int blockSize = -1;
+        for (int ii = 0; ii + 4 <= extraLength; ii += 4 + readUnsignedShort(extra, ii + 2))
+        {
+            if (extra[ii] == 'B' && extra[ii + 1] == 'C' && readUnsignedShort(extra, ii + 2) == 2)
+            {
+                blockSize = readUnsignedShort(extra, ii + 4) + 1;
+            }
+        }
+        if (blockSize < 0)
+        {
+            throw new IOException("Missing BGZF block size");
+        }
+
+        int remainingSize = blockSize - FIXED_HEADER_SIZE - extraLength;
+        if (remainingSize < TRAILER_SIZE)
+        {
+            throw new IOException("Invalid BGZF block size: " + blockSize);
+        }
+        byte[] retval = new byte[remainingSize];
+        try
+        {
+            this.inputStream.readFully(retval);
+        }
+        catch (EOFException e)
+        {
+            throw new IOException("Truncated BGZF block", e);
+        }
+        return retval;
+    }
+
+    /**
+     * Inflates the compressed data of a block followed by the CRC32 and the uncompressed size
+     */
+    private ByteBuffer inflate(byte[] block) throws IOException
+    {
+        int compressedSize = block.length - TRAILER_SIZE;
+        long expectedCrc = readUnsignedInt(block, compressedSize);
+        long uncompressedSize = readUnsignedInt(block, compressedSize + 4);
+        if (uncompressedSize > MAXIMUM_UNCOMPRESSED_SIZE)
+        {
+            throw new IOException("Invalid BGZF block, uncompressed size " + uncompressedSize + " exceeds " + MAXIMUM_UNCOMPRESSED_SIZE + " bytes");
+        }
+
+        byte[] retval = this.freeBuffers.poll();
+        retval = retval != null ? retval : new byte[MAXIMUM_UNCOMPRESSED_SIZE];
+        Inflater inflater = this.idleInflaters.poll();
+        inflater = inflater != null ? inflater : new Inflater(true);
+        try
+        {
+            inflater.setInput(block, 0, compressedSize);
+            int length = 0;
+            while (length < uncompressedSize && !inflater.finished())
+            {
+                int inflated = inflater.inflate(retval, length, (int) uncompressedSize - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != uncompressedSize)
+            {
+                throw new IOException("Invalid BGZF block, expected " + uncompressedSize + " bytes but got " + length);
+            }
+        }
+        catch (DataFormatException e)
+        {
+            throw new IOException(e);
+        }
+        finally
+        {
+            inflater.reset();
+            this.idleInflaters.offer(inflater);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(retval, 0, (int) uncompressedSize);
+        if (crc.getValue() != expectedCrc)
+        {
+            throw new IOException("BGZF block CRC mismatch");
+        }
+        return ByteBuffer.wrap(retval, 0, (int) uncompressedSize);
+    }
+
+    private static int readUnsignedShort(byte[] data, int offset)
+    {
+        return (data[offset] & 0xFF) | ((data[offset + 1] & 0xFF) << 8);
+    }
+
+    private static long readUnsignedInt(byte[] data, int offset)
+    {
+        return readUnsignedShort(data, offset) | ((long) readUnsignedShort(data, offset + 2) << 16);
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        this.pendingBlocks.forEach(pendingBlock -> pendingBlock.cancel(false));
+        this.pendingBlocks.clear();
+        this.inputStream.close();
+        for (Inflater inflater = this.idleInflaters.poll(); inflater != null; inflater = this.idleInflaters.poll())
+        {
+            inflater.end();
+        }
+        this.freeBuffers.clear();
+    }
+}
@@ -0,0 +1,446 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.genomics.translator.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+import org.omnaest.genomics.translator.domain.AminoAcidCode;
+import org.omnaest.genomics.translator.domain.AminoAcidCodeAndPositionAndSourceSequence;
+import org.omnaest.genomics.translator.domain.CodeAndPosition;
+import org.omnaest.genomics.translator.domain.CodeAndPositionAndSource;
+import org.omnaest.genomics.translator.domain.NucleicAcidCode;
+import org.omnaest.genomics.translator.domain.NucleicAcidCodeSequence;
+import org.omnaest.genomics.translator.domain.PackedAminoAcidCodeList;
+
+/**
+ * Encoding of the blocks of the binary sequence format of {@link BinarySequenceUtils}<br>
+ * <br>
+ * A nucleic acid block holds the size, the bits per code (2 or 4), the {@link NucleicAcidCode} of the 2 bit code 3 and the runs of codes which are
+ * not covered by the packed codes, followed by the packed codes itself. An amino acid block holds the size followed by the words of a
+ * {@link PackedAminoAcidCodeList} as little endian longs. A translation block holds an
+ * amino acid block, the zigzag encoded position deltas, the number of sources per code, a nucleic acid block with all source codes and the zigzag encoded
+ * source position deltas. All sizes, counts and deltas are unsigned LEB128 varints.
+ * 
+ * @author omnaest
+ */
+class BinarySequenceCodec
+{
+    private static final NucleicAcidCode[] NUCLEIC_ACID_CODES   = NucleicAcidCode.values();
+    private static final byte              NULL_ORDINAL         = -1;
+    private static final int               AMINO_ACIDS_PER_WORD = 12;
+
+    private BinarySequenceCodec()
+    {
+    }
+
+    public static void writeNucleicAcidCodes(NucleicAcidCodeSequence sequence, ByteArrayOutputStream output)
+    {
+        int size = sequence.size();
+        NucleicAcidCode thymineOrUracil = null;
+        int runsOfTwoBitCodes = 0;
+        int runsOfFourBitCodes = 0;
+        int previousTwoBits = 0;
+        int previousFourBits = 0;
+        NucleicAcidCode previous = NucleicAcidCode.A;
+        for (NucleicAcidCode code : sequence)
+        {
+            if (thymineOrUracil == null && (code == NucleicAcidCode.T || code == NucleicAcidCode.U))
+            {
+                thymineOrUracil = code;
+            }
+            int twoBits = toTwoBits(code, thymineOrUracil);
+            int fourBits = toFourBits(code);
+            if (twoBits < 0 && (previousTwoBits >= 0 || code != previous))
+            {
+                runsOfTwoBitCodes++;
+            }
+            if (fourBits < 0 && (previousFourBits >= 0 || code != previous))
+            {
+                runsOfFourBitCodes++;
+            }
+            previousTwoBits = twoBits;
+            previousFourBits = fourBits;
+            previous = code;
+        }
+        thymineOrUracil = thymineOrUracil != null ? thymineOrUracil : NucleicAcidCode.T;
+
+        int bitsPerCode = size / 4 + 3 * runsOfTwoBitCodes <= size / 2 + 3 * runsOfFourBitCodes ? 2 : 4;
+        int codesPerByte = 8 / bitsPerCode;
+        byte[] packedCodes = new byte[(size + codesPerByte - 1) / codesPerByte];
+        ByteArrayOutputStream runs = new ByteArrayOutputStream();
+        int runCount = 0;
+        int runStart = -1;
+        int runEnd = 0;
+        NucleicAcidCode runCode = null;
+        int index = 0;
+        for (NucleicAcidCode code : sequence)
+        {
+            int bits = bitsPerCode == 2 ? toTwoBits(code, thymineOrUracil) : toFourBits(code);
+            if (bits >= 0)
+            {
+                packedCodes[index / codesPerByte] |= bits << ((index % codesPerByte) * bitsPerCode);
+            }
+            else if (runStart >= 0 && runEnd == index && runCode == code)
+            {
+                runEnd++;
+            }
+            else
+            {
+                if (runStart >= 0)
+                {
+                    writeRun(runs, runStart, runEnd, runCode);
+                }
+                writeVarLong(runs, index - runEnd);
+                runStart = index;
+                runEnd = index + 1;
+                runCode = code;
+                runCount++;
+            }
+            index++;
+        }
+        if (runStart >= 0)
+        {
+            writeRun(runs, runStart, runEnd, runCode);
+        }
+
+        writeVarLong(output, size);
+        output.write(bitsPerCode);
+        output.write(thymineOrUracil.ordinal());
+        writeVarLong(output, runCount);
+        output.write(runs.toByteArray(), 0, runs.size());
+        output.write(packedCodes, 0, packedCodes.length);
+    }
+
+    private static void writeRun(ByteArrayOutputStream runs, int runStart, int runEnd, NucleicAcidCode runCode)
+    {
+        writeVarLong(runs, runEnd - runStart);
+        runs.write(runCode != null ? runCode.ordinal() : NULL_ORDINAL);
+    }
+
+    private static int toTwoBits(NucleicAcidCode code, NucleicAcidCode thymineOrUracil)
+    {
+        if (code == NucleicAcidCode.A)
+        {
+            return 0;
+        }
+        else if (code == NucleicAcidCode.C)
+        {
+            return 1;
+        }
+        else if (code == NucleicAcidCode.G)
+        {
+            return 2;
+        }
+        else if (code != null && code == thymineOrUracil)
+        {
+            return 3;
+        }
+        return -1;
+    }
+
+    private static int toFourBits(NucleicAcidCode code)
+    {
+        return code != null && code.ordinal() < 16 ? code.ordinal() : -1;
+    }
+
+    /**
+     * Reads a nucleic acid block from the current position of the given {@link ByteBuffer} and returns a view of it, which is backed by the given
+     * {@link ByteBuffer}
+     * 
+     * @param buffer
+     * @return
+     */
+    public static NucleicAcidCodeSequence readNucleicAcidCodes(ByteBuffer buffer)
+    {
+        int size = (int) readVarLong(buffer);
+        int bitsPerCode = buffer.get();
+        NucleicAcidCode thymineOrUracil = NUCLEIC_ACID_CODES[buffer.get()];
+        int runCount = (int) readVarLong(buffer);
+        int[] runStarts = new int[runCount];
+        int[] runEnds = new int[runCount];
+        byte[] runOrdinals = new byte[runCount];
+        int runEnd = 0;
+        for (int ii = 0; ii < runCount; ii++)
+        {
+            runStarts[ii] = runEnd + (int) readVarLong(buffer);
+            runEnd = runStarts[ii] + (int) readVarLong(buffer);
+            runEnds[ii] = runEnd;
+            runOrdinals[ii] = buffer.get();
+        }
+        int codesPerByte = 8 / bitsPerCode;
+        ByteBuffer packedCodes = slice(buffer, (size + codesPerByte - 1) / codesPerByte);
+        return NucleicAcidCodeSequence.viewOf(new EncodedNucleicAcidCodeList(packedCodes, size, bitsPerCode, thymineOrUracil, runStarts, runEnds,
+                                                                             runOrdinals));
+    }
+
+    /**
+     * Writes an amino acid block, which holds the words of the {@link PackedAminoAcidCodeList} as they are
+     * 
+     * @param codes
+     * @param output
+     */
+    public static void writeAminoAcidCodes(PackedAminoAcidCodeList codes, ByteArrayOutputStream output)
+    {
+        int size = codes.size();
+        writeVarLong(output, size);
+        ByteBuffer words = ByteBuffer.allocate(8 * ((size + AMINO_ACIDS_PER_WORD - 1) / AMINO_ACIDS_PER_WORD))
+                                     .order(ByteOrder.LITTLE_ENDIAN);
+        codes.writeWordsTo(words.asLongBuffer());
+        output.write(words.array(), 0, words.capacity());
+    }
+
+    /**
+     * Reads an amino acid block from the current position of the given {@link ByteBuffer} by a bulk copy of its words
+     * 
+     * @param buffer
+     * @return
+     */
+    public static PackedAminoAcidCodeList readAminoAcidCodes(ByteBuffer buffer)
+    {
+        int size = (int) readVarLong(buffer);
+        ByteBuffer words = slice(buffer, 8 * ((size + AMINO_ACIDS_PER_WORD - 1) / AMINO_ACIDS_PER_WORD)).order(ByteOrder.LITTLE_ENDIAN);
+        long[] retval = new long[words.remaining() / 8];
+        words.asLongBuffer()
+             .get(retval);
+        return PackedAminoAcidCodeList.valueOf(retval);
+    }
+
+    public static void writeTranslation(AminoAcidCodeAndPositionAndSourceSequence sequence, ByteArrayOutputStream output)
+    {
+        List<CodeAndPositionAndSource<AminoAcidCode, NucleicAcidCode>> codes = new ArrayList<>();
+        sequence.asCodeAndPositionAndSourceStream()
+                .forEachOrdered(codes::add);
+
+        List<AminoAcidCode> aminoAcidCodes = new ArrayList<>(codes.size());
+        List<NucleicAcidCode> sources = new ArrayList<>(codes.size() * 3);
+        for (CodeAndPositionAndSource<AminoAcidCode, NucleicAcidCode> code : codes)
+        {
+            aminoAcidCodes.add(code.getCode());
+            for (CodeAndPosition<NucleicAcidCode> source : code.getSources())
+            {
+                sources.add(source.getCode());
+            }
+        }
+        writeAminoAcidCodes(PackedAminoAcidCodeList.valueOf(aminoAcidCodes), output);
+
+        long previousPosition = 0;
+        for (CodeAndPositionAndSource<AminoAcidCode, NucleicAcidCode> code : codes)
+        {
+            writeVarLong(output, toZigZag(code.getPosition() - previousPosition));
+            previousPosition = code.getPosition();
+        }
+        for (CodeAndPositionAndSource<AminoAcidCode, NucleicAcidCode> code : codes)
+        {
+            writeVarLong(output, code.getSources()
+                                     .size());
+        }
+        writeNucleicAcidCodes(new NucleicAcidCodeSequence(sources), output);
+        previousPosition = 0;
+        for (CodeAndPositionAndSource<AminoAcidCode, NucleicAcidCode> code : codes)
+        {
+            for (CodeAndPosition<NucleicAcidCode> source : code.getSources())
+            {
+                writeVarLong(output, toZigZag(source.getPosition() - previousPosition));
+                previousPosition = source.getPosition();
+            }
+        }
+    }
+
+    /**
+     * Reads a translation block from the current position of the given {@link ByteBuffer}
+     * 
+     * @param buffer
+     * @return
+     */
+    public static AminoAcidCodeAndPositionAndSourceSequence readTranslation(ByteBuffer buffer)
+    {
+        List<AminoAcidCode> aminoAcidCodes = readAminoAcidCodes(buffer);
+        int size = aminoAcidCodes.size();
+        long[] positions = new long[size];
+        long position = 0;
+        for (int ii = 0; ii < size; ii++)
+        {
+            position += fromZigZag(readVarLong(buffer));
+            positions[ii] = position;
+        }
+        int[] sourceCounts = new int[size];
+        for (int ii = 0; ii < size; ii++)
+        {
+            sourceCounts[ii] = (int) readVarLong(buffer);
+        }
+        NucleicAcidCodeSequence sources = readNucleicAcidCodes(buffer);
+
+        List<CodeAndPositionAndSource<AminoAcidCode, NucleicAcidCode>> codes = new ArrayList<>(size);
+        int sourceIndex = 0;
+        long sourcePosition = 0;
+        for (int ii = 0; ii < size; ii++)
+        {
+            List<CodeAndPosition<NucleicAcidCode>> codeSources = new ArrayList<>(sourceCounts[ii]);
+            for (int jj = 0; jj < sourceCounts[ii]; jj++)
+            {
+                sourcePosition += fromZigZag(readVarLong(buffer));
+                codeSources.add(new CodeAndPosition<>(sources.get(sourceIndex++), sourcePosition));
+            }
+            codes.add(new CodeAndPositionAndSource<>(aminoAcidCodes.get(ii), positions[ii], codeSources));
+        }
+        return AminoAcidCodeAndPositionAndSourceSequence.valueOf(codes);
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int length)
+    {
+        ByteBuffer retval = buffer.duplicate();
+        retval.limit(retval.position() + length);
+        buffer.position(buffer.position() + length);
+        return retval.slice();
+    }
+
+    private static long toZigZag(long value)
+    {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long fromZigZag(long value)
+    {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public static void writeVarLong(ByteArrayOutputStream output, long value)
+    {
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0)
+        {
+            output.write((int) ((remaining & 0x7F) | 0x80));
+            remaining >>>= 7;
+        }
+        output.write((int) remaining);
+    }
+
+    public static long readVarLong(ByteBuffer buffer)
+    {
+        long retval = 0;
+        for (int shift = 0;; shift += 7)
+        {
+            int value = buffer.get();
+            retval |= (long) (value & 0x7F) << shift;
+            if ((value & 0x80) == 0)
+            {
+                return retval;
+            }
+        }
+    }
+
+    /**
+     * Similar to {@link #readVarLong(ByteBuffer)} but returns -1 if the {@link InputStream} ends before the first byte
+     * 
+     * @param inputStream
+     * @return
+     * @throws IOException
+     */
+    public static long readVarLong(InputStream inputStream) throws IOException
+    {
+        long retval = 0;
+        for (int shift = 0;; shift += 7)
+        {
+            int value = inputStream.read();
+            if (value < 0)
+            {
+                if (shift == 0)
+                {
+                    return -1;
+                }
+                throw new EOFException();
+            }
+            retval |= (long) (value & 0x7F) << shift;
+            if ((value & 0x80) == 0)
+            {
+                return retval;
+            }
+        }
+    }
+
+    /**
+     * {@link List} of {@link NucleicAcidCode}s which decodes the 2 or 4 bit packed codes of a nucleic acid block on access
+     * 
+     * @author omnaest
+     */
+    private static class EncodedNucleicAcidCodeList extends AbstractList<NucleicAcidCode> implements RandomAccess
+    {
+        private final ByteBuffer      packedCodes;
+        private final int             size;
+        private final int             bitsPerCode;
+        private final NucleicAcidCode thymineOrUracil;
+        private final int[]           runStarts;
+        private final int[]           runEnds;
+        private final byte[]          runOrdinals;
+
+        public EncodedNucleicAcidCodeList(ByteBuffer packedCodes, int size, int bitsPerCode, NucleicAcidCode thymineOrUracil, int[] runStarts,
+                                          int[] runEnds, byte[] runOrdinals)
+        {
+            super();
+            this.packedCodes = packedCodes;
+            this.size = size;
+            this.bitsPerCode = bitsPerCode;
+            this.thymineOrUracil = thymineOrUracil;
+            this.runStarts = runStarts;
+            this.runEnds = runEnds;
+            this.runOrdinals = runOrdinals;
+        }
+
+        @Override
+        public NucleicAcidCode get(int index)
+        {
+            if (index < 0 || index >= this.size)
+            {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+            }
+            if (this.runStarts.length > 0)
+            {
+                int run = Arrays.binarySearch(this.runStarts, index);
+                if (run < 0)
+                {
+                    run = -run - 2;
+                }
+                if (run >= 0 && index < this.runEnds[run])
+                {
+                    byte ordinal = this.runOrdinals[run];
+                    return ordinal >= 0 ? NUCLEIC_ACID_CODES[ordinal] : null;
+                }
+            }
+            if (this.bitsPerCode == 2)
+            {
+                int bits = (this.packedCodes.get(index >>> 2) >>> ((index & 3) << 1)) & 0x3;
+                return bits == 3 ? this.thymineOrUracil : NUCLEIC_ACID_CODES[bits];
+            }
+            return NUCLEIC_ACID_CODES[(this.packedCodes.get(index >>> 1) >>> ((index & 1) << 2)) & 0xF];
+        }
+
+        @Override
+        public int size()
+        {
+            return this.size;
+        }
+    }
+}
@@ -0,0 +1,503 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.genomics.translator.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.omnaest.genomics.translator.domain.AminoAcidCodeAndPositionAndSourceSequence;
+import org.omnaest.genomics.translator.domain.AminoAcidCodeSequence;
+import org.omnaest.genomics.translator.domain.NucleicAcidCodeSequence;
+
+/**
+ * Compact versioned binary format for {@link NucleicAcidCodeSequence}s, {@link AminoAcidCodeSequence}s and
+ * {@link AminoAcidCodeAndPositionAndSourceSequence}s, which is intended to hand over intermediate results between processing stages.<br>
+ * <br>
+ * Nucleotides are stored with 2 bits per base, or 4 bits per code for sequences with many ambiguity codes, amino acids with 5 bits per code and the
+ * positions and sources of translations as deltas. A file starts with a magic number and the format version, followed by records which consist of a
+ * type byte, the payload length and the payload.
+ * 
+ * @see #newWriter(OutputStream)
+ * @see #read(InputStream)
+ * @see #read(File)
+ * @author omnaest
+ */
+public class BinarySequenceUtils
+{
+    private static final byte[] MAGIC         = new byte[] { 'N', 'A', 'S', 'Q' };
+    private static final int    VERSION       = 1;
+    private static final int    HEADER_LENGTH = MAGIC.length + 1;
+
+    /**
+     * Size of the memory mapped windows of {@link #read(File)}
+     */
+    private static final int MAPPED_WINDOW_SIZE = 1 << 30;
+
+    public static enum SequenceType
+    {
+        NUCLEIC_ACIDS, AMINO_ACIDS, TRANSLATION;
+    }
+
+    /**
+     * Record of the binary format which holds one of the {@link SequenceType}s
+     * 
+     * @author omnaest
+     */
+    public static interface SequenceRecord
+    {
+        public SequenceType getType();
+
+        /**
+         * Returns the {@link NucleicAcidCodeSequence} of a {@link SequenceType#NUCLEIC_ACIDS} record, which is a view backed by the encoded record
+         * 
+         * @return
+         * @throws IllegalStateException
+         *             if the record is of another {@link SequenceType}
+         */
+        public NucleicAcidCodeSequence asNucleicAcidCodeSequence();
+
+        /**
+         * Returns the {@link AminoAcidCodeSequence} of a {@link SequenceType#AMINO_ACIDS} record
+         * 
+         * @return
+         * @throws IllegalStateException
+         *             if the record is of another {@link SequenceType}
+         */
+        public AminoAcidCodeSequence asAminoAcidCodeSequence();
+
+        /**
+         * Returns the {@link AminoAcidCodeAndPositionAndSourceSequence} of a {@link SequenceType#TRANSLATION} record
+         * 
+         * @return
+         * @throws IllegalStateException
+         *             if the record is of another {@link SequenceType}
+         */
+        public AminoAcidCodeAndPositionAndSourceSequence asTranslation();
+    }
+
+    public static interface SequenceWriter extends Closeable, Flushable
+    {
+        public SequenceWriter write(NucleicAcidCodeSequence sequence);
+
+        public SequenceWriter write(AminoAcidCodeSequence sequence);
+
+        public SequenceWriter write(AminoAcidCodeAndPositionAndSourceSequence sequence);
+
+        @Override
+        public void flush();
+
+        @Override
+        public void close();
+    }
+
+    protected BinarySequenceUtils()
+    {
+    }
+
+    /**
+     * Returns a new {@link SequenceWriter} which writes the header immediately and then each written sequence as one record to the given
+     * {@link OutputStream}. Closing the {@link SequenceWriter} closes the {@link OutputStream}.
+     * 
+     * @param outputStream
+     * @return
+     */
+    public static SequenceWriter newWriter(OutputStream outputStream)
+    {
+        OutputStream bufferedOutputStream = new BufferedOutputStream(outputStream);
+        try
+        {
+            bufferedOutputStream.write(MAGIC);
+            bufferedOutputStream.write(VERSION);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        return new SequenceWriter()
+        {
+            private final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+            private final ByteArrayOutputStream header  = new ByteArrayOutputStream();
+
+            @Override
+            public SequenceWriter write(NucleicAcidCodeSequence sequence)
+            {
+                BinarySequenceCodec.writeNucleicAcidCodes(sequence, this.payload);
+                return this.writeRecord(SequenceType.NUCLEIC_ACIDS);
+            }
+
+            @Override
+            public SequenceWriter write(AminoAcidCodeSequence sequence)
+            {
+                BinarySequenceCodec.writeAminoAcidCodes(sequence.asPackedAminoAcidCodeList(), this.payload);
+                return this.writeRecord(SequenceType.AMINO_ACIDS);
+            }
+
+            @Override
+            public SequenceWriter write(AminoAcidCodeAndPositionAndSourceSequence sequence)
+            {
+                BinarySequenceCodec.writeTranslation(sequence, this.payload);
+                return this.writeRecord(SequenceType.TRANSLATION);
+            }
+
+            private SequenceWriter writeRecord(SequenceType type)
+            {
+                try
+                {
+                    this.header.write(type.ordinal());
+                    BinarySequenceCodec.writeVarLong(this.header, this.payload.size());
+                    this.header.writeTo(bufferedOutputStream);
+                    this.payload.writeTo(bufferedOutputStream);
+                }
+                catch (IOException e)
+                {
+                    throw new UncheckedIOException(e);
+                }
+                finally
+                {
+                    this.header.reset();
+                    this.payload.reset();
+                }
+                return this;
+            }
+
+            @Override
+            public void flush()
+            {
+                try
+                {
+                    bufferedOutputStream.flush();
+                }
+                catch (IOException e)
+                {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public void close()
+            {
+                try
+                {
+                    bufferedOutputStream.close();
+                }
+                catch (IOException e)
+                {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Similar to {@link #newWriter(OutputStream)}
+     * 
+     * @param file
+     * @return
+     */
+    public static SequenceWriter newWriter(File file)
+    {
+        try
+        {
+            return newWriter(new FileOutputStream(file));
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads the {@link SequenceRecord}s from the given {@link InputStream} one after another. The payload of each record is read into a single byte array
+     * which backs the returned sequences. Closing the returned {@link Stream} closes the {@link InputStream}.
+     * 
+     * @param inputStream
+     * @return
+     * @throws UncheckedIOException
+     *             if the {@link InputStream} does not start with a supported header
+     */
+    public static Stream<SequenceRecord> read(InputStream inputStream)
+    {
+        DataInputStream dataInputStream = new DataInputStream(new BufferedInputStream(inputStream));
+        try
+        {
+            byte[] header = new byte[HEADER_LENGTH];
+            dataInputStream.readFully(header);
+            validateHeader(ByteBuffer.wrap(header));
+        }
+        catch (IOException e)
+        {
+            close(dataInputStream);
+            throw new UncheckedIOException(e);
+        }
+        return toStream(new RecordIterator()
+        {
+            @Override
+            protected SequenceRecord readRecord() throws IOException
+            {
+                int type = dataInputStream.read();
+                if (type < 0)
+                {
+                    return null;
+                }
+                long length = BinarySequenceCodec.readVarLong(dataInputStream);
+                if (length < 0)
+                {
+                    throw new EOFException();
+                }
+                byte[] payload = new byte[(int) length];
+                dataInputStream.readFully(payload);
+                return newRecord(type, ByteBuffer.wrap(payload));
+            }
+        }, dataInputStream);
+    }
+
+    /**
+     * Reads the {@link SequenceRecord}s of the given {@link File} by memory mapping it, so the returned {@link NucleicAcidCodeSequence}s are views backed
+     * directly by the mapped file, which stay valid after the returned {@link Stream} has been closed
+     * 
+     * @param file
+     * @return
+     * @throws UncheckedIOException
+     *             if the {@link File} does not start with a supported header
+     */
+    public static Stream<SequenceRecord> read(File file)
+    {
+        FileChannel fileChannel;
+        long fileSize;
+        try
+        {
+            fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            fileSize = fileChannel.size();
+            try
+            {
+                validateHeader(fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(HEADER_LENGTH, fileSize)));
+            }
+            catch (IOException e)
+            {
+                fileChannel.close();
+                throw e;
+            }
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        return toStream(new RecordIterator()
+        {
+            private long       position    = HEADER_LENGTH;
+            private long       windowStart = 0;
+            private ByteBuffer window      = ByteBuffer.allocate(0);
+
+            @Override
+            protected SequenceRecord readRecord() throws IOException
+            {
+                if (this.position >= fileSize)
+                {
+                    return null;
+                }
+                ByteBuffer recordHeader = this.map(this.position, (int) Math.min(11, fileSize - this.position));
+                int type = recordHeader.get();
+                long length = BinarySequenceCodec.readVarLong(recordHeader);
+                long payloadStart = this.position + recordHeader.position();
+                if (payloadStart + length > fileSize)
+                {
+                    throw new EOFException();
+                }
+                this.position = payloadStart + length;
+                return newRecord(type, this.map(payloadStart, (int) length));
+            }
+
+            private ByteBuffer map(long start, int length) throws IOException
+            {
+                if (start < this.windowStart || start + length > this.windowStart + this.window.capacity())
+                {
+                    this.windowStart = start;
+                    this.window = fileChannel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(fileSize - start, Math.max(MAPPED_WINDOW_SIZE, length)));
+                }
+                ByteBuffer retval = this.window.duplicate();
+                retval.position((int) (start - this.windowStart));
+                retval.limit(retval.position() + length);
+                return retval.slice();
+            }
+        }, fileChannel);
+    }
+
+    /**
+     * Similar to {@link #read(File)} but reads the {@link File} as stream instead of mapping it
+     * 
+     * @param file
+     * @return
+     */
+    public static Stream<SequenceRecord> readStreaming(File file)
+    {
+        try
+        {
+            return read(new FileInputStream(file));
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void validateHeader(ByteBuffer header) throws IOException
+    {
+        byte[] magic = new byte[MAGIC.length];
+        if (header.remaining() < HEADER_LENGTH || !Arrays.equals(MAGIC, readBytes(header, magic)))
+        {
+            throw new IOException("Not a binary sequence file");
+        }
+        int version = header.get();
+        if (version != VERSION)
+        {
+            throw new IOException("Unsupported binary sequence format version " + version);
+        }
+    }
+
+    private static byte[] readBytes(ByteBuffer buffer, byte[] bytes)
+    {
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static SequenceRecord newRecord(int type, ByteBuffer payload) throws IOException
+    {
+        if (type < 0 || type >= SequenceType.values().length)
+        {
+            throw new IOException("Unknown record type " + type);
+        }
+        SequenceType sequenceType = SequenceType.values()[type];
+        return new SequenceRecord()
+        {
+            @Override
+            public SequenceType getType()
+            {
+                return sequenceType;
+            }
+
+            @Override
+            public NucleicAcidCodeSequence asNucleicAcidCodeSequence()
+            {
+                return BinarySequenceCodec.readNucleicAcidCodes(this.payloadOf(SequenceType.NUCLEIC_ACIDS));
+            }
+
+            @Override
+            public AminoAcidCodeSequence asAminoAcidCodeSequence()
+            {
+                return AminoAcidCodeSequence.valueOf(BinarySequenceCodec.readAminoAcidCodes(this.payloadOf(SequenceType.AMINO_ACIDS)));
+            }
+
+            @Override
+            public AminoAcidCodeAndPositionAndSourceSequence asTranslation()
+            {
+                return BinarySequenceCodec.readTranslation(this.payloadOf(SequenceType.TRANSLATION));
+            }
+
+            private ByteBuffer payloadOf(SequenceType expectedType)
+            {
+                if (sequenceType != expectedType)
+                {
+                    throw new IllegalStateException("Record of type " + sequenceType + " is not of type " + expectedType);
+                }
+                return payload.duplicate();
+            }
+
+            @Override
+            public String toString()
+            {
+                return "SequenceRecord [type=" + sequenceType + ", length=" + payload.capacity() + "]";
+            }
+        };
+    }
+
+    private static abstract class RecordIterator implements Iterator<SequenceRecord>
+    {
+        private SequenceRecord next = null;
+        private boolean        end  = false;
+
+        protected abstract SequenceRecord readRecord() throws IOException;
+
+        @Override
+        public boolean hasNext()
+        {
+            if (this.next == null && !this.end)
+            {
+                try
+                {
+                    this.next = this.readRecord();
+                }
+                catch (IOException e)
+                {
+                    throw new UncheckedIOException(e);
+                }
+                this.end = this.next == null;
+            }
+            return this.next != null;
+        }
+
+        @Override
+        public SequenceRecord next()
+        {
+            if (!this.hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            SequenceRecord retval = this.next;
+            this.next = null;
+            return retval;
+        }
+    }
+
+    private static Stream<SequenceRecord> toStream(RecordIterator iterator, Closeable closeable)
+    {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                            .onClose(() -> close(closeable));
+    }
+
+    private static void close(Closeable closeable)
+    {
+        try
+        {
+            closeable.close();
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
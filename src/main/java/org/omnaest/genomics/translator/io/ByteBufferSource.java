@@ -0,0 +1,38 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.genomics.translator.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Source of consecutive {@link ByteBuffer} chunks of a file or stream which are pulled by a reader
+ * 
+ * @see ByteBufferSourceUtils
+ * @author omnaest
+ */
+public interface ByteBufferSource extends Closeable
+{
+    /**
+     * Returns the next chunk of bytes between the position and the limit of the returned {@link ByteBuffer} or null if there are no more bytes. The
+     * returned {@link ByteBuffer} is only valid until the next call.
+     * 
+     * @return
+     * @throws IOException
+     */
+    public ByteBuffer next() throws IOException;
+}
@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.genomics.translator.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.omnaest.genomics.translator.domain.NucleicAcidCode;
+
+/**
+ * Byte and line wise reader on top of a {@link ByteBufferSource}
+ * 
+ * @author omnaest
+ */
+class ByteBufferSourceReader implements Closeable
+{
+    /**
+     * Reusable buffer of a single line
+     */
+    public static class Line
+    {
+        private byte[] bytes  = new byte[256];
+        private int    length = 0;
+
+        public byte[] getBytes()
+        {
+            return this.bytes;
+        }
+
+        public int getLength()
+        {
+            return this.length;
+        }
+
+        private void add(int value)
+        {
+            if (this.length >= this.bytes.length)
+            {
+                this.bytes = Arrays.copyOf(this.bytes, this.bytes.length * 2);
+            }
+            this.bytes[this.length++] = (byte) value;
+        }
+    }
+
+    private final ByteBufferSource source;
+    private ByteBuffer             buffer   = null;
+    private boolean                end      = false;
+    private long                   position = 0;
+
+    public ByteBufferSourceReader(ByteBufferSource source)
+    {
+        super();
+        this.source = source;
+    }
+
+    /**
+     * Returns the {@link NucleicAcidCode} of the given ASCII character or null
+     * 
+     * @param value
+     * @return
+     */
+    public static NucleicAcidCode toNucleicAcidCode(int value)
+    {
+        return value >= 0 && value < 128 ? NucleicAcidCode.valueOf((byte) value) : null;
+    }
+
+    /**
+     * Returns the next byte as unsigned value or -1 at the end
+     * 
+     * @return
+     */
+    public int read()
+    {
+        while (this.buffer == null || !this.buffer.hasRemaining())
+        {
+            if (this.end)
+            {
+                return -1;
+            }
+            try
+            {
+                this.buffer = this.source.next();
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+            if (this.buffer == null)
+            {
+                this.end = true;
+                return -1;
+            }
+        }
+        this.position++;
+        return this.buffer.get() & 0xFF;
+    }
+
+    /**
+     * Returns the number of bytes read so far
+     * 
+     * @return
+     */
+    public long getPosition()
+    {
+        return this.position;
+    }
+
+    /**
+     * Reads the next line without the line break into the given {@link Line}. Returns false if the end was reached before any byte could be read.
+     * 
+     * @param line
+     * @return
+     */
+    public boolean readLine(Line line)
+    {
+        line.length = 0;
+        int value = this.read();
+        if (value < 0)
+        {
+            return false;
+        }
+        for (; value >= 0 && value != '\n'; value = this.read())
+        {
+            if (value != '\r')
+            {
+                line.add(value);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        this.source.close();
+    }
+}
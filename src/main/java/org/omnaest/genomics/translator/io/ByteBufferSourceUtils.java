@@ -0,0 +1,213 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.genomics.translator.io;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Helper to create {@link ByteBufferSource}s
+ * 
+ * @author omnaest
+ */
+public class ByteBufferSourceUtils
+{
+    private static final int MAPPED_CHUNK_SIZE = 1 << 30;
+    private static final int BUFFER_SIZE       = 1 << 16;
+    private static final int BGZF_HEADER_SIZE  = 16;
+
+    protected ByteBufferSourceUtils()
+    {
+    }
+
+    /**
+     * Returns a {@link ByteBufferSource} for the given {@link File}, which is memory mapped if it is uncompressed and decoded like
+     * {@link #fromInputStreamDetectingCompression(InputStream)} if it is gzip or BGZF compressed
+     * 
+     * @param file
+     * @return
+     */
+    public static ByteBufferSource fromFile(File file)
+    {
+        try (InputStream inputStream = new FileInputStream(file))
+        {
+            byte[] magic = new byte[2];
+            if (inputStream.read(magic) < magic.length || !isGzip(magic))
+            {
+                return fromMappedFile(file);
+            }
+            return fromInputStreamDetectingCompression(new FileInputStream(file));
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Similar to {@link #fromInputStreamDetectingCompression(InputStream, ForkJoinPool)} using the {@link ForkJoinPool#commonPool()}
+     * 
+     * @param inputStream
+     * @return
+     */
+    public static ByteBufferSource fromInputStreamDetectingCompression(InputStream inputStream)
+    {
+        return fromInputStreamDetectingCompression(inputStream, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Returns a {@link ByteBufferSource} which detects the compression of the given {@link InputStream}:<br>
+     * <br>
+     * BGZF: the independent blocks are inflated concurrently on the given {@link ForkJoinPool}<br>
+     * gzip: the stream is inflated by a {@link GZIPInputStream} on a separate thread, pipelined with the reader of the {@link ByteBufferSource}<br>
+     * uncompressed: similar to {@link #fromInputStream(InputStream)}
+     * 
+     * @param inputStream
+     * @param pool
+     * @return
+     */
+    public static ByteBufferSource fromInputStreamDetectingCompression(InputStream inputStream, ForkJoinPool pool)
+    {
+        try
+        {
+            BufferedInputStream bufferedInputStream = new BufferedInputStream(inputStream, BUFFER_SIZE);
+            byte[] header = new byte[BGZF_HEADER_SIZE];
+            bufferedInputStream.mark(header.length);
+            int length = 0;
+            int read = 0;
+            while (length < header.length && (read = bufferedInputStream.read(header, length, header.length - length)) >= 0)
+            {
+                length += read;
+            }
+            bufferedInputStream.reset();
+
+            if (length >= 2 && isGzip(header))
+            {
+                if (length == header.length && isBgzf(header))
+                {
+                    return new BgzfByteBufferSource(bufferedInputStream, pool);
+                }
+                return new PipelinedByteBufferSource(new GZIPInputStream(bufferedInputStream, BUFFER_SIZE), BUFFER_SIZE);
+            }
+            return fromInputStream(bufferedInputStream);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean isGzip(byte[] header)
+    {
+        return (header[0] & 0xFF) == 0x1f && (header[1] & 0xFF) == 0x8b;
+    }
+
+    /**
+     * BGZF blocks are gzip members with the extra flag set and a 'BC' subfield of length 2 as first extra subfield
+     */
+    private static boolean isBgzf(byte[] header)
+    {
+        return header[2] == 8 && (header[3] & 0x04) != 0 && header[12] == 'B' && header[13] == 'C' && header[14] == 2 && header[15] == 0;
+    }
+
+    /**
+     * Returns a {@link ByteBufferSource} which memory maps the given {@link File} in chunks of up to 1 GB, so files beyond 2 GB are supported
+     * 
+     * @param file
+     * @return
+     */
+    public static ByteBufferSource fromMappedFile(File file)
+    {
+        return fromMappedFile(file, MAPPED_CHUNK_SIZE);
+    }
+
+    static ByteBufferSource fromMappedFile(File file, int chunkSize)
+    {
+        try
+        {
+            FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            long size = fileChannel.size();
+            return new ByteBufferSource()
+            {
+                private long position = 0;
+
+                @Override
+                public ByteBuffer next() throws IOException
+                {
+                    if (this.position >= size)
+                    {
+                        return null;
+                    }
+                    MappedByteBuffer retval = fileChannel.map(MapMode.READ_ONLY, this.position, Math.min(chunkSize, size - this.position));
+                    this.position += retval.remaining();
+                    return retval;
+                }
+
+                @Override
+                public void close() throws IOException
+                {
+                    fileChannel.close();
+                }
+            };
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns a {@link ByteBufferSource} which reads the given {@link InputStream} into a single reused buffer
+     * 
+     * @param inputStream
+     * @return
+     */
+    public static ByteBufferSource fromInputStream(InputStream inputStream)
+    {
+        return new ByteBufferSource()
+        {
+            private byte[] buffer = new byte[BUFFER_SIZE];
+
+            @Override
+            public ByteBuffer next() throws IOException
+            {
+                int length = inputStream.read(this.buffer);
+                while (length == 0)
+                {
+                    length = inputStream.read(this.buffer);
+                }
+                return length > 0 ? ByteBuffer.wrap(this.buffer, 0, length) : null;
+            }
+
+            @Override
+            public void close() throws IOException
+            {
+                inputStream.close();
+            }
+        };
+    }
+}
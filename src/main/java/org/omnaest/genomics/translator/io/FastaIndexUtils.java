@@ -0,0 +1,491 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.genomics.translator.io;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.omnaest.genomics.translator.domain.AminoAcidCode;
+import org.omnaest.genomics.translator.domain.AminoAcidCodeSequence;
+import org.omnaest.genomics.translator.domain.NucleicAcidCodeSequence;
+import org.omnaest.genomics.translator.domain.PackedNucleicAcidCodeList;
+
+/**
+ * Support of samtools compatible FASTA index files (.fai) which allow to fetch regions of uncompressed nucleotide or protein FASTA files by positioned
+ * reads
+ * 
+ * @see #buildIndex(File)
+ * @see #open(File)
+ * @author omnaest
+ */
+public class FastaIndexUtils
+{
+    /**
+     * Line of a .fai file
+     * 
+     * @author omnaest
+     */
+    public static class FastaIndexEntry
+    {
+        private final String name;
+        private final long   length;
+        private final long   offset;
+        private final int    lineBases;
+        private final int    lineWidth;
+
+        public FastaIndexEntry(String name, long length, long offset, int lineBases, int lineWidth)
+        {
+            super();
+            this.name = name;
+            this.length = length;
+            this.offset = offset;
+            this.lineBases = lineBases;
+            this.lineWidth = lineWidth;
+        }
+
+        /**
+         * Returns the name of the record, which is the header up to the first whitespace
+         * 
+         * @return
+         */
+        public String getName()
+        {
+            return this.name;
+        }
+
+        /**
+         * Returns the number of bases or residues
+         * 
+         * @return
+         */
+        public long getLength()
+        {
+            return this.length;
+        }
+
+        /**
+         * Returns the byte offset of the first base within the FASTA file
+         * 
+         * @return
+         */
+        public long getOffset()
+        {
+            return this.offset;
+        }
+
+        public int getLineBases()
+        {
+            return this.lineBases;
+        }
+
+        /**
+         * Returns the number of bytes per line including the line break
+         * 
+         * @return
+         */
+        public int getLineWidth()
+        {
+            return this.lineWidth;
+        }
+
+        /**
+         * Returns the byte offset of the base with the given index within the FASTA file
+         * 
+         * @param index
+         * @return
+         */
+        public long getOffsetOf(long index)
+        {
+            return this.offset + (index / this.lineBases) * this.lineWidth + index % this.lineBases;
+        }
+
+        @Override
+        public String toString()
+        {
+            return this.name + "\t" + this.length + "\t" + this.offset + "\t" + this.lineBases + "\t" + this.lineWidth;
+        }
+
+    }
+
+    /**
+     * Index of all records of a FASTA file
+     * 
+     * @author omnaest
+     */
+    public static class FastaIndex
+    {
+        private final Map<String, FastaIndexEntry> entries = new LinkedHashMap<>();
+
+        public FastaIndex(List<FastaIndexEntry> entries)
+        {
+            super();
+            entries.forEach(entry -> this.entries.put(entry.getName(), entry));
+        }
+
+        public Optional<FastaIndexEntry> getEntry(String name)
+        {
+            return Optional.ofNullable(this.entries.get(name));
+        }
+
+        public List<FastaIndexEntry> getEntries()
+        {
+            return Collections.unmodifiableList(new ArrayList<>(this.entries.values()));
+        }
+
+        /**
+         * Writes this {@link FastaIndex} in the .fai format
+         * 
+         * @param outputStream
+         */
+        public void writeTo(OutputStream outputStream)
+        {
+            try
+            {
+                Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+                for (FastaIndexEntry entry : this.entries.values())
+                {
+                    writer.write(entry.toString());
+                    writer.write('\n');
+                }
+                writer.flush();
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Similar to {@link #writeTo(OutputStream)}
+         * 
+         * @param file
+         */
+        public void writeTo(File file)
+        {
+            try (OutputStream outputStream = new FileOutputStream(file))
+            {
+                this.writeTo(outputStream);
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * FASTA file with a {@link FastaIndex} which allows to fetch regions of its records. The regions are read by positioned reads, so an
+     * {@link IndexedFasta} can be used by multiple threads.
+     * 
+     * @author omnaest
+     */
+    public static interface IndexedFasta extends Closeable
+    {
+        public FastaIndex getIndex();
+
+        /**
+         * Returns the bases from the start inclusive to the end exclusive of the record with the given name. The region is limited to the length of the
+         * record.
+         * 
+         * @param name
+         * @param start
+         * @param end
+         * @return
+         * @throws IllegalArgumentException
+         *             if there is no record with the given name
+         */
+        public NucleicAcidCodeSequence fetch(String name, long start, long end);
+
+        /**
+         * Similar to {@link #fetch(String, long, long)} for a protein FASTA file
+         * 
+         * @param name
+         * @param start
+         * @param end
+         * @return
+         */
+        public AminoAcidCodeSequence fetchAminoAcids(String name, long start, long end);
+
+        @Override
+        public void close();
+    }
+
+    protected FastaIndexUtils()
+    {
+    }
+
+    /**
+     * Builds the {@link FastaIndex} of the given uncompressed FASTA {@link File} within a single pass
+     * 
+     * @param fastaFile
+     * @return
+     * @throws UncheckedIOException
+     *             if the lines of a record have different lengths
+     */
+    public static FastaIndex buildIndex(File fastaFile)
+    {
+        List<FastaIndexEntry> entries = new ArrayList<>();
+        try (ByteBufferSourceReader reader = new ByteBufferSourceReader(ByteBufferSourceUtils.fromMappedFile(fastaFile)))
+        {
+            ByteBufferSourceReader.Line line = new ByteBufferSourceReader.Line();
+            String name = null;
+            long length = 0;
+            long offset = 0;
+            int lineBases = 0;
+            int lineWidth = 0;
+            boolean lastLine = false;
+            long lineStart = 0;
+            while (reader.readLine(line))
+            {
+                long lineEnd = reader.getPosition();
+                if (line.getLength() > 0 && line.getBytes()[0] == '>')
+                {
+                    if (name != null)
+                    {
+                        entries.add(new FastaIndexEntry(name, length, offset, lineBases, lineWidth));
+                    }
+                    name = toName(line);
+                    length = 0;
+                    offset = lineEnd;
+                    lineBases = 0;
+                    lineWidth = 0;
+                    lastLine = false;
+                }
+                else if (name != null)
+                {
+                    int bases = line.getLength();
+                    if (bases > 0 && lastLine)
+                    {
+                        throw new IOException("Different line lengths within record " + name);
+                    }
+                    if (lineBases == 0)
+                    {
+                        lineBases = bases;
+                        lineWidth = (int) (lineEnd - lineStart);
+                    }
+                    lastLine = bases < lineBases || bases == 0;
+                    if (bases > lineBases)
+                    {
+                        throw new IOException("Different line lengths within record " + name);
+                    }
+                    length += bases;
+                }
+                lineStart = lineEnd;
+            }
+            if (name != null)
+            {
+                entries.add(new FastaIndexEntry(name, length, offset, lineBases, lineWidth));
+            }
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        return new FastaIndex(entries);
+    }
+
+    private static String toName(ByteBufferSourceReader.Line line)
+    {
+        int length = 1;
+        while (length < line.getLength() && !Character.isWhitespace(line.getBytes()[length]))
+        {
+            length++;
+        }
+        return new String(line.getBytes(), 1, length - 1, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a .fai file
+     * 
+     * @param inputStream
+     * @return
+     */
+    public static FastaIndex readIndex(InputStream inputStream)
+    {
+        List<FastaIndexEntry> entries = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)))
+        {
+            for (String line = reader.readLine(); line != null; line = reader.readLine())
+            {
+                if (!line.isEmpty())
+                {
+                    String[] tokens = line.split("\t");
+                    entries.add(new FastaIndexEntry(tokens[0], Long.parseLong(tokens[1]), Long.parseLong(tokens[2]), Integer.parseInt(tokens[3]),
+                                                    Integer.parseInt(tokens[4])));
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        return new FastaIndex(entries);
+    }
+
+    /**
+     * Similar to {@link #readIndex(InputStream)}
+     * 
+     * @param faiFile
+     * @return
+     */
+    public static FastaIndex readIndex(File faiFile)
+    {
+        try
+        {
+            return readIndex(new FileInputStream(faiFile));
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Opens the given FASTA {@link File} using the .fai file next to it, or builds the {@link FastaIndex} if there is none
+     * 
+     * @param fastaFile
+     * @return
+     */
+    public static IndexedFasta open(File fastaFile)
+    {
+        File faiFile = new File(fastaFile.getPath() + ".fai");
+        return open(fastaFile, faiFile.exists() ? readIndex(faiFile) : buildIndex(fastaFile));
+    }
+
+    /**
+     * Opens the given FASTA {@link File} using the given {@link FastaIndex}
+     * 
+     * @param fastaFile
+     * @param index
+     * @return
+     */
+    public static IndexedFasta open(File fastaFile, FastaIndex index)
+    {
+        FileChannel fileChannel;
+        try
+        {
+            fileChannel = FileChannel.open(fastaFile.toPath(), StandardOpenOption.READ);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        return new IndexedFasta()
+        {
+            @Override
+            public FastaIndex getIndex()
+            {
+                return index;
+            }
+
+            @Override
+            public NucleicAcidCodeSequence fetch(String name, long start, long end)
+            {
+                ByteBuffer buffer = this.read(name, start, end);
+                PackedNucleicAcidCodeList.Builder builder = PackedNucleicAcidCodeList.builder(buffer.remaining());
+                while (buffer.hasRemaining())
+                {
+                    int value = buffer.get() & 0xFF;
+                    if (value != '\n' && value != '\r')
+                    {
+                        builder.append(ByteBufferSourceReader.toNucleicAcidCode(value));
+                    }
+                }
+                return new NucleicAcidCodeSequence(builder.build());
+            }
+
+            @Override
+            public AminoAcidCodeSequence fetchAminoAcids(String name, long start, long end)
+            {
+                ByteBuffer buffer = this.read(name, start, end);
+                List<AminoAcidCode> codes = new ArrayList<>(buffer.remaining());
+                while (buffer.hasRemaining())
+                {
+                    int value = buffer.get() & 0xFF;
+                    if (value != '\n' && value != '\r')
+                    {
+                        codes.add(AminoAcidCode.valueOf((byte) value));
+                    }
+                }
+                return AminoAcidCodeSequence.valueOf(codes);
+            }
+
+            private ByteBuffer read(String name, long start, long end)
+            {
+                FastaIndexEntry entry = index.getEntry(name)
+                                             .orElseThrow(() -> new IllegalArgumentException("Unknown record: " + name));
+                long from = Math.max(0, start);
+                long to = Math.min(entry.getLength(), end);
+                if (from >= to)
+                {
+                    return ByteBuffer.allocate(0);
+                }
+
+                long position = entry.getOffsetOf(from);
+                ByteBuffer retval = ByteBuffer.allocate((int) (entry.getOffsetOf(to - 1) + 1 - position));
+                try
+                {
+                    while (retval.hasRemaining())
+                    {
+                        if (fileChannel.read(retval, position + retval.position()) < 0)
+                        {
+                            throw new IOException("Unexpected end of file within record " + name);
+                        }
+                    }
+                }
+                catch (IOException e)
+                {
+                    throw new UncheckedIOException(e);
+                }
+                retval.flip();
+                return retval;
+            }
+
+            @Override
+            public void close()
+            {
+                try
+                {
+                    fileChannel.close();
+                }
+                catch (IOException e)
+                {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+}
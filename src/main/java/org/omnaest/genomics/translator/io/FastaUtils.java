@@ -0,0 +1,233 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.genomics.translator.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.omnaest.genomics.translator.domain.NucleicAcidCodeSequence;
+import org.omnaest.genomics.translator.domain.PackedNucleicAcidCodeList;
+
+/**
+ * Reader for the FASTA format which decodes the records directly from the chunks of a {@link ByteBufferSource} into packed {@link NucleicAcidCodeSequence}s
+ * 
+ * @see #read(File)
+ * @see #read(InputStream)
+ * @author omnaest
+ */
+public class FastaUtils
+{
+    /**
+     * A single record of a FASTA file
+     * 
+     * @author omnaest
+     */
+    public static class FastaRecord
+    {
+        private final String                  header;
+        private final NucleicAcidCodeSequence sequence;
+
+        public FastaRecord(String header, NucleicAcidCodeSequence sequence)
+        {
+            super();
+            this.header = header;
+            this.sequence = sequence;
+        }
+
+        /**
+         * Returns the header line without the leading '&gt;' or an empty {@link String} if the sequence has no header
+         * 
+         * @return
+         */
+        public String getHeader()
+        {
+            return this.header;
+        }
+
+        public NucleicAcidCodeSequence getSequence()
+        {
+            return this.sequence;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "FastaRecord [header=" + this.header + ", size=" + this.sequence.size() + "]";
+        }
+
+    }
+
+    protected FastaUtils()
+    {
+    }
+
+    /**
+     * Reads the given FASTA {@link File} using a memory mapping, or a parallel decompression for gzip and BGZF compressed files
+     * 
+     * @see ByteBufferSourceUtils#fromFile(File)
+     * @param file
+     * @return
+     */
+    public static Stream<FastaRecord> read(File file)
+    {
+        return read(ByteBufferSourceUtils.fromFile(file));
+    }
+
+    /**
+     * Reads the given FASTA {@link InputStream} which can be gzip or BGZF compressed
+     * 
+     * @see ByteBufferSourceUtils#fromInputStreamDetectingCompression(InputStream)
+     * @param inputStream
+     * @return
+     */
+    public static Stream<FastaRecord> read(InputStream inputStream)
+    {
+        return read(ByteBufferSourceUtils.fromInputStreamDetectingCompression(inputStream));
+    }
+
+    /**
+     * Reads the FASTA records from the given {@link ByteBufferSource}. The records are parsed lazily one after another, the header lines and line breaks are
+     * skipped and the sequence bytes are appended directly to a {@link PackedNucleicAcidCodeList}. Closing the returned {@link Stream} closes the
+     * {@link ByteBufferSource}.
+     * 
+     * @param source
+     * @return
+     */
+    public static Stream<FastaRecord> read(ByteBufferSource source)
+    {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new FastaRecordIterator(source), Spliterator.ORDERED | Spliterator.NONNULL), false)
+                            .onClose(() ->
+                            {
+                                try
+                                {
+                                    source.close();
+                                }
+                                catch (IOException e)
+                                {
+                                    throw new UncheckedIOException(e);
+                                }
+                            });
+    }
+
+    private static class FastaRecordIterator implements Iterator<FastaRecord>
+    {
+        private final ByteBufferSourceReader      reader;
+        private final ByteBufferSourceReader.Line headerLine = new ByteBufferSourceReader.Line();
+        private boolean                           end        = false;
+        private boolean                           headerNext = false;
+        private FastaRecord                       next       = null;
+
+        public FastaRecordIterator(ByteBufferSource source)
+        {
+            super();
+            this.reader = new ByteBufferSourceReader(source);
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            if (this.next == null && !this.end)
+            {
+                this.next = this.readRecord();
+            }
+            return this.next != null;
+        }
+
+        @Override
+        public FastaRecord next()
+        {
+            if (!this.hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            FastaRecord retval = this.next;
+            this.next = null;
+            return retval;
+        }
+
+        private FastaRecord readRecord()
+        {
+            String header = "";
+            int value;
+            if (this.headerNext)
+            {
+                header = this.readHeader();
+                value = this.read();
+            }
+            else
+            {
+                value = this.read();
+                while (value == '\n' || value == '\r' || value == ' ' || value == '\t')
+                {
+                    value = this.read();
+                }
+                if (value < 0)
+                {
+                    return null;
+                }
+                if (value == '>')
+                {
+                    header = this.readHeader();
+                    value = this.read();
+                }
+            }
+
+            PackedNucleicAcidCodeList.Builder builder = PackedNucleicAcidCodeList.builder();
+            boolean lineStart = true;
+            this.headerNext = false;
+            for (; value >= 0; value = this.read())
+            {
+                if (value == '\n' || value == '\r')
+                {
+                    lineStart = true;
+                }
+                else if (value == '>' && lineStart)
+                {
+                    this.headerNext = true;
+                    break;
+                }
+                else if (value != ' ' && value != '\t')
+                {
+                    builder.append(ByteBufferSourceReader.toNucleicAcidCode(value));
+                    lineStart = false;
+                }
+            }
+            return new FastaRecord(header, new NucleicAcidCodeSequence(builder.build()));
+        }
+
+        private String readHeader()
+        {
+            this.reader.readLine(this.headerLine);
+            return new String(this.headerLine.getBytes(), 0, this.headerLine.getLength(), StandardCharsets.UTF_8);
+        }
+
+        private int read()
+        {
+            int retval = this.reader.read();
+            this.end = retval < 0;
+            return retval;
+        }
+    }
+}
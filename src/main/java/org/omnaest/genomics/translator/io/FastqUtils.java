@@ -0,0 +1,281 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.genomics.translator.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.omnaest.genomics.translator.domain.NucleicAcidCode;
+import org.omnaest.genomics.translator.domain.NucleicAcidCodeSequence;
+import org.omnaest.genomics.translator.domain.PackedNucleicAcidCodeList;
+
+/**
+ * Reader for the FASTQ format with four lines per record, which masks bases below a quality threshold as {@link NucleicAcidCode#N}
+ * 
+ * @see #read(File)
+ * @see #read(InputStream)
+ * @author omnaest
+ */
+public class FastqUtils
+{
+    /**
+     * A single record of a FASTQ file. The header is only decoded into a {@link String} on request.
+     * 
+     * @author omnaest
+     */
+    public static class FastqRecord
+    {
+        private final byte[]                  header;
+        private final NucleicAcidCodeSequence sequence;
+
+        public FastqRecord(byte[] header, NucleicAcidCodeSequence sequence)
+        {
+            super();
+            this.header = header;
+            this.sequence = sequence;
+        }
+
+        /**
+         * Returns the header line without the leading '@'
+         * 
+         * @return
+         */
+        public String getHeader()
+        {
+            return new String(this.header, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Returns the sequence where all bases below the quality threshold are replaced by {@link NucleicAcidCode#N}
+         * 
+         * @return
+         */
+        public NucleicAcidCodeSequence getSequence()
+        {
+            return this.sequence;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "FastqRecord [header=" + this.getHeader() + ", sequence=" + this.sequence + "]";
+        }
+
+    }
+
+    /**
+     * @see #get()
+     * @author omnaest
+     */
+    public static interface FastqReader
+    {
+        /**
+         * Bases with a Phred quality score below the given threshold are replaced by {@link NucleicAcidCode#N}. Default is 0, which masks nothing.
+         * 
+         * @param qualityThreshold
+         * @return
+         */
+        public FastqReader withQualityThreshold(int qualityThreshold);
+
+        /**
+         * Defines the ASCII offset of the quality scores. Default is 33 (Sanger / Illumina 1.8+).
+         * 
+         * @param qualityOffset
+         * @return
+         */
+        public FastqReader withQualityOffset(int qualityOffset);
+
+        /**
+         * Returns the {@link FastqRecord}s. Closing the {@link Stream} closes the underlying source.
+         * 
+         * @return
+         */
+        public Stream<FastqRecord> get();
+
+        /**
+         * Returns only the {@link NucleicAcidCodeSequence}s of the records, without decoding any header, e.g. as input for
+         * {@link org.omnaest.genomics.translator.TranslationUtils#translateBatch(Stream)}
+         * 
+         * @return
+         */
+        public Stream<NucleicAcidCodeSequence> getSequences();
+    }
+
+    protected FastqUtils()
+    {
+    }
+
+    /**
+     * Similar to {@link #read(ByteBufferSource)}
+     * 
+     * @see ByteBufferSourceUtils#fromFile(File)
+     * @param file
+     * @return
+     */
+    public static FastqReader read(File file)
+    {
+        return read(ByteBufferSourceUtils.fromFile(file));
+    }
+
+    /**
+     * Similar to {@link #read(ByteBufferSource)} for a gzip or BGZF compressed or an uncompressed {@link InputStream}
+     * 
+     * @param inputStream
+     * @return
+     */
+    public static FastqReader read(InputStream inputStream)
+    {
+        return read(ByteBufferSourceUtils.fromInputStreamDetectingCompression(inputStream));
+    }
+
+    /**
+     * Returns a {@link FastqReader} for the given {@link ByteBufferSource}. The sequence and quality lines are read into reused line buffers and decoded
+     * together within a single pass into a {@link PackedNucleicAcidCodeList} per record.
+     * 
+     * @param source
+     * @return
+     */
+    public static FastqReader read(ByteBufferSource source)
+    {
+        return new FastqReader()
+        {
+            private int qualityThreshold = 0;
+            private int qualityOffset    = 33;
+
+            @Override
+            public FastqReader withQualityThreshold(int qualityThreshold)
+            {
+                this.qualityThreshold = qualityThreshold;
+                return this;
+            }
+
+            @Override
+            public FastqReader withQualityOffset(int qualityOffset)
+            {
+                this.qualityOffset = qualityOffset;
+                return this;
+            }
+
+            @Override
+            public Stream<FastqRecord> get()
+            {
+                return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new FastqRecordIterator(source, this.qualityOffset + this.qualityThreshold),
+                                                                                Spliterator.ORDERED | Spliterator.NONNULL),
+                                            false)
+                                    .onClose(() ->
+                                    {
+                                        try
+                                        {
+                                            source.close();
+                                        }
+                                        catch (IOException e)
+                                        {
+                                            throw new UncheckedIOException(e);
+                                        }
+                                    });
+            }
+
+            @Override
+            public Stream<NucleicAcidCodeSequence> getSequences()
+            {
+                return this.get()
+                           .map(FastqRecord::getSequence);
+            }
+        };
+    }
+
+    private static class FastqRecordIterator implements Iterator<FastqRecord>
+    {
+        private final ByteBufferSourceReader      reader;
+        private final int                         minimumQualityCharacter;
+        private final ByteBufferSourceReader.Line headerLine   = new ByteBufferSourceReader.Line();
+        private final ByteBufferSourceReader.Line sequenceLine = new ByteBufferSourceReader.Line();
+        private final ByteBufferSourceReader.Line qualityLine  = new ByteBufferSourceReader.Line();
+        private FastqRecord                       next         = null;
+
+        public FastqRecordIterator(ByteBufferSource source, int minimumQualityCharacter)
+        {
+            super();
+            this.reader = new ByteBufferSourceReader(source);
+            this.minimumQualityCharacter = minimumQualityCharacter;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            if (this.next == null)
+            {
+                this.next = this.readRecord();
+            }
+            return this.next != null;
+        }
+
+        @Override
+        public FastqRecord next()
+        {
+            if (!this.hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            FastqRecord retval = this.next;
+            this.next = null;
+            return retval;
+        }
+
+        private FastqRecord readRecord()
+        {
+            boolean found;
+            do
+            {
+                found = this.reader.readLine(this.headerLine);
+            } while (found && this.headerLine.getLength() == 0);
+            if (!found)
+            {
+                return null;
+            }
+
+            if (this.headerLine.getBytes()[0] != '@' || !this.reader.readLine(this.sequenceLine) || !this.reader.readLine(this.qualityLine)
+                    || this.qualityLine.getLength() == 0 || this.qualityLine.getBytes()[0] != '+' || !this.reader.readLine(this.qualityLine)
+                    || this.qualityLine.getLength() != this.sequenceLine.getLength())
+            {
+                throw new UncheckedIOException(new IOException("Invalid FASTQ record: "
+                        + new String(this.headerLine.getBytes(), 0, this.headerLine.getLength(), StandardCharsets.UTF_8)));
+            }
+
+            byte[] bases = this.sequenceLine.getBytes();
+            byte[] qualities = this.qualityLine.getBytes();
+            int length = this.sequenceLine.getLength();
+            PackedNucleicAcidCodeList.Builder builder = PackedNucleicAcidCodeList.builder(length);
+            for (int ii = 0; ii < length; ii++)
+            {
+                builder.append((qualities[ii] & 0xFF) < this.minimumQualityCharacter ? NucleicAcidCode.N
+                        : ByteBufferSourceReader.toNucleicAcidCode(bases[ii] & 0xFF));
+            }
+            return new FastqRecord(Arrays.copyOfRange(this.headerLine.getBytes(), 1, this.headerLine.getLength()),
+                                   new NucleicAcidCodeSequence(builder.build()));
+        }
+    }
+}
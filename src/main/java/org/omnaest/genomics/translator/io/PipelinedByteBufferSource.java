@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.genomics.translator.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * {@link ByteBufferSource} which reads an {@link InputStream} like a {@link java.util.zip.GZIPInputStream} on a separate thread, so the decoding of the
+ * stream runs concurrently to the parsing of the returned chunks. A fixed number of buffers is passed between both threads and reused.
+ * 
+ * @author omnaest
+ */
+class PipelinedByteBufferSource implements ByteBufferSource
+{
+    private static final int        NUMBER_OF_BUFFERS = 8;
+    private static final ByteBuffer END               = ByteBuffer.allocate(0);
+
+    private final InputStream               inputStream;
+    private final BlockingQueue<ByteBuffer> filledBuffers = new ArrayBlockingQueue<>(NUMBER_OF_BUFFERS + 1);
+    private final BlockingQueue<ByteBuffer> freeBuffers   = new ArrayBlockingQueue<>(NUMBER_OF_BUFFERS);
+    private final Thread                    thread;
+
+    private volatile Throwable   exception     = null;
+    private ByteBuffer           currentBuffer = null;
+    private boolean              end           = false;
+
+    public PipelinedByteBufferSource(InputStream inputStream, int bufferSize)
+    {
+        super();
+        this.inputStream = inputStream;
+        for (int ii = 0; ii < NUMBER_OF_BUFFERS; ii++)
+        {
+            this.freeBuffers.add(ByteBuffer.allocate(bufferSize));
+        }
+        this.thread = new Thread(this::decode, "PipelinedByteBufferSource");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    private void decode()
+    {
+        try
+        {
+            while (true)
+            {
+                ByteBuffer buffer = this.freeBuffers.take();
+                buffer.clear();
+                int length = this.inputStream.read(buffer.array(), 0, buffer.capacity());
+                while (length == 0)
+                {
+                    length = this.inputStream.read(buffer.array(), 0, buffer.capacity());
+                }
+                if (length < 0)
+                {
+                    break;
+                }
+                buffer.limit(length);
+                this.filledBuffers.put(buffer);
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread()
+                  .interrupt();
+        }
+        catch (Throwable e)
+        {
+            this.exception = e;
+        }
+        finally
+        {
+            this.filledBuffers.offer(END);
+        }
+    }
+
+    @Override
+    public ByteBuffer next() throws IOException
+    {
+        if (this.currentBuffer != null)
+        {
+            this.freeBuffers.offer(this.currentBuffer);
+            this.currentBuffer = null;
+        }
+        if (this.end)
+        {
+            return null;
+        }
+
+        ByteBuffer buffer;
+        try
+        {
+            buffer = this.filledBuffers.take();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread()
+                  .interrupt();
+            throw new IOException(e);
+        }
+
+        if (buffer == END)
+        {
+            this.end = true;
+            if (this.exception instanceof IOException)
+            {
+                throw (IOException) this.exception;
+            }
+            else if (this.exception != null)
+            {
+                throw new IOException(this.exception);
+            }
+            return null;
+        }
+        this.currentBuffer = buffer;
+        return buffer;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        this.thread.interrupt();
+        this.inputStream.close();
+    }
+}
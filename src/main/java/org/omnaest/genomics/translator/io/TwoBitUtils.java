@@ -0,0 +1,421 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.genomics.translator.io;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.omnaest.genomics.translator.domain.NucleicAcidCode;
+import org.omnaest.genomics.translator.domain.NucleicAcidCodeSequence;
+
+/**
+ * Reader of UCSC .2bit files which exposes each record as a {@link NucleicAcidCodeSequence} view backed directly by the memory mapped packed bases.<br>
+ * <br>
+ * Only the file index and the N- and mask-block tables of the accessed records are held on the heap, the bases itself are never decoded to a list of
+ * {@link NucleicAcidCode}s.
+ * 
+ * @see #open(File)
+ * @author omnaest
+ */
+public class TwoBitUtils
+{
+    private static final int SIGNATURE = 0x1A412743;
+
+    /**
+     * Codes of the 2 bit values as defined by the .2bit format
+     */
+    private static final NucleicAcidCode[] TWO_BIT_CODES = new NucleicAcidCode[] { NucleicAcidCode.T, NucleicAcidCode.C, NucleicAcidCode.A,
+                                                                                   NucleicAcidCode.G };
+
+    /**
+     * Region from a start index inclusive to an end index exclusive
+     * 
+     * @author omnaest
+     */
+    public static class Block
+    {
+        private final int start;
+        private final int end;
+
+        public Block(int start, int end)
+        {
+            super();
+            this.start = start;
+            this.end = end;
+        }
+
+        public int getStart()
+        {
+            return this.start;
+        }
+
+        public int getEnd()
+        {
+            return this.end;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "[" + this.start + ", " + this.end + ")";
+        }
+
+    }
+
+    /**
+     * Record of a .2bit file
+     * 
+     * @author omnaest
+     */
+    public static interface TwoBitRecord
+    {
+        public String getName();
+
+        /**
+         * Returns the number of bases
+         * 
+         * @return
+         */
+        public int getLength();
+
+        /**
+         * Returns a view of the bases of this record backed by the memory mapped file. Positions within N-blocks are returned as
+         * {@link NucleicAcidCode#N}.
+         * 
+         * @return
+         */
+        public NucleicAcidCodeSequence getSequence();
+
+        public List<Block> getNBlocks();
+
+        /**
+         * Returns the soft masked regions, which are lower case within the FASTA file the .2bit file was created from
+         * 
+         * @return
+         */
+        public List<Block> getMaskBlocks();
+
+        /**
+         * Returns true if the base at the given index is soft masked
+         * 
+         * @param index
+         * @return
+         */
+        public boolean isMasked(int index);
+    }
+
+    /**
+     * Opened .2bit file. The records are memory mapped, so they stay accessible after the {@link TwoBitFile} has been closed.
+     * 
+     * @author omnaest
+     */
+    public static interface TwoBitFile extends Closeable
+    {
+        /**
+         * Returns the names of all records in the order of the file index
+         * 
+         * @return
+         */
+        public List<String> getNames();
+
+        /**
+         * Returns the {@link TwoBitRecord} with the given name. The block tables of the record are read and its bases are mapped with the first access.
+         * 
+         * @param name
+         * @return
+         */
+        public Optional<TwoBitRecord> getRecord(String name);
+
+        @Override
+        public void close();
+    }
+
+    protected TwoBitUtils()
+    {
+    }
+
+    /**
+     * Opens the given .2bit {@link File} and reads its index
+     * 
+     * @param twoBitFile
+     * @return
+     * @throws UncheckedIOException
+     *             if the given {@link File} is not a valid .2bit file
+     */
+    public static TwoBitFile open(File twoBitFile)
+    {
+        try
+        {
+            FileChannel fileChannel = FileChannel.open(twoBitFile.toPath(), StandardOpenOption.READ);
+            try
+            {
+                return open(fileChannel);
+            }
+            catch (IOException | RuntimeException e)
+            {
+                fileChannel.close();
+                throw e;
+            }
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static TwoBitFile open(FileChannel fileChannel) throws IOException
+    {
+        ByteBuffer header = read(fileChannel, 0, 16, ByteOrder.LITTLE_ENDIAN);
+        ByteOrder byteOrder = ByteOrder.LITTLE_ENDIAN;
+        if (header.getInt(0) != SIGNATURE)
+        {
+            byteOrder = ByteOrder.BIG_ENDIAN;
+            header.order(byteOrder);
+            if (header.getInt(0) != SIGNATURE)
+            {
+                throw new IOException("Invalid .2bit signature");
+            }
+        }
+        int version = header.getInt(4);
+        if (version != 0 && version != 1)
+        {
+            throw new IOException("Unsupported .2bit version " + version);
+        }
+        int sequenceCount = header.getInt(8);
+
+        Map<String, Long> offsets = new LinkedHashMap<>();
+        long position = 16;
+        for (int ii = 0; ii < sequenceCount; ii++)
+        {
+            int nameSize = read(fileChannel, position, 1, byteOrder).get(0) & 0xFF;
+            int offsetSize = version == 0 ? 4 : 8;
+            ByteBuffer entry = read(fileChannel, position + 1, nameSize + offsetSize, byteOrder);
+            String name = new String(entry.array(), 0, nameSize, StandardCharsets.US_ASCII);
+            long offset = version == 0 ? entry.getInt(nameSize) & 0xFFFFFFFFL : entry.getLong(nameSize);
+            offsets.put(name, offset);
+            position += 1 + nameSize + offsetSize;
+        }
+
+        ByteOrder recordByteOrder = byteOrder;
+        Map<String, TwoBitRecord> records = new ConcurrentHashMap<>();
+        return new TwoBitFile()
+        {
+            @Override
+            public List<String> getNames()
+            {
+                return Collections.unmodifiableList(new ArrayList<>(offsets.keySet()));
+            }
+
+            @Override
+            public Optional<TwoBitRecord> getRecord(String name)
+            {
+                Long offset = offsets.get(name);
+                return offset != null ? Optional.of(records.computeIfAbsent(name, n -> readRecord(fileChannel, name, offset, recordByteOrder)))
+                        : Optional.empty();
+            }
+
+            @Override
+            public void close()
+            {
+                try
+                {
+                    fileChannel.close();
+                }
+                catch (IOException e)
+                {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    private static TwoBitRecord readRecord(FileChannel fileChannel, String name, long offset, ByteOrder byteOrder)
+    {
+        try
+        {
+            long position = offset;
+            ByteBuffer sizes = read(fileChannel, position, 8, byteOrder);
+            int length = sizes.getInt(0);
+            int nBlockCount = sizes.getInt(4);
+            position += 8;
+
+            List<Block> nBlocks = readBlocks(fileChannel, position, nBlockCount, byteOrder);
+            position += 8L * nBlockCount;
+
+            int maskBlockCount = read(fileChannel, position, 4, byteOrder).getInt(0);
+            position += 4;
+            List<Block> maskBlocks = readBlocks(fileChannel, position, maskBlockCount, byteOrder);
+            position += 8L * maskBlockCount + 4;
+
+            ByteBuffer packedBases = fileChannel.map(FileChannel.MapMode.READ_ONLY, position, (length + 3L) / 4);
+            NucleicAcidCodeSequence sequence = NucleicAcidCodeSequence.viewOf(new TwoBitNucleicAcidCodeList(packedBases, length, nBlocks));
+            int[] maskStarts = toStarts(maskBlocks);
+            return new TwoBitRecord()
+            {
+                @Override
+                public String getName()
+                {
+                    return name;
+                }
+
+                @Override
+                public int getLength()
+                {
+                    return length;
+                }
+
+                @Override
+                public NucleicAcidCodeSequence getSequence()
+                {
+                    return sequence;
+                }
+
+                @Override
+                public List<Block> getNBlocks()
+                {
+                    return nBlocks;
+                }
+
+                @Override
+                public List<Block> getMaskBlocks()
+                {
+                    return maskBlocks;
+                }
+
+                @Override
+                public boolean isMasked(int index)
+                {
+                    return findBlock(maskStarts, maskBlocks, index) >= 0;
+                }
+
+                @Override
+                public String toString()
+                {
+                    return name;
+                }
+            };
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<Block> readBlocks(FileChannel fileChannel, long position, int count, ByteOrder byteOrder) throws IOException
+    {
+        ByteBuffer buffer = read(fileChannel, position, 8 * count, byteOrder);
+        Block[] blocks = new Block[count];
+        for (int ii = 0; ii < count; ii++)
+        {
+            int start = buffer.getInt(4 * ii);
+            blocks[ii] = new Block(start, start + buffer.getInt(4 * (count + ii)));
+        }
+        Arrays.sort(blocks, (block1, block2) -> Integer.compare(block1.getStart(), block2.getStart()));
+        return Collections.unmodifiableList(Arrays.asList(blocks));
+    }
+
+    private static int[] toStarts(List<Block> blocks)
+    {
+        return blocks.stream()
+                     .mapToInt(Block::getStart)
+                     .toArray();
+    }
+
+    private static int findBlock(int[] starts, List<Block> blocks, int index)
+    {
+        int block = Arrays.binarySearch(starts, index);
+        if (block < 0)
+        {
+            block = -block - 2;
+        }
+        return block >= 0 && index < blocks.get(block)
+                                           .getEnd() ? block : -1;
+    }
+
+    private static ByteBuffer read(FileChannel fileChannel, long position, int length, ByteOrder byteOrder) throws IOException
+    {
+        ByteBuffer retval = ByteBuffer.allocate(length)
+                                      .order(byteOrder);
+        while (retval.hasRemaining())
+        {
+            if (fileChannel.read(retval, position + retval.position()) < 0)
+            {
+                throw new IOException("Unexpected end of .2bit file");
+            }
+        }
+        return retval;
+    }
+
+    /**
+     * {@link List} of {@link NucleicAcidCode}s which decodes the 2 bit packed bases of a .2bit record on access
+     * 
+     * @author omnaest
+     */
+    private static class TwoBitNucleicAcidCodeList extends AbstractList<NucleicAcidCode> implements RandomAccess
+    {
+        private final ByteBuffer  packedBases;
+        private final int         size;
+        private final List<Block> nBlocks;
+        private final int[]       nBlockStarts;
+
+        public TwoBitNucleicAcidCodeList(ByteBuffer packedBases, int size, List<Block> nBlocks)
+        {
+            super();
+            this.packedBases = packedBases;
+            this.size = size;
+            this.nBlocks = nBlocks;
+            this.nBlockStarts = toStarts(nBlocks);
+        }
+
+        @Override
+        public NucleicAcidCode get(int index)
+        {
+            if (index < 0 || index >= this.size)
+            {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+            }
+            if (this.nBlockStarts.length > 0 && findBlock(this.nBlockStarts, this.nBlocks, index) >= 0)
+            {
+                return NucleicAcidCode.N;
+            }
+            int bits = (this.packedBases.get(index >>> 2) >>> (6 - ((index & 3) << 1))) & 0x3;
+            return TWO_BIT_CODES[bits];
+        }
+
+        @Override
+        public int size()
+        {
+            return this.size;
+        }
+    }
+}
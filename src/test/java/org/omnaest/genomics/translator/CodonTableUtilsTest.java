@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.genomics.translator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.omnaest.genomics.translator.domain.AminoAcidCode;
+import org.omnaest.genomics.translator.domain.NucleicAcidCode;
+import org.omnaest.genomics.translator.domain.NucleicAcidCodeSequence;
+
+public class CodonTableUtilsTest
+{
+    @Test
+    public void testTranslate() throws Exception
+    {
+        assertEquals(AminoAcidCode.M, CodonTableUtils.translate(NucleicAcidCode.A, NucleicAcidCode.T, NucleicAcidCode.G));
+        assertEquals(AminoAcidCode.M, CodonTableUtils.translate(NucleicAcidCode.A, NucleicAcidCode.U, NucleicAcidCode.G));
+        assertEquals(AminoAcidCode.STOP, CodonTableUtils.translate(Arrays.asList(NucleicAcidCode.U, NucleicAcidCode.A, NucleicAcidCode.A)));
+        assertEquals(AminoAcidCode.W, CodonTableUtils.translate(CodonTableUtils.codonIndex(NucleicAcidCode.T, NucleicAcidCode.G, NucleicAcidCode.G)));
+        assertNull(CodonTableUtils.translate(NucleicAcidCode.A, null, NucleicAcidCode.G));
+        assertNull(CodonTableUtils.translate(Arrays.asList(NucleicAcidCode.A, NucleicAcidCode.T)));
+    }
+
+    @Test
+    public void testTranslateAmbiguousCodons() throws Exception
+    {
+        assertEquals(AminoAcidCode.A, translate("GCN"));
+        assertEquals(AminoAcidCode.L, translate("YTR"));
+        assertEquals(AminoAcidCode.R, translate("MGR"));
+        assertEquals(AminoAcidCode.STOP, translate("TRA"));
+        assertEquals(AminoAcidCode.B, translate("RAY"));
+        assertEquals(AminoAcidCode.Z, translate("SAR"));
+        assertEquals(AminoAcidCode.J, translate("MTH"));
+        assertEquals(AminoAcidCode.X, translate("NNN"));
+        assertEquals(AminoAcidCode.A, translate("gcn"));
+        assertNull(translate("GC-"));
+    }
+
+    private static AminoAcidCode translate(String codon)
+    {
+        return CodonTableUtils.translate(NucleicAcidCodeSequence.valueOf(codon)
+                                                                .toList());
+    }
+
+}
@@ -35,10 +35,14 @@ package org.omnaest.genomics.translator;
 
 import static org.junit.Assert.assertEquals;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
 import org.junit.Test;
 import org.omnaest.genomics.translator.ComplementaryBasePairUtils;
 import org.omnaest.genomics.translator.ComplementaryBasePairUtils.ComplementationType;
 import org.omnaest.genomics.translator.domain.NucleicAcidCode;
+import org.omnaest.genomics.translator.domain.NucleicAcidCodeSequence;
 
 public class ComplementaryBasePairUtilsTest
 {
@@ -57,4 +61,32 @@ public class ComplementaryBasePairUtilsTest
 		assertEquals(NucleicAcidCode.C, ComplementaryBasePairUtils.toComplement(NucleicAcidCode.G, ComplementationType.RNA));
 	}
 
+	@Test
+	public void testToComplementAmbiguityCodes() throws Exception
+	{
+		assertEquals(NucleicAcidCode.Y, ComplementaryBasePairUtils.toComplement(NucleicAcidCode.R, ComplementationType.DNA));
+		assertEquals(NucleicAcidCode.M, ComplementaryBasePairUtils.toComplement(NucleicAcidCode.K, ComplementationType.RNA));
+		assertEquals(NucleicAcidCode.V, ComplementaryBasePairUtils.toComplement(NucleicAcidCode.B, ComplementationType.DNA));
+		assertEquals(NucleicAcidCode.N, ComplementaryBasePairUtils.toComplement(NucleicAcidCode.N, ComplementationType.DNA));
+		assertEquals(NucleicAcidCode.___, ComplementaryBasePairUtils.toComplement(NucleicAcidCode.___, ComplementationType.RNA));
+		assertEquals(null, ComplementaryBasePairUtils.toComplement(null, ComplementationType.DNA));
+	}
+
+	@Test
+	public void testReverseComplementInPlace() throws Exception
+	{
+		byte[] sequence = ">acGTNryX".getBytes(StandardCharsets.US_ASCII);
+		ComplementaryBasePairUtils.reverseComplement(sequence, 1, sequence.length - 1, ComplementationType.DNA);
+		assertEquals(">XryNACgt", new String(sequence, StandardCharsets.US_ASCII));
+
+		NucleicAcidCode[] codes = NucleicAcidCodeSequence	.valueOf("AACGU")
+															.toArray();
+		ComplementaryBasePairUtils.reverseComplement(codes, 0, codes.length, ComplementationType.RNA);
+		assertEquals("ACGUU", NucleicAcidCodeSequence	.valueOf(Arrays.asList(codes))
+														.toString());
+		ComplementaryBasePairUtils.complement(codes, 1, 2, ComplementationType.RNA);
+		assertEquals("AGCUU", NucleicAcidCodeSequence	.valueOf(Arrays.asList(codes))
+														.toString());
+	}
+
 }
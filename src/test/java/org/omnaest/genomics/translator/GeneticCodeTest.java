@@ -0,0 +1,54 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.genomics.translator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.omnaest.genomics.translator.domain.AminoAcidCode;
+import org.omnaest.genomics.translator.domain.NucleicAcidCode;
+
+public class GeneticCodeTest
+{
+    @Test
+    public void testTranslate() throws Exception
+    {
+        assertEquals(AminoAcidCode.STOP, GeneticCode.STANDARD.translate(NucleicAcidCode.T, NucleicAcidCode.G, NucleicAcidCode.A));
+        assertEquals(AminoAcidCode.W, GeneticCode.VERTEBRATE_MITOCHONDRIAL.translate(NucleicAcidCode.T, NucleicAcidCode.G, NucleicAcidCode.A));
+        assertEquals(AminoAcidCode.STOP, GeneticCode.VERTEBRATE_MITOCHONDRIAL.translate(NucleicAcidCode.A, NucleicAcidCode.G, NucleicAcidCode.R));
+        assertEquals(AminoAcidCode.Q, GeneticCode.CILIATE_DASYCLADACEAN_HEXAMITA_NUCLEAR.translate(NucleicAcidCode.U, NucleicAcidCode.A, NucleicAcidCode.R));
+    }
+
+    @Test
+    public void testIsStartCodon() throws Exception
+    {
+        assertTrue(GeneticCode.STANDARD.isStartCodon(NucleicAcidCode.A, NucleicAcidCode.T, NucleicAcidCode.G));
+        assertFalse(GeneticCode.STANDARD.isStartCodon(NucleicAcidCode.A, NucleicAcidCode.T, NucleicAcidCode.A));
+        assertTrue(GeneticCode.BACTERIAL_ARCHAEAL_PLANT_PLASTID.isStartCodon(NucleicAcidCode.G, NucleicAcidCode.T, NucleicAcidCode.G));
+        assertTrue(GeneticCode.VERTEBRATE_MITOCHONDRIAL.isStartCodon(NucleicAcidCode.A, NucleicAcidCode.T, NucleicAcidCode.N));
+    }
+
+    @Test
+    public void testValueOf() throws Exception
+    {
+        assertEquals(GeneticCode.BACTERIAL_ARCHAEAL_PLANT_PLASTID, GeneticCode.valueOf(11)
+                                                                              .get());
+        assertFalse(GeneticCode.valueOf(7)
+                               .isPresent());
+    }
+}
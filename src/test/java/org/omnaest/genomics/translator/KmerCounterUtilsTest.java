@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.genomics.translator;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.omnaest.genomics.translator.ComplementaryBasePairUtils.ComplementationType;
+import org.omnaest.genomics.translator.KmerCounterUtils.KmerCount;
+import org.omnaest.genomics.translator.KmerCounterUtils.KmerCounts;
+import org.omnaest.genomics.translator.domain.NucleicAcidCodeSequence;
+
+public class KmerCounterUtilsTest
+{
+    @Test
+    public void testCount() throws Exception
+    {
+        KmerCounts counts = KmerCounterUtils.counter()
+                                            .withK(3)
+                                            .count(NucleicAcidCodeSequence.valueOf("ACGTNACGAAA"));
+        assertEquals(4, counts.size());
+        assertEquals(3, counts.getCount(NucleicAcidCodeSequence.valueOf("ACG")));
+        assertEquals(3, counts.getCount(NucleicAcidCodeSequence.valueOf("CGT")));
+        assertEquals(1, counts.getCount(NucleicAcidCodeSequence.valueOf("TCG")));
+        assertEquals(1, counts.getCount(NucleicAcidCodeSequence.valueOf("TTC")));
+        assertEquals(1, counts.getCount(NucleicAcidCodeSequence.valueOf("TTT")));
+        assertEquals(0, counts.getCount(NucleicAcidCodeSequence.valueOf("GTN")));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        counts.writeTo(outputStream);
+        assertEquals("AAA\t1\nACG\t3\nCGA\t1\nGAA\t1\n", new String(outputStream.toByteArray(), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void testCountParallel() throws Exception
+    {
+        Random random = new Random(1);
+        List<NucleicAcidCodeSequence> sequences = new ArrayList<>();
+        for (int ii = 0; ii < 50; ii++)
+        {
+            StringBuilder sequence = new StringBuilder();
+            int length = random.nextInt(2000);
+            for (int jj = 0; jj < length; jj++)
+            {
+                sequence.append(random.nextInt(100) == 0 ? 'N' : "ACGT".charAt(random.nextInt(4)));
+            }
+            sequences.add(NucleicAcidCodeSequence.valueOf(sequence.toString()));
+        }
+
+        int k = 7;
+        Map<String, Integer> expected = new TreeMap<>();
+        for (NucleicAcidCodeSequence sequence : sequences)
+        {
+            for (int ii = 0; ii + k <= sequence.size(); ii++)
+            {
+                String kmer = sequence.subSequence(ii, ii + k)
+                                      .toString();
+                String reverseComplement = sequence.subSequence(ii, ii + k)
+                                                   .asReverseComplementView(ComplementationType.DNA)
+                                                   .toString();
+                if (!kmer.contains("N"))
+                {
+                    expected.merge(kmer.compareTo(reverseComplement) <= 0 ? kmer : reverseComplement, 1, Integer::sum);
+                }
+            }
+        }
+
+        KmerCounts counts = KmerCounterUtils.counter()
+                                            .withK(k)
+                                            .usingPool(new ForkJoinPool(4))
+                                            .withWorkUnitSize(500)
+                                            .count(sequences);
+        assertEquals(expected.size(), counts.size());
+        Map<String, Integer> actual = counts.stream()
+                                            .collect(Collectors.toMap(count -> count.asNucleicAcidCodeSequence()
+                                                                                    .toString(),
+                                                                      KmerCount::getCount, (count1, count2) -> count1, TreeMap::new));
+        assertEquals(expected, actual);
+        assertEquals(new ArrayList<>(expected.keySet()), counts.stream()
+                                                               .map(count -> count.asNucleicAcidCodeSequence()
+                                                                                  .toString())
+                                                               .collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.genomics.translator;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.omnaest.genomics.translator.MotifSearchUtils.MotifMatcher;
+import org.omnaest.genomics.translator.domain.AminoAcidCodeSequence;
+
+public class MotifSearchUtilsTest
+{
+    @Test
+    public void testFindAll() throws Exception
+    {
+        MotifMatcher matcher = MotifSearchUtils.compile(AminoAcidCodeSequence.valueOf("MXB"), AminoAcidCodeSequence.valueOf("AD"),
+                                                        AminoAcidCodeSequence.valueOf("J"));
+        assertEquals(Arrays.asList("0@1", "1@2", "2@5", "0@4", "2@7"), matcher.findAll(AminoAcidCodeSequence.valueOf("PMADMLNIEM*D"))
+                                                                              .stream()
+                                                                              .map(hit -> hit.getPatternIndex() + "@" + hit.getOffset())
+                                                                              .collect(Collectors.toList()));
+        assertEquals(0, matcher.findAll(AminoAcidCodeSequence.valueOf("MAEM*DM-N"))
+                               .size());
+    }
+
+    @Test
+    public void testFindAllRandom() throws Exception
+    {
+        Random random = new Random(1);
+        String targetAlphabet = "ACDEFGHIKLMNPQ*";
+        String patternAlphabet = "ACDEFGHIKLMNPQBZJXXX";
+        List<String> patterns = new ArrayList<>();
+        for (int ii = 0; ii < 200; ii++)
+        {
+            patterns.add(SequenceTestUtils.randomSequence(random, patternAlphabet, 1 + random.nextInt(4)));
+        }
+        MotifMatcher matcher = MotifSearchUtils.compile(patterns.stream()
+                                                                .map(AminoAcidCodeSequence::valueOf)
+                                                                .collect(Collectors.toList()));
+
+        String target = SequenceTestUtils.randomSequence(random, targetAlphabet, 2000);
+        List<String> expected = new ArrayList<>();
+        for (int end = 0; end < target.length(); end++)
+        {
+            for (int ii = 0; ii < patterns.size(); ii++)
+            {
+                int offset = end - patterns.get(ii)
+                                           .length()
+                        + 1;
+                if (offset >= 0 && this.matches(patterns.get(ii), target.substring(offset, end + 1)))
+                {
+                    expected.add(ii + "@" + offset);
+                }
+            }
+        }
+        assertEquals(expected, matcher.findAll(AminoAcidCodeSequence.valueOf(target))
+                                      .stream()
+                                      .map(hit -> hit.getPatternIndex() + "@" + hit.getOffset())
+                                      .collect(Collectors.toList()));
+    }
+
+    private boolean matches(String pattern, String region)
+    {
+        for (int ii = 0; ii < pattern.length(); ii++)
+        {
+            char patternCode = pattern.charAt(ii);
+            char code = region.charAt(ii);
+            boolean match = patternCode == code || (patternCode == 'X' && code != '*') || (patternCode == 'B' && (code == 'D' || code == 'N'))
+                    || (patternCode == 'Z' && (code == 'E' || code == 'Q')) || (patternCode == 'J' && (code == 'L' || code == 'I'));
+            if (!match)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.genomics.translator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.omnaest.genomics.translator.NucleotidePatternSearchUtils.PatternHit;
+import org.omnaest.genomics.translator.NucleotidePatternSearchUtils.PatternMatcher;
+import org.omnaest.genomics.translator.NucleotidePatternSearchUtils.Strand;
+import org.omnaest.genomics.translator.domain.NucleicAcidCode;
+import org.omnaest.genomics.translator.domain.NucleicAcidCodeSequence;
+
+public class NucleotidePatternSearchUtilsTest
+{
+    @Test
+    public void testFindAll() throws Exception
+    {
+        PatternMatcher matcher = NucleotidePatternSearchUtils.compile("RGATCY");
+        assertTrue(matcher.isPalindromic());
+        assertEquals(Arrays.asList(new PatternHit(Strand.FORWARD, 2), new PatternHit(Strand.FORWARD, 10)),
+                     matcher.findAll(NucleicAcidCodeSequence.valueOf("CCAGATCTNNGGATCCAGATCNT")));
+
+        PatternMatcher primerMatcher = NucleotidePatternSearchUtils.compile("ACGTN");
+        assertFalse(primerMatcher.isPalindromic());
+        assertEquals(Arrays.asList(new PatternHit(Strand.REVERSE, 1), new PatternHit(Strand.FORWARD, 2), new PatternHit(Strand.REVERSE, 6),
+                                   new PatternHit(Strand.FORWARD, 7)),
+                     primerMatcher.findAll(NucleicAcidCodeSequence.valueOf("TGACGTTACGTGA")));
+        assertEquals(Arrays.asList(new PatternHit(Strand.FORWARD, 0)), primerMatcher.findAll(NucleicAcidCodeSequence.valueOf("ACGUU")));
+    }
+
+    @Test
+    public void testFindAllRandom() throws Exception
+    {
+        Random random = new Random(1);
+        String bases = "ACGT";
+        String patternCodes = "ACGTRYKMSWBDHVN";
+        for (int ii = 0; ii < 200; ii++)
+        {
+            String target = SequenceTestUtils.randomSequence(random, bases, 300);
+            StringBuilder pattern = new StringBuilder();
+            int length = 1 + random.nextInt(ii % 2 == 0 ? 6 : NucleotidePatternSearchUtils.MAX_PATTERN_LENGTH);
+            for (int jj = 0; jj < length; jj++)
+            {
+                pattern.append(random.nextInt(3) == 0 ? patternCodes.charAt(random.nextInt(patternCodes.length())) : bases.charAt(random.nextInt(4)));
+            }
+
+            PatternMatcher matcher = NucleotidePatternSearchUtils.compile(pattern.toString());
+            String reverseComplement = this.reverseComplement(pattern.toString());
+            assertEquals(pattern.toString()
+                                .equals(reverseComplement),
+                         matcher.isPalindromic());
+
+            List<PatternHit> expected = new ArrayList<>();
+            for (int offset = 0; offset + length <= target.length(); offset++)
+            {
+                String window = target.substring(offset, offset + length);
+                if (this.matches(pattern.toString(), window))
+                {
+                    expected.add(new PatternHit(Strand.FORWARD, offset));
+                }
+                if (!matcher.isPalindromic() && this.matches(reverseComplement, window))
+                {
+                    expected.add(new PatternHit(Strand.REVERSE, offset));
+                }
+            }
+            assertEquals(expected, matcher.findAll(NucleicAcidCodeSequence.valueOf(target)));
+        }
+    }
+
+    private boolean matches(String pattern, String window)
+    {
+        for (int ii = 0; ii < pattern.length(); ii++)
+        {
+            if (!NucleicAcidCode.valueOf(pattern.charAt(ii))
+                                .test(window.charAt(ii)))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String reverseComplement(String pattern)
+    {
+        String codes = "ACGTRYKMSWBDHVN";
+        String complements = "TGCAYRMKSWVHDBN";
+        StringBuilder retval = new StringBuilder();
+        for (int ii = pattern.length() - 1; ii >= 0; ii--)
+        {
+            retval.append(complements.charAt(codes.indexOf(pattern.charAt(ii))));
+        }
+        return retval.toString();
+    }
+}
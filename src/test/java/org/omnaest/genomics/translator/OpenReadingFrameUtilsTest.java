@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.genomics.translator;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.omnaest.genomics.translator.ComplementaryBasePairUtils.ComplementationType;
+import org.omnaest.genomics.translator.OpenReadingFrameUtils.NestingPolicy;
+import org.omnaest.genomics.translator.OpenReadingFrameUtils.OpenReadingFrame;
+import org.omnaest.genomics.translator.domain.NucleicAcidCodeSequence;
+
+public class OpenReadingFrameUtilsTest
+{
+    private static final NucleicAcidCodeSequence SEQUENCE = NucleicAcidCodeSequence.valueOf("CCATGAAAATGTTTTAAGGTCACCCCATGGGCATC");
+
+    @Test
+    public void testFind() throws Exception
+    {
+        List<OpenReadingFrame> openReadingFrames = OpenReadingFrameUtils.find(SEQUENCE)
+                                                                        .get()
+                                                                        .collect(Collectors.toList());
+        assertEquals(2, openReadingFrames.size());
+
+        OpenReadingFrame forward = openReadingFrames.get(0);
+        assertEquals(false, forward.isReverse());
+        assertEquals(2, forward.getFrame());
+        assertEquals(2, forward.getStart());
+        assertEquals(14, forward.getStop());
+        assertEquals(4, forward.getLength());
+        assertEquals("ATGAAAATGTTTTAA", forward.asNucleicAcidCodeSequence()
+                                               .toString());
+        assertEquals("MKMF", forward.asAminoAcidCodeSequence()
+                                    .toString());
+
+        OpenReadingFrame reverse = openReadingFrames.get(1);
+        assertEquals(true, reverse.isReverse());
+        assertEquals(1, reverse.getFrame());
+        assertEquals(31, reverse.getStart());
+        assertEquals(19, reverse.getStop());
+        assertEquals("ATGCCCATGGGGTGA", reverse.asNucleicAcidCodeSequence()
+                                               .toString());
+        assertEquals("MPMG", reverse.asAminoAcidCodeSequence()
+                                    .toString());
+    }
+
+    @Test
+    public void testFindNested() throws Exception
+    {
+        assertEquals(Arrays.asList("MKMF", "MF", "MG", "MPMG"), OpenReadingFrameUtils.find(SEQUENCE)
+                                                                                     .usingNestingPolicy(NestingPolicy.NESTED)
+                                                                                     .get()
+                                                                                     .map(openReadingFrame -> openReadingFrame.asAminoAcidCodeSequence()
+                                                                                                                              .toString())
+                                                                                     .collect(Collectors.toList()));
+        assertEquals(Arrays.asList("MKMF", "MPMG"), OpenReadingFrameUtils.find(SEQUENCE)
+                                                                         .usingNestingPolicy(NestingPolicy.NESTED)
+                                                                         .withMinimumLength(3)
+                                                                         .get()
+                                                                         .map(openReadingFrame -> openReadingFrame.asAminoAcidCodeSequence()
+                                                                                                                  .toString())
+                                                                         .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testFindUsingAlternativeStartCodons() throws Exception
+    {
+        assertEquals(Arrays.asList("M", "MM"), Arrays.asList("CTGTAA", "TTGATGTGA")
+                                                     .stream()
+                                                     .map(sequence -> OpenReadingFrameUtils.find(NucleicAcidCodeSequence.valueOf(sequence))
+                                                                                           .usingAlternativeStartCodons()
+                                                                                           .get()
+                                                                                           .map(openReadingFrame -> openReadingFrame.asAminoAcidCodeSequence()
+                                                                                                                                    .toString())
+                                                                                           .collect(Collectors.joining()))
+                                                     .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testFindComplementationType() throws Exception
+    {
+        NucleicAcidCodeSequence rnaSequence = NucleicAcidCodeSequence.valueOf(SEQUENCE.toString()
+                                                                                      .replace('T', 'U'));
+        assertEquals(Arrays.asList("AUGAAAAUGUUUUAA", "AUGCCCAUGGGGUGA"), OpenReadingFrameUtils.find(rnaSequence)
+                                                                                               .get()
+                                                                                               .map(openReadingFrame -> openReadingFrame.asNucleicAcidCodeSequence()
+                                                                                                                                        .toString())
+                                                                                               .collect(Collectors.toList()));
+        assertEquals("AUGCCCAUGGGGUGA", OpenReadingFrameUtils.find(SEQUENCE)
+                                                             .usingComplementationType(ComplementationType.RNA)
+                                                             .get()
+                                                             .filter(OpenReadingFrame::isReverse)
+                                                             .findFirst()
+                                                             .get()
+                                                             .asNucleicAcidCodeSequence()
+                                                             .toString());
+    }
+
+}
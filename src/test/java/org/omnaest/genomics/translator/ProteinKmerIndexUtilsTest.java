@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.genomics.translator;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+import org.omnaest.genomics.translator.ProteinKmerIndexUtils.ProteinKmerIndex;
+import org.omnaest.genomics.translator.ProteinKmerIndexUtils.ReducedAlphabet;
+import org.omnaest.genomics.translator.domain.AminoAcidCodeSequence;
+
+public class ProteinKmerIndexUtilsTest
+{
+    private static final String ALPHABET = "ACDEFGHIKLMNPQRSTVWYX";
+
+    @Test
+    public void testFindContaining() throws Exception
+    {
+        Random random = new Random(1);
+        List<AminoAcidCodeSequence> proteins = this.randomProteins(random);
+        ProteinKmerIndex index = ProteinKmerIndexUtils.builder()
+                                                      .withK(4)
+                                                      .build(proteins);
+
+        File file = File.createTempFile("proteins", ".kmi");
+        file.deleteOnExit();
+        index.writeTo(file);
+        ProteinKmerIndex mappedIndex = ProteinKmerIndexUtils.open(file);
+        assertEquals(proteins.size(), mappedIndex.size());
+        assertEquals(4, mappedIndex.getK());
+        assertEquals(proteins.get(7), mappedIndex.getProtein(7));
+
+        for (AminoAcidCodeSequence peptide : this.randomPeptides(random, proteins))
+        {
+            List<Integer> expected = IntStream.range(0, proteins.size())
+                                              .filter(ii -> proteins.get(ii)
+                                                                    .contains(peptide))
+                                              .boxed()
+                                              .collect(Collectors.toList());
+            assertEquals(expected, index.findContaining(peptide)
+                                        .boxed()
+                                        .collect(Collectors.toList()));
+            assertEquals(expected, mappedIndex.findContaining(peptide)
+                                              .boxed()
+                                              .collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void testFindSimilar() throws Exception
+    {
+        Random random = new Random(2);
+        List<AminoAcidCodeSequence> proteins = this.randomProteins(random);
+        ProteinKmerIndex index = ProteinKmerIndexUtils.builder()
+                                                      .withK(6)
+                                                      .usingReducedAlphabet(ReducedAlphabet.MURPHY_10)
+                                                      .build(proteins);
+        File file = File.createTempFile("proteins", ".kmi");
+        file.deleteOnExit();
+        index.writeTo(file);
+        ProteinKmerIndex mappedIndex = ProteinKmerIndexUtils.open(file);
+
+        for (AminoAcidCodeSequence peptide : this.randomPeptides(random, proteins))
+        {
+            String reducedPeptide = this.reduce(peptide.toString());
+            List<Integer> expected = IntStream.range(0, proteins.size())
+                                              .filter(ii -> this.reduce(proteins.get(ii)
+                                                                                .toString())
+                                                                .contains(reducedPeptide))
+                                              .boxed()
+                                              .collect(Collectors.toList());
+            assertEquals(expected, index.findSimilar(peptide)
+                                        .boxed()
+                                        .collect(Collectors.toList()));
+            assertEquals(expected, mappedIndex.findSimilar(peptide)
+                                              .boxed()
+                                              .collect(Collectors.toList()));
+        }
+        assertEquals(Arrays.asList(0), ProteinKmerIndexUtils.builder()
+                                                            .usingReducedAlphabet(ReducedAlphabet.MURPHY_10)
+                                                            .build(Arrays.asList(AminoAcidCodeSequence.valueOf("MLRPGSTKL")))
+                                                            .findSimilar(AminoAcidCodeSequence.valueOf("IKPGTSRI"))
+                                                            .boxed()
+                                                            .collect(Collectors.toList()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidK() throws Exception
+    {
+        ProteinKmerIndexUtils.builder()
+                             .withK(7)
+                             .build(Arrays.asList(AminoAcidCodeSequence.valueOf("MLRPG")));
+    }
+
+    private String reduce(String sequence)
+    {
+        String[] groups = new String[] { "LVIM", "C", "A", "G", "ST", "P", "FYW", "EDNQ", "KR", "H" };
+        StringBuilder retval = new StringBuilder();
+        for (char code : sequence.toCharArray())
+        {
+            char reducedCode = code;
+            for (String group : groups)
+            {
+                if (group.indexOf(code) >= 0)
+                {
+                    reducedCode = group.charAt(0);
+                }
+            }
+            retval.append(reducedCode);
+        }
+        return retval.toString();
+    }
+
+    private List<AminoAcidCodeSequence> randomProteins(Random random)
+    {
+        List<AminoAcidCodeSequence> retval = new ArrayList<>();
+        for (int ii = 0; ii < 300; ii++)
+        {
+            retval.add(AminoAcidCodeSequence.valueOf(SequenceTestUtils.randomSequence(random, "ACDEFG" + ALPHABET, 10 + random.nextInt(200))));
+        }
+        return retval;
+    }
+
+    private List<AminoAcidCodeSequence> randomPeptides(Random random, List<AminoAcidCodeSequence> proteins)
+    {
+        List<AminoAcidCodeSequence> retval = new ArrayList<>();
+        for (int ii = 0; ii < 100; ii++)
+        {
+            String protein = proteins.get(random.nextInt(proteins.size()))
+                                     .toString();
+            int length = 1 + random.nextInt(Math.min(12, protein.length()));
+            int start = random.nextInt(protein.length() - length + 1);
+            retval.add(AminoAcidCodeSequence.valueOf(protein.substring(start, start + length)));
+            retval.add(AminoAcidCodeSequence.valueOf(SequenceTestUtils.randomSequence(random, "ACDEFG", 1 + random.nextInt(6))));
+        }
+        return retval;
+    }
+}
@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.genomics.translator;
+
+import java.util.Random;
+
+/**
+ * Shared helpers for the randomized tests
+ * 
+ * @author omnaest
+ */
+public class SequenceTestUtils
+{
+    protected SequenceTestUtils()
+    {
+    }
+
+    /**
+     * Returns a random sequence of the given length with characters drawn uniformly from the given alphabet
+     * 
+     * @param random
+     * @param alphabet
+     * @param length
+     * @return
+     */
+    public static String randomSequence(Random random, String alphabet, int length)
+    {
+        StringBuilder retval = new StringBuilder(length);
+        for (int ii = 0; ii < length; ii++)
+        {
+            retval.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return retval.toString();
+    }
+}
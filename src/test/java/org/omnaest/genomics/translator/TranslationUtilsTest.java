@@ -37,13 +37,23 @@ import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import org.junit.Test;
 import org.omnaest.genomics.translator.TranslationUtils;
 import org.omnaest.genomics.translator.ComplementaryBasePairUtils.ComplementationType;
+import org.omnaest.genomics.translator.TranslationUtils.BatchTranslation;
 import org.omnaest.genomics.translator.TranslationUtils.MultiNucleicAcidCodeSequenceTranslation;
 import org.omnaest.genomics.translator.TranslationUtils.NucleicAcidCodeSequenceTranslation;
+import org.omnaest.genomics.translator.TranslationUtils.SixFrameTranslation;
 import org.omnaest.genomics.translator.domain.AminoAcidCodeAndPositionAndSourceSequence;
 import org.omnaest.genomics.translator.domain.AminoAcidCodeSequence;
 import org.omnaest.genomics.translator.domain.NucleicAcidCode;
@@ -234,4 +244,208 @@ public class TranslationUtilsTest
         }
     }
 
+    @Test
+    public void testTranslateUsingGeneticCode() throws Exception
+    {
+        assertEquals("MTW*", TranslationUtils.translate(NucleicAcidCodeSequence.valueOf("ATGACATGAAGA"))
+                                              .frames(0)
+                                              .usingGeneticCode(GeneticCode.VERTEBRATE_MITOCHONDRIAL)
+                                              .get()
+                                              .findFirst()
+                                              .get()
+                                              .asAminoAcidCodeSequence()
+                                              .toString());
+        assertEquals("MT*R", TranslationUtils.translate(0, NucleicAcidCodeSequence.valueOf("ATGACATGAAGA"))
+                                              .asAminoAcidCodeSequence()
+                                              .toString());
+    }
+
+    @Test
+    public void testTranslateAscii() throws Exception
+    {
+        String sequence = "xxGCGATATCGCAAAtgANNTAGRTCCCTAAxx";
+        byte[] source = sequence.getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer directSource = ByteBuffer.allocateDirect(source.length);
+        directSource.put(source);
+        int offset = 2;
+        int length = sequence.length() - 4;
+        NucleicAcidCodeSequence nucleicAcidCodeSequence = NucleicAcidCodeSequence.valueOf(sequence.substring(offset, offset + length));
+
+        byte[] target = new byte[length / 3];
+        for (int frame = 0; frame < 3; frame++)
+        {
+            String expected = TranslationUtils.translate(frame, nucleicAcidCodeSequence)
+                                              .asAminoAcidCodeSequence()
+                                              .toString();
+            String expectedReverse = TranslationUtils.translateReverse(frame, nucleicAcidCodeSequence)
+                                                     .asAminoAcidCodeSequence()
+                                                     .toString();
+
+            assertEquals(expected,
+                         new String(target, 0, TranslationUtils.translateAscii(frame, false, source, offset, length, GeneticCode.STANDARD, target, 0),
+                                    StandardCharsets.US_ASCII));
+            assertEquals(expected,
+                         new String(target, 0, TranslationUtils.translateAscii(frame, false, sequence, offset, length, GeneticCode.STANDARD, target, 0),
+                                    StandardCharsets.US_ASCII));
+            assertEquals(expected, new String(target, 0,
+                                              TranslationUtils.translateAscii(frame, false, directSource, offset, length, GeneticCode.STANDARD, target, 0),
+                                              StandardCharsets.US_ASCII));
+            assertEquals(expectedReverse,
+                         new String(target, 0, TranslationUtils.translateAscii(frame, true, source, offset, length, GeneticCode.STANDARD, target, 0),
+                                    StandardCharsets.US_ASCII));
+            assertEquals(expectedReverse,
+                         new String(target, 0, TranslationUtils.translateAscii(frame, true, sequence, offset, length, GeneticCode.STANDARD, target, 0),
+                                    StandardCharsets.US_ASCII));
+            assertEquals(expectedReverse, new String(target, 0,
+                                                     TranslationUtils.translateAscii(frame, true, directSource, offset, length, GeneticCode.STANDARD, target,
+                                                                                     0),
+                                                     StandardCharsets.US_ASCII));
+        }
+        assertEquals(source.length, directSource.position());
+    }
+
+    @Test
+    public void testTranslateSixFrames() throws Exception
+    {
+        NucleicAcidCodeSequence sequence = NucleicAcidCodeSequence.valueOf("GCGATATCGCAAAtgANN-AGRTCCCUAAGCT");
+        SixFrameTranslation translation = TranslationUtils.translateSixFrames(sequence);
+        for (int frame = 0; frame < 3; frame++)
+        {
+            assertEquals(TranslationUtils.translate(frame, sequence)
+                                         .asCodeAndPositionAndSourceSequence()
+                                         .collect(Collectors.toList())
+                                         .toString(),
+                         translation.getForFrame(frame)
+                                    .asCodeAndPositionAndSourceSequence()
+                                    .collect(Collectors.toList())
+                                    .toString());
+            assertEquals(TranslationUtils.translateReverse(frame, sequence)
+                                         .asCodeAndPositionAndSourceSequence()
+                                         .collect(Collectors.toList())
+                                         .toString(),
+                         translation.getForReverseFrame(frame)
+                                    .asCodeAndPositionAndSourceSequence()
+                                    .collect(Collectors.toList())
+                                    .toString());
+        }
+        assertEquals(Arrays.asList("AISQM", "RYRK*", "DIANX", "IDCIX", "SIAFS", "RYRLH"), TranslationUtils.translateAllFramesAndReverseFrames("GCGATATCGCAAAtgAN")
+                                                                                                   .map(iTranslation -> iTranslation.asAminoAcidCodeSequence()
+                                                                                                                                    .toString())
+                                                                                                   .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testTranslateReverseUsingRNA() throws Exception
+    {
+        assertEquals(StringUtils.reverse("FAIS"), TranslationUtils.translateReverse(0, NucleicAcidCodeSequence.valueOf("GCGAUAUCGCAAA"), GeneticCode.STANDARD,
+                                                                                    ComplementationType.RNA)
+                                                                  .asAminoAcidCodeSequence()
+                                                                  .toString());
+        assertEquals("", TranslationUtils.translateReverse(0, NucleicAcidCodeSequence.valueOf("GC"))
+                                         .asAminoAcidCodeSequence()
+                                         .toString());
+    }
+
+    @Test
+    public void testTranslateReversePositionsWithGap() throws Exception
+    {
+        assertEquals(Arrays.asList(3L, 2L, 1L, 0L), TranslationUtils.translateReverse(0, NucleicAcidCodeSequence.valueOf("GCGATATCGCAAA"))
+                                                                    .asCodeAndPositionAndSourceSequence()
+                                                                    .map(code -> code.getPosition())
+                                                                    .collect(Collectors.toList()));
+        assertEquals(Arrays.asList(2L, 1L, 0L), TranslationUtils.translateReverse(0, NucleicAcidCodeSequence.valueOf("GCGATA-CGCNAA"))
+                                                                .asCodeAndPositionAndSourceSequence()
+                                                                .map(code -> code.getPosition())
+                                                                .collect(Collectors.toList()));
+        assertEquals(Arrays.asList(3L, 2L, 1L, 0L), TranslationUtils.translateReverse(0, NucleicAcidCodeSequence.valueOf("GCGANATCGCNAA"))
+                                                                    .asCodeAndPositionAndSourceSequence()
+                                                                    .map(code -> code.getPosition())
+                                                                    .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testTranslateInParallel() throws Exception
+    {
+        Random random = new Random(1);
+        String codes = "ACGTACGTACGTACGTN-";
+        StringBuilder sequenceBuilder = new StringBuilder();
+        for (int ii = 0; ii < 500000; ii++)
+        {
+            sequenceBuilder.append(codes.charAt(random.nextInt(codes.length())));
+        }
+        NucleicAcidCodeSequence sequence = NucleicAcidCodeSequence.valueOf(sequenceBuilder.toString());
+
+        List<NucleicAcidCodeSequenceTranslation> expected = TranslationUtils.translate(sequence)
+                                                                            .allFrames()
+                                                                            .allReverseFrames()
+                                                                            .get()
+                                                                            .collect(Collectors.toList());
+        List<NucleicAcidCodeSequenceTranslation> parallel = TranslationUtils.translate(sequence)
+                                                                            .allFrames()
+                                                                            .allReverseFrames()
+                                                                            .inParallel()
+                                                                            .get()
+                                                                            .collect(Collectors.toList());
+        assertEquals(expected.size(), parallel.size());
+        for (int ii = 0; ii < expected.size(); ii++)
+        {
+            assertEquals(expected.get(ii)
+                                 .asAminoAcidCodeSequence()
+                                 .toString(),
+                         parallel.get(ii)
+                                 .asAminoAcidCodeSequence()
+                                 .toString());
+            assertEquals(toPositionsAndSourcePositions(expected.get(ii)), toPositionsAndSourcePositions(parallel.get(ii)));
+        }
+    }
+
+    private static List<Long> toPositionsAndSourcePositions(NucleicAcidCodeSequenceTranslation translation)
+    {
+        return translation.asCodeAndPositionAndSourceSequence()
+                          .flatMap(capas -> Stream.of(capas.getPosition(), capas.getSources()
+                                                                                .get(0)
+                                                                                .getPosition()))
+                          .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testTranslateBatch() throws Exception
+    {
+        Random random = new Random(2);
+        List<NucleicAcidCodeSequence> sequences = IntStream.range(0, 5000)
+                                                           .mapToObj(index -> random.ints(random.nextInt(300), 0, 5)
+                                                                                    .mapToObj(code -> String.valueOf("ACGTN".charAt(code)))
+                                                                                    .collect(Collectors.joining()))
+                                                           .map(NucleicAcidCodeSequence::valueOf)
+                                                           .collect(Collectors.toList());
+
+        List<BatchTranslation> translations = TranslationUtils.translateBatch(sequences)
+                                                              .frames(1)
+                                                              .allReverseFrames()
+                                                              .withWorkUnitSize(100)
+                                                              .get()
+                                                              .collect(Collectors.toList());
+        assertEquals(sequences.size(), translations.size());
+        for (int ii = 0; ii < sequences.size(); ii++)
+        {
+            BatchTranslation translation = translations.get(ii);
+            assertEquals(ii, translation.getIndex());
+            assertEquals(TranslationUtils.translate(1, sequences.get(ii))
+                                         .asAminoAcidCodeSequence()
+                                         .toString(),
+                         translation.getFrame(1));
+            assertEquals(TranslationUtils.translateReverse(2, sequences.get(ii))
+                                         .asAminoAcidCodeSequence()
+                                         .toString(),
+                         translation.getReverseFrame(2));
+            assertEquals(null, translation.getFrame(0));
+        }
+
+        AtomicLong indexSum = new AtomicLong();
+        TranslationUtils.translateBatch(sequences.stream())
+                        .allFrames()
+                        .forEach(translation -> indexSum.addAndGet(translation.getIndex()));
+        assertEquals(sequences.size() * (sequences.size() - 1L) / 2, indexSum.get());
+    }
+
 }
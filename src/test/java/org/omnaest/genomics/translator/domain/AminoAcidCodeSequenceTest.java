@@ -34,8 +34,20 @@
 package org.omnaest.genomics.translator.domain;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang.StringUtils;
 import org.junit.Test;
+import org.omnaest.genomics.translator.SequenceTestUtils;
 import org.omnaest.genomics.translator.domain.AminoAcidCodeSequence;
 
 public class AminoAcidCodeSequenceTest
@@ -56,4 +68,94 @@ public class AminoAcidCodeSequenceTest
 														.toString());
 	}
 
+	@Test
+	public void testAsBitSet() throws Exception
+	{
+		AminoAcidCodeSequence sequence = AminoAcidCodeSequence.valueOf("MPPVGGKKAK*-XLRPGHHHHHHAA");
+		BitSet bitSet = sequence.asBitSet();
+		assertEquals(3 * 64, bitSet.size());
+		assertEquals(sequence, AminoAcidCodeSequence.valueOf(bitSet));
+		assertEquals(sequence.hashCode(), AminoAcidCodeSequence	.valueOf(bitSet)
+																.hashCode());
+		assertEquals(0, AminoAcidCodeSequence	.valueOf(new BitSet())
+												.size());
+	}
+
+	@Test
+	public void testPredicateMatcher() throws Exception
+	{
+		assertTrue(AminoAcidCodeSequence.valueOf("MLRPG")
+										.asPredicateMatcher()
+										.test(AminoAcidCodeSequence	.builder()
+																	.append(AminoAcidCode.M, AminoAcidCode.L)
+																	.append(AminoAcidCodeSequence.valueOf("RPG"))
+																	.build()));
+		assertFalse(AminoAcidCodeSequence	.valueOf("MLRPG")
+											.asPredicateMatcher()
+											.test(AminoAcidCodeSequence.valueOf("MLRPA")));
+	}
+
+	@Test
+	public void testPredicateMatcherFuzzy() throws Exception
+	{
+		assertTrue(AminoAcidCodeSequence.valueOf("MJBXG")
+										.asPredicateMatcherFuzzy()
+										.test(AminoAcidCodeSequence.valueOf("MIDWG")));
+		assertFalse(AminoAcidCodeSequence	.valueOf("MJBXG")
+											.asPredicateMatcherFuzzy()
+											.test(AminoAcidCodeSequence.valueOf("MIDW*")));
+		assertFalse(AminoAcidCodeSequence	.valueOf("MJBXG")
+											.asPredicateMatcherFuzzy()
+											.test(AminoAcidCodeSequence.valueOf("MIE*G")));
+
+		assertTrue(AminoAcidCode.X.test(AminoAcidCode.J));
+		assertFalse(AminoAcidCode.L.test(AminoAcidCode.J));
+		assertFalse(AminoAcidCode.X.test(null));
+		assertTrue(AminoAcidCode.matches(AminoAcidCode.J, AminoAcidCode.L));
+		assertTrue(AminoAcidCode.matches(AminoAcidCode.J, AminoAcidCode.X));
+		assertFalse(AminoAcidCode.matches(AminoAcidCode.J, AminoAcidCode.B));
+		assertFalse(AminoAcidCode.matches(AminoAcidCode.STOP, AminoAcidCode.X));
+		assertEquals(EnumSet.of(AminoAcidCode.L, AminoAcidCode.J, AminoAcidCode.X), AminoAcidCode.L.expandedMatchingCodes());
+	}
+
+	@Test
+	public void testIndexOfAndFindAll() throws Exception
+	{
+		Random random = new Random(1);
+		for (String alphabet : new String[] { "AC", "ACDEFGHIKLMNPQRSTVWY" })
+		{
+			String text = SequenceTestUtils.randomSequence(random, alphabet, 5000);
+			AminoAcidCodeSequence sequence = AminoAcidCodeSequence.valueOf(text);
+			for (int patternLength : new int[] { 1, 3, 11, 12, 13, 64, 65, 100, 400 })
+			{
+				int start = random.nextInt(text.length() - patternLength);
+				for (String pattern : new String[] {	text.substring(start, start + patternLength),
+														SequenceTestUtils.randomSequence(random, alphabet, patternLength),
+														StringUtils.repeat("A", patternLength) })
+				{
+					AminoAcidCodeSequence patternSequence = AminoAcidCodeSequence.valueOf(pattern);
+					assertEquals(text.indexOf(pattern), sequence.indexOf(patternSequence));
+					assertEquals(text.indexOf(pattern, 1000), sequence.indexOf(patternSequence, 1000));
+					assertEquals(text.contains(pattern), sequence.contains(patternSequence));
+
+					List<Integer> expected = new ArrayList<>();
+					for (int index = text.indexOf(pattern); index >= 0; index = text.indexOf(pattern, index + 1))
+					{
+						expected.add(index);
+					}
+					assertEquals(expected, sequence	.findAll(patternSequence)
+													.boxed()
+													.collect(Collectors.toList()));
+				}
+			}
+		}
+
+		assertEquals(Arrays.asList(0, 1, 2), AminoAcidCodeSequence	.valueOf("AA")
+																	.findAll(AminoAcidCodeSequence.valueOf(""))
+																	.boxed()
+																	.collect(Collectors.toList()));
+		assertFalse(AminoAcidCodeSequence	.valueOf("MP")
+											.contains(AminoAcidCodeSequence.valueOf("MPP")));
+	}
+
 }
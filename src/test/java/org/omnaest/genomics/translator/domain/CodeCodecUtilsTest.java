@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.genomics.translator.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import org.junit.Test;
+
+public class CodeCodecUtilsTest
+{
+    @Test
+    public void testValueOf() throws Exception
+    {
+        for (NucleicAcidCode code : NucleicAcidCode.values())
+        {
+            char character = code.getRawCode();
+            assertEquals(code, NucleicAcidCode.valueOf(character));
+            assertEquals(code, NucleicAcidCode.valueOf(Character.toLowerCase(character)));
+            assertEquals(code, NucleicAcidCode.valueOf((byte) character));
+        }
+        for (AminoAcidCode code : AminoAcidCode.values())
+        {
+            char character = code.getCode();
+            assertEquals(code, AminoAcidCode.valueOf(character));
+            assertEquals(code, AminoAcidCode.valueOf(Character.toLowerCase(character)));
+            assertEquals(code, AminoAcidCode.valueOf((byte) character));
+        }
+        assertNull(NucleicAcidCode.valueOf('X'));
+        assertNull(NucleicAcidCode.valueOf((byte) -61));
+        assertNull(AminoAcidCode.valueOf('\u00e9'));
+        assertNull(AminoAcidCode.valueOf((Character) null));
+    }
+
+    @Test
+    public void testDecodeAndEncodeNucleicAcidCodes() throws Exception
+    {
+        byte[] source = ">acgtX-NryZ".getBytes(StandardCharsets.US_ASCII);
+        PackedNucleicAcidCodeList.Builder builder = PackedNucleicAcidCodeList.builder();
+        BitSet invalidPositions = CodeCodecUtils.decodeNucleicAcidCodes(source, 1, source.length - 1, builder);
+        PackedNucleicAcidCodeList codes = builder.build();
+
+        assertEquals(Arrays.asList(NucleicAcidCode.A, NucleicAcidCode.C, NucleicAcidCode.G, NucleicAcidCode.T, null, NucleicAcidCode.___,
+                                   NucleicAcidCode.N, NucleicAcidCode.R, NucleicAcidCode.Y, null),
+                     codes);
+        assertEquals(BitSet.valueOf(new long[] { (1L << 4) | (1L << 9) }), invalidPositions);
+        assertEquals(invalidPositions, CodeCodecUtils.decodeNucleicAcidCodes(">acgtX-NryZ", 1, source.length - 1, PackedNucleicAcidCodeList.builder()));
+
+        byte[] target = new byte[codes.size() + 1];
+        CodeCodecUtils.encodeNucleicAcidCodes(codes, 0, codes.size(), target, 1);
+        assertEquals("\0ACGT -NRY ", new String(target, StandardCharsets.US_ASCII));
+        CodeCodecUtils.encodeNucleicAcidCodes(codes.subList(1, 4), 0, 3, target, 0);
+        assertEquals("CGTG", new String(target, 0, 4, StandardCharsets.US_ASCII));
+        assertEquals("ACGT -NRY ", NucleicAcidCodeSequence.valueOf("acgtX-NryZ")
+                                                          .toString());
+    }
+
+    @Test
+    public void testDecodeAndEncodeAminoAcidCodes() throws Exception
+    {
+        PackedAminoAcidCodeList.Builder builder = PackedAminoAcidCodeList.builder();
+        BitSet invalidPositions = CodeCodecUtils.decodeAminoAcidCodes("MkW*-1x", 0, 7, builder);
+        PackedAminoAcidCodeList codes = builder.build();
+
+        assertEquals(Arrays.asList(AminoAcidCode.M, AminoAcidCode.K, AminoAcidCode.W, AminoAcidCode.STOP, AminoAcidCode.__, null, AminoAcidCode.X), codes);
+        assertEquals(BitSet.valueOf(new long[] { 1L << 5 }), invalidPositions);
+
+        byte[] target = new byte[codes.size()];
+        CodeCodecUtils.encodeAminoAcidCodes(codes, 0, codes.size(), target, 0);
+        assertEquals("MKW*- X", new String(target, StandardCharsets.US_ASCII));
+    }
+}
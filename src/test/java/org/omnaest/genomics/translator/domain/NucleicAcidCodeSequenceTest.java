@@ -33,9 +33,20 @@
 */
 package org.omnaest.genomics.translator.domain;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
 
 import org.junit.Test;
+import org.omnaest.genomics.translator.ComplementaryBasePairUtils.ComplementationType;
 import org.omnaest.genomics.translator.domain.NucleicAcidCodeSequence;
 
 /**
@@ -64,4 +75,111 @@ public class NucleicAcidCodeSequenceTest
 		assertEquals(codes, result);
 	}
 
+	@Test
+	public void testAmbiguityCodesAndGaps() throws Exception
+	{
+		String codes = "ACGTNNNNRYACG-TTUKMSWBDHVNAGGGCCCTTTAAAGGGCCCTTTAAAN";
+		NucleicAcidCodeSequence sequence = NucleicAcidCodeSequence.valueOf(codes);
+		assertEquals(codes, sequence.toString());
+		assertEquals(codes.length(), sequence.size());
+		assertEquals(NucleicAcidCode.N, sequence.get(4));
+		assertEquals(NucleicAcidCode.U, sequence.get(16));
+		assertEquals(NucleicAcidCode.___, sequence.get(13));
+	}
+
+	@Test
+	public void testEqualsAndHashCode() throws Exception
+	{
+		List<NucleicAcidCode> codes = new ArrayList<>(Arrays.asList(NucleicAcidCode.A, NucleicAcidCode.U, NucleicAcidCode.N, null, NucleicAcidCode.T));
+		NucleicAcidCodeSequence sequence = NucleicAcidCodeSequence.valueOf(codes);
+		assertEquals(codes.hashCode() + 31, sequence.hashCode());
+		assertEquals(NucleicAcidCodeSequence.valueOf(codes), sequence);
+		assertArrayEquals(codes.toArray(), sequence.toArray());
+		assertEquals(codes, sequence	.stream()
+										.collect(Collectors.toList()));
+		assertEquals("AUN T", sequence.toString());
+	}
+
+	@Test
+	public void testInverse() throws Exception
+	{
+		assertEquals("NCAAGT", NucleicAcidCodeSequence	.valueOf("TGAACN")
+														.inverse()
+														.toString());
+	}
+
+	@Test
+	public void testContainsGapOrNull() throws Exception
+	{
+		assertFalse(NucleicAcidCodeSequence	.valueOf("ACGTNNRYACGT")
+											.containsGapOrNull());
+		assertTrue(NucleicAcidCodeSequence	.valueOf("ACGTNN-ACGT")
+											.containsGapOrNull());
+		assertTrue(NucleicAcidCodeSequence	.valueOf(Arrays.asList(NucleicAcidCode.A, null, NucleicAcidCode.N))
+											.containsGapOrNull());
+	}
+
+	@Test
+	public void testAsReverseComplementView() throws Exception
+	{
+		NucleicAcidCodeSequence sequence = NucleicAcidCodeSequence.valueOf("TGAACNGGU");
+		assertEquals(sequence	.inverse()
+								.asReverseStrand(ComplementationType.DNA),
+						sequence.asReverseComplementView(ComplementationType.DNA));
+		assertEquals("ACCNGTTCA", sequence	.asReverseComplementView(ComplementationType.DNA)
+											.toString());
+		assertEquals("ACCNGUUCA", sequence	.asReverseComplementView(ComplementationType.RNA)
+											.toString());
+	}
+
+	@Test
+	public void testAsReverseComplement() throws Exception
+	{
+		Random random = new Random(1);
+		String alphabet = "ACGTACGTACGTUNRY-";
+		for (int length = 0; length < 140; length++)
+		{
+			StringBuilder codes = new StringBuilder();
+			for (int ii = 0; ii < length; ii++)
+			{
+				int index = random.nextInt(length % 3 == 0 ? 4 : alphabet.length() + 1);
+				codes.append(index < alphabet.length() ? alphabet.charAt(index) : 'X');
+			}
+			NucleicAcidCodeSequence sequence = NucleicAcidCodeSequence.valueOf(codes.toString());
+			for (ComplementationType complementationType : ComplementationType.values())
+			{
+				NucleicAcidCodeSequence expected = NucleicAcidCodeSequence.valueOf(sequence	.asReverseComplementView(complementationType)
+																							.toList());
+				NucleicAcidCodeSequence reverseComplement = sequence.asReverseComplement(complementationType);
+				assertEquals(expected.toList(), reverseComplement.toList());
+				assertEquals(expected, reverseComplement);
+				if (complementationType == ComplementationType.DNA && codes.indexOf("U") < 0)
+				{
+					assertEquals(sequence, reverseComplement.asReverseComplement(complementationType));
+				}
+
+				NucleicAcidCodeSequence complement = sequence.asReverseStrand(complementationType);
+				assertEquals(NucleicAcidCodeSequence.valueOf(sequence	.stream()
+																		.map(complementationType::getComplement)),
+								complement);
+			}
+		}
+	}
+
+	@Test
+	public void testMatchingCodes() throws Exception
+	{
+		assertEquals(EnumSet.of(NucleicAcidCode.A, NucleicAcidCode.R, NucleicAcidCode.M, NucleicAcidCode.W, NucleicAcidCode.D, NucleicAcidCode.H,
+								NucleicAcidCode.V, NucleicAcidCode.N),
+						NucleicAcidCode.A.matchingCodes());
+		assertTrue(NucleicAcidCode.Y.test('u'));
+		assertFalse(NucleicAcidCode.Y.test('G'));
+		assertTrue(NucleicAcidCode.___.test('-'));
+		assertTrue(NucleicAcidCode.matches(NucleicAcidCode.R, NucleicAcidCode.N));
+		assertTrue(NucleicAcidCode.matches(NucleicAcidCode.B, NucleicAcidCode.K));
+		assertFalse(NucleicAcidCode.matches(NucleicAcidCode.R, NucleicAcidCode.Y));
+		assertFalse(NucleicAcidCode.matches(NucleicAcidCode.N, NucleicAcidCode.___));
+		assertTrue(NucleicAcidCode.matches(NucleicAcidCode.___, NucleicAcidCode.___));
+	}
+
 }
@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.genomics.translator.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+import org.omnaest.genomics.translator.TranslationUtils;
+import org.omnaest.genomics.translator.domain.AminoAcidCode;
+import org.omnaest.genomics.translator.domain.AminoAcidCodeAndPositionAndSourceSequence;
+import org.omnaest.genomics.translator.domain.AminoAcidCodeSequence;
+import org.omnaest.genomics.translator.domain.NucleicAcidCode;
+import org.omnaest.genomics.translator.domain.NucleicAcidCodeSequence;
+import org.omnaest.genomics.translator.io.BinarySequenceUtils.SequenceRecord;
+import org.omnaest.genomics.translator.io.BinarySequenceUtils.SequenceType;
+import org.omnaest.genomics.translator.io.BinarySequenceUtils.SequenceWriter;
+
+public class BinarySequenceUtilsTest
+{
+    private final NucleicAcidCodeSequence twoBitSequence  = NucleicAcidCodeSequence.valueOf("ACGTNNNNACGTTTGCA-ACGGGATTTACAGATCCG");
+    private final NucleicAcidCodeSequence fourBitSequence = NucleicAcidCodeSequence.valueOf("ARYKMSWBDHVNACGU");
+    private final NucleicAcidCodeSequence nullSequence    = NucleicAcidCodeSequence.valueOf(Arrays.asList(NucleicAcidCode.A, null, null, NucleicAcidCode.U));
+    private final AminoAcidCodeSequence   aminoAcids      = AminoAcidCodeSequence.valueOf("MPPVGGKKAK*-XLRPGHHHHHHJBZ");
+
+    @Test
+    public void testReadFromInputStream() throws Exception
+    {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        AminoAcidCodeAndPositionAndSourceSequence translation = this.writeAll(BinarySequenceUtils.newWriter(outputStream));
+
+        try (Stream<SequenceRecord> records = BinarySequenceUtils.read(new ByteArrayInputStream(outputStream.toByteArray())))
+        {
+            this.assertRecords(translation, records.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void testReadMappedFile() throws Exception
+    {
+        File file = File.createTempFile("sequences", ".bin");
+        file.deleteOnExit();
+        AminoAcidCodeAndPositionAndSourceSequence translation = this.writeAll(BinarySequenceUtils.newWriter(file));
+
+        try (Stream<SequenceRecord> records = BinarySequenceUtils.read(file))
+        {
+            this.assertRecords(translation, records.collect(Collectors.toList()));
+        }
+        try (Stream<SequenceRecord> records = BinarySequenceUtils.readStreaming(file))
+        {
+            this.assertRecords(translation, records.collect(Collectors.toList()));
+        }
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void testReadInvalidHeader() throws Exception
+    {
+        BinarySequenceUtils.read(new ByteArrayInputStream(new byte[] { 'N', 'A', 'S', 'Q', 99 }));
+    }
+
+    private AminoAcidCodeAndPositionAndSourceSequence writeAll(SequenceWriter writer)
+    {
+        AminoAcidCodeAndPositionAndSourceSequence translation = TranslationUtils.translateReverse(1, this.twoBitSequence)
+                                                                                .asAminoAcidCodeAndPositionAndSourceSequence();
+        try (SequenceWriter sequenceWriter = writer)
+        {
+            sequenceWriter.write(this.twoBitSequence)
+                          .write(this.fourBitSequence)
+                          .write(this.nullSequence)
+                          .write(NucleicAcidCodeSequence.empty())
+                          .write(this.aminoAcids)
+                          .write(translation);
+        }
+        return translation;
+    }
+
+    private void assertRecords(AminoAcidCodeAndPositionAndSourceSequence translation, List<SequenceRecord> records)
+    {
+        assertEquals(6, records.size());
+        assertEquals(SequenceType.NUCLEIC_ACIDS, records.get(0)
+                                                        .getType());
+        assertEquals(this.twoBitSequence, records.get(0)
+                                                 .asNucleicAcidCodeSequence());
+        assertEquals(this.fourBitSequence, records.get(1)
+                                                  .asNucleicAcidCodeSequence());
+        assertEquals(this.nullSequence, records.get(2)
+                                               .asNucleicAcidCodeSequence());
+        assertEquals(0, records.get(3)
+                               .asNucleicAcidCodeSequence()
+                               .size());
+        assertEquals(this.aminoAcids, records.get(4)
+                                             .asAminoAcidCodeSequence());
+        assertEquals(SequenceType.TRANSLATION, records.get(5)
+                                                      .getType());
+        assertEquals(this.toString(translation), this.toString(records.get(5)
+                                                                       .asTranslation()));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testWrongType() throws Exception
+    {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (SequenceWriter writer = BinarySequenceUtils.newWriter(outputStream))
+        {
+            writer.write(AminoAcidCodeSequence.valueOf(Arrays.asList(AminoAcidCode.M)));
+        }
+        BinarySequenceUtils.read(new ByteArrayInputStream(outputStream.toByteArray()))
+                           .findFirst()
+                           .get()
+                           .asNucleicAcidCodeSequence();
+    }
+
+    private String toString(AminoAcidCodeAndPositionAndSourceSequence sequence)
+    {
+        return sequence.asCodeAndPositionAndSourceStream()
+                       .map(code -> code.getCode() + "@" + code.getPosition() + code.getSources()
+                                                                                    .stream()
+                                                                                    .map(source -> source.getCode() + "@" + source.getPosition())
+                                                                                    .collect(Collectors.toList()))
+                       .collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.genomics.translator.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Test;
+
+public class ByteBufferSourceUtilsTest
+{
+    @Test
+    public void testFromInputStreamDetectingCompression() throws Exception
+    {
+        byte[] data = createData(1000000);
+
+        assertArrayEquals(data, readFully(ByteBufferSourceUtils.fromInputStreamDetectingCompression(new ByteArrayInputStream(data))));
+        assertArrayEquals(data, readFully(ByteBufferSourceUtils.fromInputStreamDetectingCompression(new ByteArrayInputStream(gzip(data)))));
+        assertArrayEquals(data, readFully(ByteBufferSourceUtils.fromInputStreamDetectingCompression(new ByteArrayInputStream(bgzf(data)))));
+        assertArrayEquals(new byte[0], readFully(ByteBufferSourceUtils.fromInputStreamDetectingCompression(new ByteArrayInputStream(new byte[0]))));
+    }
+
+    @Test
+    public void testReadBgzfFasta() throws Exception
+    {
+        String fasta = ">chr1\nACGT\nACGT\n>chr2\nGGG\n";
+        assertEquals("ACGTACGT", FastaUtils.read(new ByteArrayInputStream(bgzf(fasta.getBytes(StandardCharsets.US_ASCII))))
+                                           .findFirst()
+                                           .get()
+                                           .getSequence()
+                                           .toString());
+    }
+
+    @Test(timeout = 10000)
+    public void testPipelinedSourceRuntimeException() throws Exception
+    {
+        InputStream inputStream = new InputStream()
+        {
+            @Override
+            public int read() throws IOException
+            {
+                throw new IllegalStateException("broken stream");
+            }
+        };
+        try
+        {
+            readFully(new PipelinedByteBufferSource(inputStream, 1024));
+            fail();
+        }
+        catch (IOException e)
+        {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    private static byte[] createData(int size)
+    {
+        Random random = new Random(1);
+        byte[] retval = new byte[size];
+        for (int ii = 0; ii < size; ii++)
+        {
+            retval[ii] = (byte) "ACGT\n".charAt(random.nextInt(5));
+        }
+        return retval;
+    }
+
+    private static byte[] readFully(ByteBufferSource source) throws IOException
+    {
+        ByteArrayOutputStream retval = new ByteArrayOutputStream();
+        for (ByteBuffer buffer = source.next(); buffer != null; buffer = source.next())
+        {
+            while (buffer.hasRemaining())
+            {
+                retval.write(buffer.get());
+            }
+        }
+        source.close();
+        return retval.toByteArray();
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException
+    {
+        ByteArrayOutputStream retval = new ByteArrayOutputStream();
+        try (GZIPOutputStream outputStream = new GZIPOutputStream(retval))
+        {
+            outputStream.write(data);
+        }
+        return retval.toByteArray();
+    }
+
+    /**
+     * Writes BGZF blocks of 60000 bytes followed by the empty end of file block
+     */
+    private static byte[] bgzf(byte[] data) throws IOException
+    {
+        ByteArrayOutputStream retval = new ByteArrayOutputStream();
+        for (int offset = 0;; offset = Math.min(data.length, offset + 60000))
+        {
+            int length = Math.min(60000, data.length - offset);
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            deflater.setInput(data, offset, length);
+            deflater.finish();
+            byte[] compressed = new byte[70000];
+            int compressedLength = deflater.deflate(compressed);
+            deflater.end();
+
+            CRC32 crc = new CRC32();
+            crc.update(data, offset, length);
+
+            int blockSize = 18 + compressedLength + 8;
+            retval.write(new byte[] { 0x1f, (byte) 0x8b, 8, 4, 0, 0, 0, 0, 0, (byte) 0xff, 6, 0, 'B', 'C', 2, 0, (byte) (blockSize - 1),
+                    (byte) ((blockSize - 1) >> 8) });
+            retval.write(compressed, 0, compressedLength);
+            writeInt(retval, crc.getValue());
+            writeInt(retval, length);
+            if (length == 0)
+            {
+                break;
+            }
+        }
+        return retval.toByteArray();
+    }
+
+    private static void writeInt(ByteArrayOutputStream outputStream, long value)
+    {
+        for (int ii = 0; ii < 4; ii++)
+        {
+            outputStream.write((int) (value >> (8 * ii)) & 0xFF);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.genomics.translator.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+
+import org.junit.Test;
+import org.omnaest.genomics.translator.io.FastaIndexUtils.FastaIndex;
+import org.omnaest.genomics.translator.io.FastaIndexUtils.IndexedFasta;
+
+public class FastaIndexUtilsTest
+{
+    @Test
+    public void testFetch() throws Exception
+    {
+        Random random = new Random(1);
+        StringBuilder chr1 = new StringBuilder();
+        for (int ii = 0; ii < 1000; ii++)
+        {
+            chr1.append("ACGTN".charAt(random.nextInt(5)));
+        }
+        String chr2 = "GATTACA";
+
+        for (String lineBreak : new String[] { "\n", "\r\n" })
+        {
+            File file = File.createTempFile("fasta", ".fa");
+            file.deleteOnExit();
+            Files.write(file.toPath(), (">chr1 description" + lineBreak + chr1.toString()
+                                                                              .replaceAll("(.{60})", "$1" + lineBreak)
+                    + lineBreak + ">chr2" + lineBreak + chr2).getBytes(StandardCharsets.US_ASCII));
+
+            FastaIndex index = FastaIndexUtils.buildIndex(file);
+            assertEquals(2, index.getEntries()
+                                 .size());
+            assertEquals(1000, index.getEntry("chr1")
+                                    .get()
+                                    .getLength());
+            assertEquals(60 + lineBreak.length(), index.getEntry("chr1")
+                                                       .get()
+                                                       .getLineWidth());
+
+            try (IndexedFasta indexedFasta = FastaIndexUtils.open(file))
+            {
+                for (int start = 0; start < 1000; start += 37)
+                {
+                    int end = Math.min(1000, start + random.nextInt(200));
+                    assertEquals(chr1.substring(start, end), indexedFasta.fetch("chr1", start, end)
+                                                                         .toString());
+                }
+                assertEquals("TTAC", indexedFasta.fetch("chr2", 2, 6)
+                                                 .toString());
+                assertEquals("ACA", indexedFasta.fetch("chr2", 4, 100)
+                                                .toString());
+            }
+        }
+    }
+
+    @Test
+    public void testWriteAndReadIndex() throws Exception
+    {
+        File file = File.createTempFile("fasta", ".fa");
+        file.deleteOnExit();
+        Files.write(file.toPath(), ">protein1\nMPPVGG\nKKAK\n>protein2\nMLRPG\n".getBytes(StandardCharsets.US_ASCII));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        FastaIndexUtils.buildIndex(file)
+                       .writeTo(outputStream);
+        assertEquals("protein1\t10\t10\t6\t7\nprotein2\t5\t32\t5\t6\n", new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+
+        FastaIndex index = FastaIndexUtils.readIndex(new ByteArrayInputStream(outputStream.toByteArray()));
+        try (IndexedFasta indexedFasta = FastaIndexUtils.open(file, index))
+        {
+            assertEquals("GGKK", indexedFasta.fetchAminoAcids("protein1", 4, 8)
+                                             .toString());
+            assertEquals("LRP", indexedFasta.fetchAminoAcids("protein2", 1, 4)
+                                            .toString());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFetchUnknownRecord() throws Exception
+    {
+        File file = File.createTempFile("fasta", ".fa");
+        file.deleteOnExit();
+        Files.write(file.toPath(), ">chr1\nACGT\n".getBytes(StandardCharsets.US_ASCII));
+        try (IndexedFasta indexedFasta = FastaIndexUtils.open(file))
+        {
+            indexedFasta.fetch("chr2", 0, 1);
+        }
+    }
+}
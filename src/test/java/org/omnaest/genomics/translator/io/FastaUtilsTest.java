@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.genomics.translator.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.omnaest.genomics.translator.TranslationUtils;
+import org.omnaest.genomics.translator.io.FastaUtils.FastaRecord;
+
+public class FastaUtilsTest
+{
+    private static final String FASTA = ">chr1 first record\r\nATGCCACCC\r\nGTTGGGGGC\r\n\r\n>chr2\nacgtn\nNNTA\n>empty\n>chr3\nGATTACA";
+
+    @Test
+    public void testRead() throws Exception
+    {
+        List<FastaRecord> records = FastaUtils.read(new ByteArrayInputStream(FASTA.getBytes(StandardCharsets.US_ASCII)))
+                                              .collect(Collectors.toList());
+        this.assertRecords(records);
+        assertEquals("MPPVGG", TranslationUtils.translate(0, records.get(0)
+                                                                .getSequence())
+                                               .asAminoAcidCodeSequence()
+                                               .toString());
+    }
+
+    @Test
+    public void testReadMappedFile() throws Exception
+    {
+        File file = File.createTempFile("fasta", ".fa");
+        file.deleteOnExit();
+        Files.write(file.toPath(), FASTA.getBytes(StandardCharsets.US_ASCII));
+
+        for (int chunkSize : new int[] { 1, 3, 7, 1 << 20 })
+        {
+            this.assertRecords(FastaUtils.read(ByteBufferSourceUtils.fromMappedFile(file, chunkSize))
+                                         .collect(Collectors.toList()));
+        }
+        this.assertRecords(FastaUtils.read(file)
+                                     .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testReadWithoutHeader() throws Exception
+    {
+        List<FastaRecord> records = FastaUtils.read(new ByteArrayInputStream("\nACGT\nAC\n".getBytes(StandardCharsets.US_ASCII)))
+                                              .collect(Collectors.toList());
+        assertEquals(1, records.size());
+        assertEquals("", records.get(0)
+                                .getHeader());
+        assertEquals("ACGTAC", records.get(0)
+                                      .getSequence()
+                                      .toString());
+    }
+
+    private void assertRecords(List<FastaRecord> records)
+    {
+        assertEquals(4, records.size());
+        assertEquals("chr1 first record", records.get(0)
+                                                 .getHeader());
+        assertEquals("ATGCCACCCGTTGGGGGC", records.get(0)
+                                                  .getSequence()
+                                                  .toString());
+        assertEquals("chr2", records.get(1)
+                                    .getHeader());
+        assertEquals("ACGTNNNTA", records.get(1)
+                                         .getSequence()
+                                         .toString());
+        assertEquals("empty", records.get(2)
+                                     .getHeader());
+        assertEquals(0, records.get(2)
+                               .getSequence()
+                               .size());
+        assertEquals("GATTACA", records.get(3)
+                                       .getSequence()
+                                       .toString());
+    }
+
+}
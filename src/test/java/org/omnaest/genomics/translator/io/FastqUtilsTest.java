@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.genomics.translator.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.omnaest.genomics.translator.TranslationUtils;
+import org.omnaest.genomics.translator.io.FastqUtils.FastqRecord;
+
+public class FastqUtilsTest
+{
+    private static final String FASTQ = "@read1 length=9\nATGCCACCC\n+\nIIIII#III\n\n@read2\r\nGTTGGG\r\n+read2\r\nII!!II\r\n";
+
+    @Test
+    public void testRead() throws Exception
+    {
+        List<FastqRecord> records = FastqUtils.read(new ByteArrayInputStream(FASTQ.getBytes(StandardCharsets.US_ASCII)))
+                                              .get()
+                                              .collect(Collectors.toList());
+        assertEquals(2, records.size());
+        assertEquals("read1 length=9", records.get(0)
+                                              .getHeader());
+        assertEquals("ATGCCACCC", records.get(0)
+                                         .getSequence()
+                                         .toString());
+        assertEquals("read2", records.get(1)
+                                     .getHeader());
+        assertEquals("GTTGGG", records.get(1)
+                                      .getSequence()
+                                      .toString());
+    }
+
+    @Test
+    public void testReadWithQualityThreshold() throws Exception
+    {
+        assertEquals(Arrays.asList("ATGCCNCCC", "GTNNGG"), FastqUtils.read(new ByteArrayInputStream(FASTQ.getBytes(StandardCharsets.US_ASCII)))
+                                                                     .withQualityThreshold(20)
+                                                                     .getSequences()
+                                                                     .map(sequence -> sequence.toString())
+                                                                     .collect(Collectors.toList()));
+
+        assertEquals(Arrays.asList("MPP", "VX"), TranslationUtils.translateBatch(FastqUtils.read(new ByteArrayInputStream(FASTQ.getBytes(StandardCharsets.US_ASCII)))
+                                                                                           .withQualityThreshold(20)
+                                                                                           .getSequences())
+                                                                 .frames(0)
+                                                                 .get()
+                                                                 .map(translation -> translation.getFrame(0))
+                                                                 .collect(Collectors.toList()));
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void testReadInvalid() throws Exception
+    {
+        FastqUtils.read(new ByteArrayInputStream("@read1\nACGT\n+\nII\n".getBytes(StandardCharsets.US_ASCII)))
+                  .get()
+                  .count();
+    }
+
+}
@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright 2021 Danny Kunz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package org.omnaest.genomics.translator.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.omnaest.genomics.translator.io.TwoBitUtils.TwoBitFile;
+import org.omnaest.genomics.translator.io.TwoBitUtils.TwoBitRecord;
+
+public class TwoBitUtilsTest
+{
+    @Test
+    public void testOpen() throws Exception
+    {
+        for (ByteOrder byteOrder : new ByteOrder[] { ByteOrder.LITTLE_ENDIAN, ByteOrder.BIG_ENDIAN })
+        {
+            File file = this.createTwoBitFile(byteOrder, new String[] { "chr1", "chr2" }, new String[] { "ACGTNNNNacgtTTGCA", "GATTACA" });
+            try (TwoBitFile twoBitFile = TwoBitUtils.open(file))
+            {
+                assertEquals(Arrays.asList("chr1", "chr2"), twoBitFile.getNames());
+                assertFalse(twoBitFile.getRecord("chr3")
+                                      .isPresent());
+
+                TwoBitRecord record = twoBitFile.getRecord("chr1")
+                                                .get();
+                assertEquals(17, record.getLength());
+                assertEquals("ACGTNNNNACGTTTGCA", record.getSequence()
+                                                        .toString());
+                assertEquals("NNAC", record.getSequence()
+                                           .subSequence(6, 10)
+                                           .toString());
+                assertEquals("[[4, 8)]", record.getNBlocks()
+                                               .toString());
+                assertEquals("[[8, 12)]", record.getMaskBlocks()
+                                                .toString());
+                assertFalse(record.isMasked(7));
+                assertTrue(record.isMasked(8));
+                assertTrue(record.isMasked(11));
+                assertFalse(record.isMasked(12));
+
+                assertEquals("GATTACA", twoBitFile.getRecord("chr2")
+                                                  .get()
+                                                  .getSequence()
+                                                  .toString());
+            }
+        }
+    }
+
+    private File createTwoBitFile(ByteOrder byteOrder, String[] names, String[] sequences) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(1024)
+                                      .order(byteOrder);
+        buffer.putInt(0x1A412743)
+              .putInt(0)
+              .putInt(names.length)
+              .putInt(0);
+        int offsetsPosition = buffer.position();
+        for (String name : names)
+        {
+            buffer.put((byte) name.length())
+                  .put(name.getBytes(StandardCharsets.US_ASCII))
+                  .putInt(0);
+        }
+        for (int ii = 0; ii < names.length; ii++)
+        {
+            offsetsPosition += 1 + names[ii].length();
+            buffer.putInt(offsetsPosition, buffer.position());
+            offsetsPosition += 4;
+
+            String sequence = sequences[ii];
+            buffer.putInt(sequence.length());
+            this.putBlocks(buffer, sequence, "N");
+            this.putBlocks(buffer, sequence, "[a-z]");
+            buffer.putInt(0);
+            for (int position = 0; position < sequence.length(); position += 4)
+            {
+                int value = 0;
+                for (int jj = 0; jj < 4; jj++)
+                {
+                    int index = position + jj;
+                    int bits = index < sequence.length() ? Math.max(0, "TCAG".indexOf(Character.toUpperCase(sequence.charAt(index)))) : 0;
+                    value |= bits << (6 - 2 * jj);
+                }
+                buffer.put((byte) value);
+            }
+        }
+
+        File file = File.createTempFile("genome", ".2bit");
+        file.deleteOnExit();
+        Files.write(file.toPath(), Arrays.copyOf(buffer.array(), buffer.position()));
+        return file;
+    }
+
+    private void putBlocks(ByteBuffer buffer, String sequence, String regex)
+    {
+        int[] starts = new int[sequence.length()];
+        int[] sizes = new int[sequence.length()];
+        int count = 0;
+        for (int ii = 0; ii < sequence.length(); ii++)
+        {
+            if (String.valueOf(sequence.charAt(ii))
+                      .matches(regex))
+            {
+                if (count > 0 && starts[count - 1] + sizes[count - 1] == ii)
+                {
+                    sizes[count - 1]++;
+                }
+                else
+                {
+                    starts[count] = ii;
+                    sizes[count] = 1;
+                    count++;
+                }
+            }
+        }
+        buffer.putInt(count);
+        for (int ii = 0; ii < count; ii++)
+        {
+            buffer.putInt(starts[ii]);
+        }
+        for (int ii = 0; ii < count; ii++)
+        {
+            buffer.putInt(sizes[ii]);
+        }
+    }
+}